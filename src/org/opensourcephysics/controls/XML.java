@@ -19,7 +19,9 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This defines the ObjectLoader interface and static methods for managing and
@@ -47,7 +49,12 @@ public class XML {
 	@SuppressWarnings("javadoc")
 	public static final int INDENT = 4;
   // static fields
-  private static Map<Class<?>, ObjectLoader> loaders = new HashMap<Class<?>, ObjectLoader>();
+  private static Map<Class<?>, ObjectLoader> loaders = new ConcurrentHashMap<Class<?>, ObjectLoader>();
+  // static getLoader() methods, or NOT_FOUND, by class
+  private static Map<Class<?>, Object> loaderMethods = new ConcurrentHashMap<Class<?>, Object>();
+  // classes, or NOT_FOUND, by name
+  private static Map<String, Object> classes = new ConcurrentHashMap<String, Object>();
+  private static final Object NOT_FOUND = new Object();
   private static ObjectLoader defaultLoader;
   private static String dtdName;
   private static String dtd;                          // the dtd as a string
@@ -79,7 +86,11 @@ public class XML {
    * @param loader the ObjectLoader
    */
   public static void setLoader(Class<?> classtype, XML.ObjectLoader loader) {
-	  if (!(loader instanceof NonStaticLoader))
+	  if (classtype == null)
+		  return;
+	  if (loader == null)
+		  loaders.remove(classtype);
+	  else if (!(loader instanceof NonStaticLoader))
 		  loaders.put(classtype, loader);
   }
 
@@ -90,22 +101,26 @@ public class XML {
    * @return the ObjectLoader
    */
   public static XML.ObjectLoader getLoader(Class<?> classtype) {
-    // look for registered loader first
-    ObjectLoader loader = loaders.get(classtype);
+    // look for registered loader first (the map does not accept null keys)
+    ObjectLoader loader = (classtype==null) ? null : loaders.get(classtype);
     // if no registered loader, look for static getLoader() method in class
-    if(loader==null) {
-      try {
-        Method method = classtype.getMethod("getLoader", (Class<?>[]) null); //$NON-NLS-1$
-        if((method!=null)&&Modifier.isStatic(method.getModifiers())) {
-          loader = (ObjectLoader) method.invoke(null, (Object[]) null);
+    if((loader==null)&&(classtype!=null)) {
+      Object method = loaderMethods.get(classtype);
+      if(method==null) {
+        method = findLoaderMethod(classtype);
+        loaderMethods.put(classtype, method);
+      }
+      if(method!=NOT_FOUND) {
+        try {
+          loader = (ObjectLoader) ((Method) method).invoke(null, (Object[]) null);
           if(loader!=null) {
             // register loader for future calls
             setLoader(classtype, loader);
           }
-        }
-      } catch(Exception ex) {
+        } catch(Exception ex) {
 
-      /** empty block */
+        /** empty block */
+        }
       }
     }
     // if still no loader found, use the default loader
@@ -118,6 +133,86 @@ public class XML {
     return loader;
   }
 
+  /**
+   * Finds the static getLoader() method of a class.
+   *
+   * @param classtype the class
+   * @return the method, or NOT_FOUND
+   */
+  private static Object findLoaderMethod(Class<?> classtype) {
+    try {
+      Method method = classtype.getMethod("getLoader", (Class<?>[]) null); //$NON-NLS-1$
+      if((method!=null)&&Modifier.isStatic(method.getModifiers())) {
+        return method;
+      }
+    } catch(Exception ex) {
+
+    /** empty block */
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Gets the class with the specified name using the system class loader or,
+   * failing that, the XML class loader. Results, including unknown names, are
+   * cached until the XML class loader changes.
+   *
+   * @param className the class name
+   * @return the class, or null if not found
+   */
+  public static Class<?> forName(String className) {
+    if(className==null) {
+      return null;
+    }
+    Object type = classes.get(className);
+    if(type==null) {
+      try {
+        type = Class.forName(className);
+      } catch(ClassNotFoundException ex) {
+        try {
+          type = (classLoader==null) ? NOT_FOUND : classLoader.loadClass(className);
+        } catch(ClassNotFoundException e) {
+          type = NOT_FOUND;
+        }
+      }
+      classes.put(className, type);
+    }
+    return (type==NOT_FOUND) ? null : (Class<?>) type;
+  }
+
+  /**
+   * Loads new objects from a list of controls, such as the items of a
+   * collection. The class and ObjectLoader are looked up once for each run of
+   * controls with the same class, rather than once per control.
+   *
+   * @param controls the controls
+   * @return a list of the loaded objects, which may include nulls
+   */
+  public static List<Object> loadObjects(List<? extends XMLControl> controls) {
+    List<Object> objects = new ArrayList<Object>(controls.size());
+    String className = null;
+    Class<?> type = null;
+    ObjectLoader loader = null;
+    for(int i = 0, n = controls.size(); i<n; i++) {
+      XMLControl control = controls.get(i);
+      String name = control.getObjectClassName();
+      if((name==null)||!name.equals(className)) {
+        className = name;
+        type = control.getObjectClass();
+        loader = (type==null) ? null : getLoader(type);
+      }
+      // reuse the loader only for new objects from stateless loaders
+      if((loader==null)||(loader instanceof NonStaticLoader)||!(control instanceof XMLControlElement)
+          ||(((XMLControlElement) control).object!=null)) {
+        objects.add(control.loadObject(null));
+        continue;
+      }
+      Object obj = loader.createObject(control);
+      objects.add(((obj==null)||!type.isInstance(obj)) ? obj : loader.loadObject(control, obj));
+    }
+    return objects;
+  }
+
   /**
    * Sets the default ObjectLoader. May be set to null.
    *
@@ -190,6 +285,7 @@ public class XML {
    */
   public static void setClassLoader(ClassLoader loader) {
     classLoader = loader;
+    classes.clear();
   }
 
   /**
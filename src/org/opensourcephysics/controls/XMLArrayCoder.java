@@ -0,0 +1,231 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.controls;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Array;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes int and double arrays of any dimension as base64 text of their
+ * little-endian binary values, optionally deflated. Each array is stored as its
+ * int length followed by its elements; a null subarray has length -1. Encoded
+ * strings start with "base64:" or "base64-deflate:" and are used in place of
+ * "{...}" array strings by XMLPropertyElement.
+ *
+ * @version 1.0
+ */
+final class XMLArrayCoder {
+
+	static final String BASE64 = "base64:"; //$NON-NLS-1$
+	static final String BASE64_DEFLATE = "base64-deflate:"; //$NON-NLS-1$
+
+	private XMLArrayCoder() {
+	}
+
+	/**
+	 * Determines whether an array string is binary encoded.
+	 *
+	 * @param s the array string
+	 * @return true if encoded by this class
+	 */
+	static boolean isEncoded(String s) {
+		return s.startsWith(BASE64) || s.startsWith(BASE64_DEFLATE);
+	}
+
+	/**
+	 * Determines whether arrays with the specified base component type can be
+	 * encoded.
+	 *
+	 * @param baseType the base component type
+	 * @return true if int or double
+	 */
+	static boolean canEncode(Class<?> baseType) {
+		return baseType == Integer.TYPE || baseType == Double.TYPE;
+	}
+
+	/**
+	 * Encodes an int or double array of any dimension.
+	 *
+	 * @param array   the array
+	 * @param deflate true to compress the binary data
+	 * @return the encoded string
+	 */
+	static String encode(Object array, boolean deflate) {
+		byte[] bytes = new byte[encodedSize(array)];
+		put(array, bytes, 0);
+		int n = bytes.length;
+		if (deflate) {
+			Deflater deflater = new Deflater();
+			deflater.setInput(bytes);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 64);
+			byte[] buf = new byte[8192];
+			while (!deflater.finished()) {
+				out.write(buf, 0, deflater.deflate(buf));
+			}
+			deflater.end();
+			bytes = out.toByteArray();
+			n = bytes.length;
+		}
+		return (deflate ? BASE64_DEFLATE : BASE64) + new String(Base64Coder.encode(bytes, n));
+	}
+
+	/**
+	 * Decodes an encoded array string.
+	 *
+	 * @param s             the encoded string
+	 * @param componentType the component type of the array
+	 * @return the array, or null if the string cannot be decoded
+	 */
+	static Object decode(String s, Class<?> componentType) {
+		try {
+			boolean deflated = s.startsWith(BASE64_DEFLATE);
+			byte[] bytes = Base64Coder.decode(s.substring(deflated ? BASE64_DEFLATE.length() : BASE64.length()));
+			if (deflated) {
+				Inflater inflater = new Inflater();
+				inflater.setInput(bytes);
+				ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+				byte[] buf = new byte[8192];
+				while (!inflater.finished()) {
+					int k = inflater.inflate(buf);
+					if (k == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+						break;
+					}
+					out.write(buf, 0, k);
+				}
+				inflater.end();
+				bytes = out.toByteArray();
+			}
+			int[] pt = new int[1];
+			return get(bytes, pt, componentType);
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DataFormatException ex) {
+			return null;
+		}
+	}
+
+	private static int encodedSize(Object array) {
+		int length = Array.getLength(array);
+		Class<?> type = array.getClass().getComponentType();
+		if (type == Double.TYPE) {
+			return 4 + 8 * length;
+		}
+		if (type == Integer.TYPE) {
+			return 4 + 4 * length;
+		}
+		int size = 4;
+		for (int i = 0; i < length; i++) {
+			Object next = Array.get(array, i);
+			size += (next == null ? 4 : encodedSize(next));
+		}
+		return size;
+	}
+
+	private static int put(Object array, byte[] bytes, int pt) {
+		if (array instanceof double[]) {
+			double[] d = (double[]) array;
+			pt = putInt(d.length, bytes, pt);
+			for (int i = 0; i < d.length; i++) {
+				long bits = Double.doubleToRawLongBits(d[i]);
+				pt = putInt((int) bits, bytes, pt);
+				pt = putInt((int) (bits >>> 32), bytes, pt);
+			}
+			return pt;
+		}
+		if (array instanceof int[]) {
+			int[] a = (int[]) array;
+			pt = putInt(a.length, bytes, pt);
+			for (int i = 0; i < a.length; i++) {
+				pt = putInt(a[i], bytes, pt);
+			}
+			return pt;
+		}
+		Object[] objects = (Object[]) array;
+		pt = putInt(objects.length, bytes, pt);
+		for (int i = 0; i < objects.length; i++) {
+			pt = (objects[i] == null ? putInt(-1, bytes, pt) : put(objects[i], bytes, pt));
+		}
+		return pt;
+	}
+
+	private static Object get(byte[] bytes, int[] pt, Class<?> componentType) {
+		int length = getInt(bytes, pt[0]);
+		pt[0] += 4;
+		if (length < 0) {
+			return null;
+		}
+		int p = pt[0];
+		if (componentType == Double.TYPE) {
+			double[] d = new double[length];
+			for (int i = 0; i < length; i++, p += 8) {
+				d[i] = Double.longBitsToDouble((getInt(bytes, p) & 0xffffffffL) | ((long) getInt(bytes, p + 4) << 32));
+			}
+			pt[0] = p;
+			return d;
+		}
+		if (componentType == Integer.TYPE) {
+			int[] a = new int[length];
+			for (int i = 0; i < length; i++, p += 4) {
+				a[i] = getInt(bytes, p);
+			}
+			pt[0] = p;
+			return a;
+		}
+		Class<?> type = componentType.getComponentType();
+		if (type == null) {
+			throw new IllegalArgumentException("Not an int or double array: " + componentType); //$NON-NLS-1$
+		}
+		Object array = Array.newInstance(componentType, length);
+		for (int i = 0; i < length; i++) {
+			Array.set(array, i, get(bytes, pt, type));
+		}
+		return array;
+	}
+
+	private static int putInt(int v, byte[] bytes, int pt) {
+		bytes[pt++] = (byte) v;
+		bytes[pt++] = (byte) (v >> 8);
+		bytes[pt++] = (byte) (v >> 16);
+		bytes[pt++] = (byte) (v >> 24);
+		return pt;
+	}
+
+	private static int getInt(byte[] bytes, int pt) {
+		return (bytes[pt] & 0xff) | ((bytes[pt + 1] & 0xff) << 8) | ((bytes[pt + 2] & 0xff) << 16)
+				| (bytes[pt + 3] << 24);
+	}
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
@@ -9,6 +9,7 @@ package org.opensourcephysics.controls;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
@@ -16,6 +17,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
@@ -23,7 +26,6 @@ import java.io.Writer;
 import java.lang.reflect.Array;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
@@ -31,6 +33,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.swing.JOptionPane;
 
@@ -61,6 +65,18 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	// static fields
 
 	public static int compactArraySize = 0;
+
+	/** array encodings for int and double arrays written as a single string */
+	public static final int ARRAY_TEXT = 0;
+	public static final int ARRAY_BASE64 = 1;
+	public static final int ARRAY_BASE64_DEFLATE = 2;
+
+	/**
+	 * The encoding of int and double arrays with more than compactArraySize
+	 * elements. Binary encodings are smaller and faster to read for large arrays;
+	 * all encodings are recognized when reading.
+	 */
+	public static int arrayEncoding = ARRAY_TEXT;
 	protected static String encoding = "UTF-8"; //$NON-NLS-1$
 
 	// instance fields
@@ -110,6 +126,8 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 
 	private boolean isFinalizable;
 
+	private boolean lazyLoading;
+
 	/**
 	 * see TrackerPanel.Loader
 	 * 
@@ -587,7 +605,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 			Resource res = ResourceLoader.getResource(fileName);
 			if (res != null) {
 				try {
-					BufferedReader in = res.openReader();
+					BufferedReader in = openReader(res);
 					if (in != null) {
 						// BH just avoids the NullPointerException, particularly for prefs files
 						read(in);
@@ -663,6 +681,28 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 		return readXML(xml, type.getName());
 	}
 
+	/**
+	 * Opens a reader for a resource, decompressing it if it is gzipped.
+	 *
+	 * @param res the resource
+	 * @return the reader, or null if the resource cannot be opened
+	 * @throws IOException
+	 */
+	private static BufferedReader openReader(Resource res) throws IOException {
+		InputStream stream = res.openInputStream();
+		if (stream == null) {
+			return null;
+		}
+		stream = new BufferedInputStream(stream);
+		stream.mark(2);
+		int b0 = stream.read(), b1 = stream.read();
+		stream.reset();
+		if (b0 == (GZIPInputStream.GZIP_MAGIC & 0xff) && b1 == (GZIPInputStream.GZIP_MAGIC >> 8)) {
+			stream = new GZIPInputStream(stream, 65536);
+		}
+		return ResourceLoader.readerForStream(stream, null);
+	}
+
 	private String setPath(String name, Resource res) {
 		String path = XML.getDirectoryPath(name);
 		if (path.length() == 0) {
@@ -676,6 +716,28 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 		return res.getAbsolutePath();
 	}
 
+	/**
+	 * Sets lazy loading. When lazy, read operations keep the xml of object, array
+	 * and collection properties and parse it only when the property content is
+	 * first requested, so large documents open quickly when only some properties
+	 * are used.
+	 *
+	 * @param lazy true to read lazily
+	 */
+	public void setLazyLoading(boolean lazy) {
+		lazyLoading = lazy;
+	}
+
+	/**
+	 * Gets the lazy loading property.
+	 *
+	 * @return true if reading lazily
+	 * @see #setLazyLoading(boolean)
+	 */
+	public boolean isLazyLoading() {
+		return lazyLoading;
+	}
+
 	/**
 	 * Returns true if the most recent read operation failed.
 	 *
@@ -720,9 +782,8 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 				return null;
 			}
 
-			FileOutputStream stream = new FileOutputStream(file);
-			java.nio.charset.Charset charset = java.nio.charset.Charset.forName(encoding);
-			write(new OutputStreamWriter(stream, charset));
+			// gzip the xml if the file name ends with .gz
+			write(new FileOutputStream(file), fileName.toLowerCase().endsWith(".gz")); //$NON-NLS-1$
 			// add search path to ResourceLoader
 			if (file.exists()) {
 				String path = XML.getDirectoryPath(file.getCanonicalPath());
@@ -753,7 +814,8 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	}
 
 	/**
-	 * Writes this control to a Writer.
+	 * Writes this control to a Writer. The xml is written as the property tree is
+	 * traversed, so the whole document is never held in memory as a string.
 	 *
 	 * @param out the Writer
 	 */
@@ -761,14 +823,14 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	public void write(Writer out) {
 		try {
 			output = new BufferedWriter(out);
-			String xml = toXML();
 			// if password-protected, encrypt the xml string and save the cryptic
 			if (getPassword() != null) {
-				Cryptic cryptic = new Cryptic(xml);
-				XMLControl control = new XMLControlElement(cryptic);
-				xml = control.toXML();
+				Cryptic cryptic = new Cryptic(toXML());
+				XMLControlElement control = new XMLControlElement(cryptic);
+				control.writeXML(output);
+			} else {
+				writeXML(output);
 			}
-			output.write(xml);
 			output.flush();
 			output.close();
 		} catch (IOException ex) {
@@ -776,6 +838,24 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 		}
 	}
 
+	/**
+	 * Writes this control to an OutputStream in the current encoding, optionally
+	 * gzip-compressed. The stream is closed when done.
+	 *
+	 * @param out      the OutputStream
+	 * @param compress true to gzip the output
+	 */
+	public void write(OutputStream out, boolean compress) {
+		try {
+			if (compress) {
+				out = new GZIPOutputStream(out, 65536);
+			}
+			write(new OutputStreamWriter(out, java.nio.charset.Charset.forName(encoding)));
+		} catch (IOException ex) {
+			OSPLog.info(ex.getMessage());
+		}
+	}
+
 	/**
 	 * Writes the DTD to a Writer.
 	 *
@@ -886,17 +966,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 		if (className == null || (theClass != null && theClass.getName().equals(className))) {
 			return theClass;
 		}
-		theClass = null;
-		try {
-			return theClass = Class.forName(className);
-		} catch (ClassNotFoundException ex) {
-			try {
-				ClassLoader loader = XML.getClassLoader();
-				return (loader == null ? null : (theClass = loader.loadClass(className)));
-			} catch (ClassNotFoundException e) {
-			}
-			return theClass;
-		}
+		return theClass = XML.forName(className);
 	}
 
 	/**
@@ -1229,7 +1299,17 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 */
 	@Override
 	public XMLControl getChildControl(String name) {
-		return getChildMap().get(name);
+		XMLControl child = getChildMap().get(name);
+		if (child == null) {
+			// read lazy content
+			XMLProperty prop = getXMLProperty(name);
+			if (prop != null && prop.getPropertyType() == XMLProperty.TYPE_OBJECT
+					&& !prop.getPropertyContent().isEmpty()) {
+				child = (XMLControl) prop.getPropertyContent().get(0);
+				getChildMap().put(name, child);
+			}
+		}
+		return child;
 	}
 
 	/**
@@ -1297,32 +1377,42 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 */
 	@Override
 	public String toString() {
-		StringBuffer xml = new StringBuffer(""); //$NON-NLS-1$
+		StringBuilder xml = new StringBuilder();
+		try {
+			writeXML(xml);
+		} catch (IOException e) {
+			// not thrown by StringBuilder
+		}
+		return xml.toString();
+	}
+
+	@Override
+	void writeXML(Appendable xml) throws IOException {
 		// write the header if this is the top level
 		if (getLevel() == 0) {
-			xml.append("<?xml version=\"1.0\" encoding=\"" + encoding + "\"?>"); //$NON-NLS-1$ //$NON-NLS-2$
+			xml.append("<?xml version=\"1.0\" encoding=\"").append(encoding).append("\"?>"); //$NON-NLS-1$ //$NON-NLS-2$
 			if (isValid()) {
-				xml.append(XML.NEW_LINE + "<!DOCTYPE object SYSTEM \"" + doctype + "\">"); //$NON-NLS-1$ //$NON-NLS-2$
+				xml.append(XML.NEW_LINE).append("<!DOCTYPE object SYSTEM \"").append(doctype).append("\">"); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 		}
 		// write the opening tag
-		xml.append(XML.NEW_LINE + indent(getLevel()) + "<object class=\"" + className + "\""); //$NON-NLS-1$ //$NON-NLS-2$
+		newLine(xml, getLevel());
+		xml.append("<object class=\"").append(className).append('"'); //$NON-NLS-1$
 		// write the version if this is the top level
 		if ((version != null) && (getLevel() == 0)) {
-			xml.append(" version=\"" + version + "\""); //$NON-NLS-1$ //$NON-NLS-2$
+			xml.append(" version=\"").append(version).append('"'); //$NON-NLS-1$
 		}
 		// write the property content and closing tag
 		if (props.isEmpty()) {
 			xml.append("/>"); //$NON-NLS-1$
 		} else {
-			xml.append(">"); //$NON-NLS-1$
-			Iterator<XMLProperty> it = props.iterator();
-			while (it.hasNext()) {
-				xml.append(it.next().toString());
+			xml.append('>');
+			for (int i = 0, n = props.size(); i < n; i++) {
+				writeXML(xml, props.get(i));
 			}
-			xml.append(XML.NEW_LINE + indent(getLevel()) + "</object>"); //$NON-NLS-1$
+			newLine(xml, getLevel());
+			xml.append("</object>"); //$NON-NLS-1$
 		}
-		return xml.toString();
 	}
 
 	// ____________________________ static methods _________________________________
@@ -1369,11 +1459,14 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 			props = tree.getSelectedProperties();
 		}
 
-		List<T> objects = new ArrayList<T>();
+		List<XMLControl> controls = new ArrayList<XMLControl>();
 		Iterator<XMLProperty> it = props.iterator();
 		while (it.hasNext()) {
-			XMLControl prop = (XMLControl) it.next();
-			objects.add(type.cast(prop.loadObject(null)));
+			controls.add((XMLControl) it.next());
+		}
+		List<T> objects = new ArrayList<T>();
+		for (Object obj : XML.loadObjects(controls)) {
+			objects.add(type.cast(obj));
 		}
 		return objects;
 	}
@@ -1538,7 +1631,12 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 			props.add(i, prop);
 		getPropMap().put(name, prop);
 		if (prop.getPropertyType() == XMLProperty.TYPE_OBJECT) { //$NON-NLS-1$
-			getChildMap().put(name, ((XMLControl) prop.getPropertyContent().get(0)));
+			if (prop instanceof XMLPropertyElement && ((XMLPropertyElement) prop).hasLazyContent()) {
+				// read by getChildControl when needed
+				getChildMap().remove(name);
+			} else {
+				getChildMap().put(name, ((XMLControl) prop.getPropertyContent().get(0)));
+			}
 			childControls = null;
 		}
 
@@ -1577,24 +1675,25 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 		this.input = in;
 		readFailed = false;
 		try {
-			// get document root opening tag line
-			String openingTag = input.readLine();
-			int count = 0;
-			while (openingTag != null && openingTag.indexOf("<object class=") < 0) { //$NON-NLS-1$
-				count++;
-				if (count > 9) {
-					// stop reading at 10 lines
-					readFailed = true;
-					return false;
+			// find the document root opening tag within the first 10 lines
+			XMLScanner scanner = new XMLScanner(input);
+			scanner.setLineLimit(9);
+			boolean found = false;
+			while (scanner.nextTag()) {
+				if (scanner.isTag("object")) { //$NON-NLS-1$
+					found = true;
+					break;
 				}
-				openingTag = input.readLine();
 			}
+			if (!found) {
+				readFailed = true;
+				return false;
+			}
+			scanner.setLineLimit(Integer.MAX_VALUE);
+			// get version, if any
+			version = scanner.getAttr("version", version); //$NON-NLS-1$
 			// read this element from the root
-			if (openingTag != null) {
-				// get version, if any
-				version = XML.getAttr(openingTag, "version", version);
-				readObject(this, openingTag, className);
-			} else {
+			if (readObject(this, scanner, className, lazyLoading) == null) {
 				readFailed = true;
 				return false;
 			}
@@ -1672,38 +1771,35 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 * Reads the current input into an XMLcontrolElement.
 	 *
 	 * @param control the control to load
-	 * @param xml     the xml opening tag line
+	 * @param scanner the scanner positioned just after the object opening tag
 	 * @param requiredType required class name or null
-	 * @return the loaded element
+	 * @param lazy true to defer reading object, array and collection properties
+	 * @return the loaded element, or null if not the required type
 	 * @throws IOException
 	 */
-	private XMLControlElement readObject(XMLControlElement control, String xml, String requiredType) throws IOException {
+	private static XMLControlElement readObject(XMLControlElement control, XMLScanner scanner, String requiredType,
+			boolean lazy) throws IOException {
 		control.clearValues();
-		String className = getClassName(xml);
+		String className = getClassName(scanner);
 		if (requiredType != null && !className.equals(requiredType)) {
-			readFailed = true;
 			return null;
 		}
 		control.className = className;
-		// look for closing object tag on same line
-		if (xml.indexOf("/>") != -1) { //$NON-NLS-1$
-			input.readLine();
+		// look for closing object tag
+		if (scanner.isEmptyTag()) {
 			return control;
 		}
-		// read and process input lines
+		// read and process tags
 		XMLProperty prop = control;
-		xml = input.readLine();
-		while (xml != null) {
+		while (scanner.nextTag()) {
 			// closing object tag
-			if (xml.indexOf("</object>") >= 0) { //$NON-NLS-1$
-				input.readLine();
+			if (scanner.isTag("/object")) { //$NON-NLS-1$
 				return control;
 			}
 			// opening property tag
-			else if (xml.indexOf("<property") >= 0) { //$NON-NLS-1$
-				control.addProperty(readProperty(new XMLPropertyElement(prop), xml));
+			else if (scanner.isTag("property")) { //$NON-NLS-1$
+				control.addProperty(readProperty(new XMLPropertyElement(prop), scanner, lazy));
 			}
-			xml = input.readLine();
 		}
 		return control;
 	}
@@ -1729,76 +1825,88 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 * Reads the current input into a property element.
 	 *
 	 * @param prop the property element to load
-	 * @param xml  the xml opening tag line
+	 * @param scanner the scanner positioned just after the property opening tag
+	 * @param lazy true to defer reading object, array and collection content
 	 * @return the loaded property element
 	 * @throws IOException
 	 */
-	private XMLPropertyElement readProperty(XMLPropertyElement prop, String xml) throws IOException {
+	private static XMLPropertyElement readProperty(XMLPropertyElement prop, XMLScanner scanner, boolean lazy) throws IOException {
 		// set property name
-		prop.name = XML.getAttr(xml, "name", null); //$NON-NLS-1$
+		prop.name = scanner.getAttr("name", null); //$NON-NLS-1$
 		// set property type
-		prop.type = XMLProperty.getTypeCode(XML.getAttr(xml, "type", null)); //$NON-NLS-1$
+		prop.type = XMLProperty.getTypeCode(scanner.getAttr("type", null)); //$NON-NLS-1$
+		if (prop.type == XMLProperty.TYPE_ARRAY || prop.type == XMLProperty.TYPE_COLLECTION) {
+			prop.className = getClassName(scanner);
+		}
+		if (scanner.isEmptyTag()) { // no content
+			return prop;
+		}
+		if (lazy && (prop.type == XMLProperty.TYPE_OBJECT || prop.type == XMLProperty.TYPE_ARRAY
+				|| prop.type == XMLProperty.TYPE_COLLECTION)) {
+			// keep the xml content until it is needed
+			String xml = scanner.readElement();
+			if (prop.type == XMLProperty.TYPE_OBJECT && xml.indexOf("<object") >= 0) { //$NON-NLS-1$
+				prop.className = getClassName(xml);
+			}
+			prop.setLazyContent(xml);
+			return prop;
+		}
+		readContent(prop, scanner, lazy);
+		return prop;
+	}
+
+	/**
+	 * Reads the content of a property element.
+	 *
+	 * @param prop the property element to load
+	 * @param scanner the scanner positioned just after the property opening tag
+	 * @param lazy true to defer reading object, array and collection content
+	 * @throws IOException
+	 */
+	private static void readContent(XMLPropertyElement prop, XMLScanner scanner, boolean lazy) throws IOException {
 		// set property content and className
 		switch (prop.type) {
 		case XMLProperty.TYPE_ARRAY: //$NON-NLS-1$
 		case XMLProperty.TYPE_COLLECTION: //$NON-NLS-1$
-			prop.className = getClassName(xml);
-			if (xml.indexOf("/>") >= 0) { // property closing tag on same line //$NON-NLS-1$
-				return prop;
-			}
-			xml = input.readLine();
-			while (xml.indexOf("<property") >= 0) { //$NON-NLS-1$
-				prop.content.add(readProperty(new XMLPropertyElement(prop), xml));
-				xml = input.readLine();
+			while (scanner.nextTag() && scanner.isTag("property")) { //$NON-NLS-1$
+				prop.content.add(readProperty(new XMLPropertyElement(prop), scanner, lazy));
 			}
 			break;
 		case XMLProperty.TYPE_OBJECT: //$NON-NLS-1$
 			// add XMLControl unless value is null
-			if (xml.indexOf(">null</property") < 0) { //$NON-NLS-1$
-				XMLControlElement control = readObject(new XMLControlElement(prop), input.readLine(), null);
-				prop.content.add(control);
-				prop.className = control.className;
+			while (scanner.nextTag() && !scanner.isTag("/property")) { //$NON-NLS-1$
+				if (scanner.isTag("object")) { //$NON-NLS-1$
+					XMLControlElement control = readObject(new XMLControlElement(prop), scanner, null, lazy);
+					prop.content.add(control);
+					prop.className = control.className;
+				}
 			}
 			break;
 		case XMLProperty.TYPE_STRING:
-			int pt = xml.indexOf(XML.CDATA_PRE); 
-			if (pt >= 0) {
-				String s = xml.substring(pt + XML.CDATA_PRE_LEN);
-				while ((pt = s.indexOf(XML.CDATA_POST_PROP)) < 0) { // look for end tag //$NON-NLS-1$
-					s += XML.NEW_LINE + input.readLine();
-				}
-				prop.content.add(s.substring(0, pt));
+			if (scanner.skip(XML.CDATA_PRE)) {
+				prop.content.add(scanner.readText(XML.CDATA_POST_PROP));
 				break;
 			}
 			//$FALL-THROUGH$
-		default:			
+		default:
 			// int, double, boolean or string types
-			// BH 2020.11.21 was 
-			//if (xml.indexOf(XML.CDATA_PRE) != -1) {
-				//String s = xml.substring(xml.indexOf(XML.CDATA_PRE));
-			// but that includes CDATA_PRE in the contents		
-				String s = xml.substring(xml.indexOf(">") + 1); //$NON-NLS-1$
-				while ((pt = s.indexOf("</property>")) < 0) { // look for end tag //$NON-NLS-1$
-					s += XML.NEW_LINE + input.readLine();
-				}
-				prop.content.add(s.substring(0, pt));
+			prop.content.add(scanner.readText("</property>")); //$NON-NLS-1$
 			break;
 		}
-		return prop;
 	}
 
 	/**
-	 * Returns a space for indentation.
+	 * Reads the deferred content of a property read in lazy mode.
 	 *
-	 * @param level the indent level
-	 * @return the space
+	 * @param prop the property element
+	 * @param xml  the xml content
 	 */
-	private static String indent(int level) {
-		String space = ""; //$NON-NLS-1$
-		for (int i = 0; i < XML.INDENT * level; i++) {
-			space += " "; //$NON-NLS-1$
+	static void readContent(XMLPropertyElement prop, String xml) {
+		try {
+			readContent(prop, new XMLScanner(new StringReader(xml)), true);
+		} catch (IOException ex) {
+			OSPLog.warning("Failed to read xml property " + prop.getPropertyName() + ": " + ex.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
 		}
-		return space;
 	}
 
 	/**
@@ -1993,14 +2101,16 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 * "{,{1,2,3},{4,5,6},}"  --> [null, [1,2,3], [4,5,6], null], not [null, [1,2,3], [4,5,6]]
 	 * 
 	 * An array string must start and end with braces and contain only int, double,
-	 * or boolean
+	 * or boolean, or be binary encoded by XMLArrayCoder
 	 *
 	 * @param s   the array string
 	 * @param componentType the component type of the array
 	 * @return the array
 	 */
 	private static Object arrayValue(String s, Class<?> componentType) {
-		System.out.println(s);
+		if (XMLArrayCoder.isEncoded(s)) {
+			return XMLArrayCoder.decode(s, componentType);
+		}
 		if (!(s.startsWith("{") && s.endsWith("}"))) { //$NON-NLS-1$ //$NON-NLS-2$
 			return null;
 		}
@@ -2046,13 +2156,12 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 		// int, double, or boolean values separated by comma
 		// wiil not be null, but may be empty
 		// collect element substrings separated by commas
-		String[] list = (s.length() == 0 ? new String[0] : s.substring(1, s.length() - 1).split(","));
+		String[] list = (s.length() == 2 ? new String[0] : s.substring(1, s.length() - 1).split(","));
 		// create the array and populate it
 		Object array = Array.newInstance(componentType, list.length);
 		if (componentType == Integer.TYPE) {
 			for (int pt = list.length; --pt >= 0;)
 				((int[]) array)[pt] = Integer.parseInt(list[pt]);
-			System.out.println(Arrays.toString((int[]) array));
 		} else if (componentType == Double.TYPE) {
 			for (int pt = list.length; --pt >= 0;)
 				((double[]) array)[pt] = Double.parseDouble(list[pt]);
@@ -2140,23 +2249,34 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 		return null;
 	}
 
+	private static String getClassName(XMLScanner scanner) {
+		return mapClassName(scanner.getAttr("class", "")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	public static String getClassName(String xml) {
 		// set class name
 		try {
-			String className = XML.getAttr(xml, "class", "");
-			int i = className.lastIndexOf("."); //$NON-NLS-1$
-			if (i >= 0) {
-				String packageName = className.substring(0, i);
-				if (packageName.endsWith("org.opensourcephysics.media")) { //$NON-NLS-1$
-					className = packageName + ".core" + className.substring(i); //$NON-NLS-1$
-				}
-			}
-			return className;
+			return mapClassName(XML.getAttr(xml, "class", "")); //$NON-NLS-1$ //$NON-NLS-2$
 		} catch (Exception e) {
 			return "";
 		}
 	}
 
+	/**
+	 * Maps class names of the former org.opensourcephysics.media packages to
+	 * their current core packages.
+	 */
+	private static String mapClassName(String className) {
+		int i = className.lastIndexOf("."); //$NON-NLS-1$
+		if (i >= 0) {
+			String packageName = className.substring(0, i);
+			if (packageName.endsWith("org.opensourcephysics.media")) { //$NON-NLS-1$
+				className = packageName + ".core" + className.substring(i); //$NON-NLS-1$
+			}
+		}
+		return className;
+	}
+
 	@Override
 	public void finalize() {
 		if (isFinalizable)
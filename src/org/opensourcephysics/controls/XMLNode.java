@@ -1,5 +1,7 @@
 package org.opensourcephysics.controls;
 
+import java.io.IOException;
+
 public abstract class XMLNode implements XMLProperty {
 
 	protected String name;
@@ -32,6 +34,47 @@ public abstract class XMLNode implements XMLProperty {
 	public void setValue(String stringValue) {
 		// overridden by XMLPropertyElement only
 	}
+
+	/**
+	 * Writes the xml representation of this node. This default appends
+	 * toString(); the package subclasses override it to write without building
+	 * the whole string first.
+	 *
+	 * @param out the destination
+	 * @throws IOException
+	 */
+	void writeXML(Appendable out) throws IOException {
+		out.append(toString());
+	}
+
+	/**
+	 * Writes an xml node or other content.
+	 *
+	 * @param out  the destination
+	 * @param node the node or content
+	 * @throws IOException
+	 */
+	static void writeXML(Appendable out, Object node) throws IOException {
+		if (node instanceof XMLNode) {
+			((XMLNode) node).writeXML(out);
+		} else {
+			out.append(String.valueOf(node));
+		}
+	}
+
+	/**
+	 * Writes a new line followed by the indentation for a level.
+	 *
+	 * @param out   the destination
+	 * @param level the indent level
+	 * @throws IOException
+	 */
+	static void newLine(Appendable out, int level) throws IOException {
+		out.append(XML.NEW_LINE);
+		for (int i = XML.INDENT * level; i > 0; i--) {
+			out.append(' ');
+		}
+	}
 	
 
 }
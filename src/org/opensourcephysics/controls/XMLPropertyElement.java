@@ -7,6 +7,7 @@
 
 package org.opensourcephysics.controls;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +31,9 @@ public final class XMLPropertyElement extends XMLNode implements XMLProperty {
 	
     private boolean writeNullFinalElement;
 
+	// xml content not yet read, see XMLControlElement.setLazyLoading
+	private volatile String lazyContent;
+
 	/**
 	 * Constructs an empty property element.
 	 *
@@ -122,7 +126,13 @@ public final class XMLPropertyElement extends XMLNode implements XMLProperty {
 			boolean primitive = (baseType == Integer.TYPE || baseType == Double.TYPE || baseType == Boolean.TYPE);
 			if (primitive && (count > XMLControlElement.compactArraySize)) {
 				// write array as string if base type is primitive
-				content.add(new XMLPropertyElement(this, "array", TYPE_STRING, getArrayString(value), writeNullFinalElement)); //$NON-NLS-1$ //$NON-NLS-2$
+				String arrayString;
+				if (XMLControlElement.arrayEncoding != XMLControlElement.ARRAY_TEXT && XMLArrayCoder.canEncode(baseType)) {
+					arrayString = XMLArrayCoder.encode(value, XMLControlElement.arrayEncoding == XMLControlElement.ARRAY_BASE64_DEFLATE);
+				} else {
+					arrayString = getArrayString(value);
+				}
+				content.add(new XMLPropertyElement(this, "array", TYPE_STRING, arrayString, writeNullFinalElement)); //$NON-NLS-1$
 			} else {
 				int length = Array.getLength(value);
 				int last = writeNullFinalElement ? length - 1 : length;
@@ -169,11 +179,7 @@ public final class XMLPropertyElement extends XMLNode implements XMLProperty {
 		case TYPE_STRING:
 			return String.class;
 		default:
-			try {
-				return Class.forName(className);
-			} catch (Exception ex) {
-				return null;
-			}
+			return XML.forName(className);
 		}
 	}
 
@@ -196,9 +202,38 @@ public final class XMLPropertyElement extends XMLNode implements XMLProperty {
 	 */
 	@Override
 	public List<Object> getPropertyContent() {
+		if (lazyContent != null) {
+			readLazyContent();
+		}
 		return content;
 	}
 
+	/**
+	 * Sets xml content to be read when the content is first requested.
+	 *
+	 * @param xml the xml content
+	 */
+	void setLazyContent(String xml) {
+		lazyContent = xml;
+	}
+
+	/**
+	 * Determines whether this property has xml content that has not yet been read.
+	 *
+	 * @return true if the content is still unread
+	 */
+	boolean hasLazyContent() {
+		return lazyContent != null;
+	}
+
+	private synchronized void readLazyContent() {
+		String xml = lazyContent;
+		if (xml != null) {
+			lazyContent = null;
+			XMLControlElement.readContent(this, xml);
+		}
+	}
+
 	/**
 	 * Gets the named XMLControl child of this property. May return null.
 	 *
@@ -226,14 +261,14 @@ public final class XMLPropertyElement extends XMLNode implements XMLProperty {
 	public XMLControl[] getChildControls() {
 		switch (type) {
 		case TYPE_OBJECT:
-			if (!content.isEmpty()) {
+			if (!getPropertyContent().isEmpty()) {
 				return new XMLControl[] { (XMLControl) content.get(0) };				
 			}
 			break;
 		case TYPE_ARRAY:
 		case TYPE_COLLECTION:
 			ArrayList<XMLControl> list = new ArrayList<XMLControl>();
-			Iterator<Object> it = content.iterator();
+			Iterator<Object> it = getPropertyContent().iterator();
 			while (it.hasNext()) {
 				XMLProperty prop = (XMLProperty) it.next();
 				if (prop.getPropertyType() == TYPE_OBJECT 
@@ -276,7 +311,7 @@ public final class XMLPropertyElement extends XMLNode implements XMLProperty {
 		} catch (NumberFormatException ex) {
 			return;
 		}
-		content.clear();
+		getPropertyContent().clear();
 		content.add(stringValue);
 	}
 
@@ -287,58 +322,52 @@ public final class XMLPropertyElement extends XMLNode implements XMLProperty {
 	 */
 	@Override
 	public String toString() {
+		StringBuilder xml = new StringBuilder();
+		try {
+			writeXML(xml);
+		} catch (IOException e) {
+			// not thrown by StringBuilder
+		}
+		return xml.toString();
+	}
+
+	@Override
+	void writeXML(Appendable xml) throws IOException {
 		// write the opening tag with attributes
-		StringBuffer xml = new StringBuffer(
-				XML.NEW_LINE + indent(getLevel()) + "<property name=\"" + name + "\" type=\"" + XMLProperty.getTypeName(type) + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		newLine(xml, getLevel());
+		xml.append("<property name=\"").append(name).append("\" type=\"").append(XMLProperty.getTypeName(type)).append('"'); //$NON-NLS-1$ //$NON-NLS-2$
 		switch(type) {
 		case TYPE_ARRAY:
 		case TYPE_WRAPPED_ARRAY:
 		case TYPE_COLLECTION: 
-			xml.append(" class=\"" + className + "\""); //$NON-NLS-1$ //$NON-NLS-2$
+			xml.append(" class=\"").append(className).append('"'); //$NON-NLS-1$
 			break;
 		}
 		// write the content
-		List<Object> c = content;
+		List<Object> c = getPropertyContent();
 		// special case: null object
 		if (type == TYPE_OBJECT && c.isEmpty()) { //$NON-NLS-1$
-			// BH! Q this was getPropertyContents(), but that is NOT a clone!
-			c = new ArrayList<>();
-			c.add("null"); //$NON-NLS-1$
+			xml.append(">null</property>"); //$NON-NLS-1$
+			return;
 		}
 		// if no content, write closing tag and return
 		if (c.isEmpty()) {
 			xml.append("/>"); //$NON-NLS-1$
-			return xml.toString();
+			return;
 		}
 		// else write content
-		xml.append(">"); //$NON-NLS-1$
+		xml.append('>');
 		boolean hasChildren = false;
-		Iterator<Object> it = c.iterator();
-		while (it.hasNext()) {
-			Object next = it.next();
+		for (int i = 0, n = c.size(); i < n; i++) {
+			Object next = c.get(i);
 			hasChildren = hasChildren || (next instanceof XMLProperty);
-			xml.append(next);
+			writeXML(xml, next);
 		}
 		// write the closing tag
 		if (hasChildren) {
-			xml.append(XML.NEW_LINE + indent(getLevel()));
+			newLine(xml, getLevel());
 		}
 		xml.append("</property>"); //$NON-NLS-1$
-		return xml.toString();
-	}
-
-	/**
-	 * Returns a space for indentation.
-	 *
-	 * @param level the indent level
-	 * @return the space
-	 */
-	protected String indent(int level) {
-		String space = ""; //$NON-NLS-1$
-		for (int i = 0; i < XML.INDENT * level; i++) {
-			space += " "; //$NON-NLS-1$
-		}
-		return space;
 	}
 
 	/**
@@ -0,0 +1,455 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.controls;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A single-pass scanner for xml documents written by XMLControlElement. Tags and
+ * property values are read directly from a character buffer, so large documents
+ * are read without creating a String for every line or rebuilding multi-line
+ * values line by line.
+ *
+ * @version 1.0
+ */
+final class XMLScanner {
+
+	private static final int BUFFER_SIZE = 16384;
+
+	private final Reader in;
+	private char[] buf = new char[BUFFER_SIZE];
+	private int pos, end;
+	private int lines; // number of line breaks read
+	private int lineLimit = Integer.MAX_VALUE;
+	private final StringBuilder tagName = new StringBuilder();
+	private final StringBuilder text = new StringBuilder();
+	private String[] attrNames = new String[4];
+	private String[] attrValues = new String[4];
+	private int attrCount;
+	private boolean emptyTag;
+
+	/**
+	 * Constructs a scanner for the specified reader.
+	 *
+	 * @param in the reader
+	 */
+	XMLScanner(Reader in) {
+		this.in = in;
+	}
+
+	/**
+	 * Sets the number of line breaks that can be skipped before a tag is found.
+	 *
+	 * @param limit the limit
+	 */
+	void setLineLimit(int limit) {
+		lineLimit = limit;
+	}
+
+	/**
+	 * Advances to the next tag. Text between tags is skipped, as are comments,
+	 * processing instructions and declarations.
+	 *
+	 * @return false if the end of the input or the line limit is reached
+	 * @throws IOException
+	 */
+	boolean nextTag() throws IOException {
+		while (true) {
+			if (!skipTo('<')) {
+				return false;
+			}
+			readTag();
+			if (tagName.length() == 0) {
+				continue;
+			}
+			char c = tagName.charAt(0);
+			if (c != '!' && c != '?') {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Determines whether the current tag has the specified name.
+	 *
+	 * @param name the name, starting with "/" for a closing tag
+	 * @return true if the names match
+	 */
+	boolean isTag(String name) {
+		int n = name.length();
+		if (tagName.length() != n) {
+			return false;
+		}
+		for (int i = 0; i < n; i++) {
+			if (tagName.charAt(i) != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determines whether the current tag ends with "/&gt;".
+	 *
+	 * @return true if the tag is empty
+	 */
+	boolean isEmptyTag() {
+		return emptyTag;
+	}
+
+	/**
+	 * Gets an attribute of the current tag.
+	 *
+	 * @param name the attribute name
+	 * @param def  the value returned if the attribute is missing
+	 * @return the attribute value
+	 */
+	String getAttr(String name, String def) {
+		for (int i = 0; i < attrCount; i++) {
+			if (attrNames[i].equals(name)) {
+				return attrValues[i];
+			}
+		}
+		return def;
+	}
+
+	/**
+	 * Consumes the specified characters if they come next in the input.
+	 *
+	 * @param s the characters
+	 * @return true if they were found and consumed
+	 * @throws IOException
+	 */
+	boolean skip(String s) throws IOException {
+		int n = s.length();
+		if (!ensure(n)) {
+			return false;
+		}
+		for (int i = 0; i < n; i++) {
+			if (buf[pos + i] != s.charAt(i)) {
+				return false;
+			}
+		}
+		pos += n;
+		return true;
+	}
+
+	/**
+	 * Reads the text up to and including the specified end marker. Line breaks are
+	 * converted to XML.NEW_LINE, the same as when the text is read line by line.
+	 *
+	 * @param endMarker the end marker, for example "&lt;/property&gt;"
+	 * @return the text preceding the end marker
+	 * @throws IOException if the end marker is not found
+	 */
+	String readText(String endMarker) throws IOException {
+		StringBuilder sb = text;
+		sb.setLength(0);
+		int m = endMarker.length();
+		char last = endMarker.charAt(m - 1);
+		boolean cr = false;
+		while (fill()) {
+			int start = pos;
+			for (; pos < end; pos++) {
+				char c = buf[pos];
+				if (c == '\n' || c == '\r') {
+					sb.append(buf, start, pos - start);
+					start = pos + 1;
+					if (c == '\r' || !cr) {
+						sb.append(XML.NEW_LINE);
+						lines++;
+					}
+					cr = (c == '\r');
+					continue;
+				}
+				cr = false;
+				if (c == last) {
+					sb.append(buf, start, pos + 1 - start);
+					start = pos + 1;
+					if (endsWith(sb, endMarker)) {
+						pos++;
+						String s = sb.substring(0, sb.length() - m);
+						if (sb.capacity() > BUFFER_SIZE) {
+							// don't hold on to the storage of a large value
+							sb.setLength(0);
+							sb.trimToSize();
+						}
+						return s;
+					}
+				}
+			}
+			sb.append(buf, start, pos - start);
+		}
+		throw new EOFException("Missing " + endMarker); //$NON-NLS-1$
+	}
+
+	/**
+	 * Reads the unparsed content of a property element up to its closing tag,
+	 * which is consumed. Nested property elements and CDATA sections are
+	 * included verbatim.
+	 *
+	 * @return the xml content
+	 * @throws IOException if the closing tag is not found
+	 */
+	String readElement() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		int depth = 0;
+		while (appendTo('<', sb)) {
+			if (skip("/property>")) { //$NON-NLS-1$
+				if (depth-- == 0) {
+					return sb.toString();
+				}
+				sb.append("</property>"); //$NON-NLS-1$
+				continue;
+			}
+			sb.append('<');
+			if (skip("![CDATA[")) { //$NON-NLS-1$
+				sb.append("![CDATA["); //$NON-NLS-1$
+				appendThrough(XML.CDATA_POST, sb);
+			} else if (skip("property")) { //$NON-NLS-1$
+				sb.append("property"); //$NON-NLS-1$
+				appendThrough(">", sb); //$NON-NLS-1$
+				if (sb.charAt(sb.length() - 2) != '/') {
+					depth++;
+				}
+			}
+		}
+		throw new EOFException("Missing </property>"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Appends the input to a buffer up to the specified character, which is
+	 * consumed but not appended.
+	 */
+	private boolean appendTo(char target, StringBuilder sb) throws IOException {
+		while (fill()) {
+			int start = pos;
+			for (; pos < end; pos++) {
+				if (buf[pos] == target) {
+					sb.append(buf, start, pos - start);
+					pos++;
+					return true;
+				}
+			}
+			sb.append(buf, start, pos - start);
+		}
+		return false;
+	}
+
+	/**
+	 * Appends the input to a buffer up to and including the specified marker.
+	 */
+	private void appendThrough(String marker, StringBuilder sb) throws IOException {
+		char last = marker.charAt(marker.length() - 1);
+		while (fill()) {
+			int start = pos;
+			for (; pos < end; pos++) {
+				if (buf[pos] == last) {
+					sb.append(buf, start, pos + 1 - start);
+					start = pos + 1;
+					if (endsWith(sb, marker)) {
+						pos++;
+						return;
+					}
+				}
+			}
+			sb.append(buf, start, pos - start);
+		}
+		throw new EOFException("Missing " + marker); //$NON-NLS-1$
+	}
+
+	/**
+	 * Skips to just past the next occurrence of the specified character.
+	 */
+	private boolean skipTo(char target) throws IOException {
+		while (fill()) {
+			for (; pos < end; pos++) {
+				char c = buf[pos];
+				if (c == target) {
+					pos++;
+					return true;
+				}
+				if (c == '\n' && ++lines > lineLimit) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the name and attributes of a tag following a '&lt;'.
+	 */
+	private void readTag() throws IOException {
+		tagName.setLength(0);
+		attrCount = 0;
+		emptyTag = false;
+		int c = read();
+		// tag name, including a leading '/', '?' or '!'
+		while (c >= 0 && c != '>' && !isSpace(c) && !(c == '/' && tagName.length() > 0)) {
+			tagName.append((char) c);
+			c = read();
+		}
+		if (tagName.length() > 0 && (tagName.charAt(0) == '!' || tagName.charAt(0) == '?')) {
+			if (tagName.length() >= 3 && tagName.charAt(1) == '-' && tagName.charAt(2) == '-') {
+				// comment: skip to "-->"
+				int dashes = 0;
+				while (c >= 0 && !(c == '>' && dashes >= 2)) {
+					dashes = (c == '-' ? dashes + 1 : 0);
+					c = read();
+				}
+			} else {
+				while (c >= 0 && c != '>') {
+					c = read();
+				}
+			}
+			return;
+		}
+		// attributes
+		StringBuilder sb = text;
+		while (c >= 0 && c != '>') {
+			if (c == '/') {
+				emptyTag = true;
+				c = read();
+				continue;
+			}
+			if (isSpace(c)) {
+				c = read();
+				continue;
+			}
+			emptyTag = false;
+			sb.setLength(0);
+			while (c >= 0 && c != '=' && c != '>' && !isSpace(c)) {
+				sb.append((char) c);
+				c = read();
+			}
+			String attr = sb.toString();
+			while (c >= 0 && c != '"' && c != '\'' && c != '>') {
+				c = read();
+			}
+			if (c != '"' && c != '\'') {
+				continue;
+			}
+			int quote = c;
+			sb.setLength(0);
+			c = read();
+			while (c >= 0 && c != quote) {
+				sb.append((char) c);
+				c = read();
+			}
+			addAttr(attr, sb.toString());
+			c = read();
+		}
+	}
+
+	private void addAttr(String name, String value) {
+		if (attrCount == attrNames.length) {
+			String[] names = new String[attrCount * 2];
+			String[] values = new String[attrCount * 2];
+			System.arraycopy(attrNames, 0, names, 0, attrCount);
+			System.arraycopy(attrValues, 0, values, 0, attrCount);
+			attrNames = names;
+			attrValues = values;
+		}
+		attrNames[attrCount] = name;
+		attrValues[attrCount++] = value;
+	}
+
+	private int read() throws IOException {
+		if (!fill()) {
+			return -1;
+		}
+		char c = buf[pos++];
+		if (c == '\n') {
+			lines++;
+		}
+		return c;
+	}
+
+	/**
+	 * Ensures that the buffer has unread characters.
+	 */
+	private boolean fill() throws IOException {
+		if (pos < end) {
+			return true;
+		}
+		int n = in.read(buf, 0, buf.length);
+		while (n == 0) {
+			n = in.read(buf, 0, buf.length);
+		}
+		pos = 0;
+		end = Math.max(n, 0);
+		return n > 0;
+	}
+
+	/**
+	 * Ensures that the buffer has at least n unread characters, if available.
+	 */
+	private boolean ensure(int n) throws IOException {
+		if (end - pos >= n) {
+			return true;
+		}
+		System.arraycopy(buf, pos, buf, 0, end - pos);
+		end -= pos;
+		pos = 0;
+		while (end < n) {
+			int k = in.read(buf, end, buf.length - end);
+			if (k < 0) {
+				return false;
+			}
+			end += k;
+		}
+		return true;
+	}
+
+	private static boolean isSpace(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+	}
+
+	private static boolean endsWith(StringBuilder sb, String s) {
+		int n = s.length(), offset = sb.length() - n;
+		if (offset < 0) {
+			return false;
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			if (sb.charAt(offset + i) != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
@@ -28,7 +28,9 @@ import org.opensourcephysics.display.OSPRuntime;
  * A BinaryLattice is an array where each array element has a value of 0 or 1.
  *
  * The lattice is drawn as an array of rectangles to distinguish between the two possible values.
+ * Use a BitLattice to evolve large lattices and copy the result directly into this lattice's raster.
  *
+ * @see BitLattice
  * @author     Wolfgang Christian
  * @created    February 11, 2003
  * @version    1.0
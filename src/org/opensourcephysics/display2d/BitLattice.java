@@ -0,0 +1,478 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.display2d;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.opensourcephysics.display.OSPRuntime;
+
+/**
+ * A BitLattice is a compute engine for two-state lattice models, such as
+ * the Game of Life or a zero temperature Ising model, that stores 64 sites per long.
+ *
+ * Rows are padded to a whole number of words and the leftmost site of a word is
+ * its most significant bit, so that a row of words can be copied directly into
+ * the packed raster of a BinaryLattice. Neighbor counts are computed for 64 sites
+ * at a time using bit-sliced adders and the update rule is applied to the resulting
+ * count planes. Large lattices are updated in parallel by bands of rows.
+ *
+ * A typical use is:
+ * <pre>
+ * BitLattice engine = new BitLattice(nx, ny);
+ * engine.randomize(new Random(), 0.5);
+ * engine.step(BitLattice.LIFE_BIRTH, BitLattice.LIFE_SURVIVAL);
+ * engine.copyTo(binaryLattice);
+ * </pre>
+ *
+ * @version 1.0
+ */
+public class BitLattice {
+  /** The eight nearest and next nearest neighbors. */
+  public static final int MOORE = 0;
+
+  /** The four nearest neighbors. */
+  public static final int VON_NEUMANN = 1;
+
+  /** Birth mask of Conway's Game of Life: a dead cell with 3 live neighbors is born. */
+  public static final int LIFE_BIRTH = 1<<3;
+
+  /** Survival mask of Conway's Game of Life: a live cell with 2 or 3 live neighbors survives. */
+  public static final int LIFE_SURVIVAL = (1<<2)|(1<<3);
+  static final int MIN_ROWS_PER_BAND = 32;
+  int nx, ny, nw;        // nw is the number of words per row
+  long lastMask;         // the valid sites in the last word of a row
+  long[] words, next;
+  boolean periodic = true;
+  int neighborhood = MOORE;
+  int threads = OSPRuntime.isJS ? 1 : Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Constructs a bit lattice with the given size. All sites are zero.
+   * @param _nx the number of sites in x direction
+   * @param _ny the number of sites in y direction
+   */
+  public BitLattice(int _nx, int _ny) {
+    resizeLattice(_nx, _ny);
+  }
+
+  /**
+   * Resizes the lattice. All sites are set to zero.
+   * @param _nx the number of sites in x direction
+   * @param _ny the number of sites in y direction
+   */
+  public void resizeLattice(int _nx, int _ny) {
+    if((_nx<1)||(_ny<1)) {
+      throw new IllegalArgumentException("Bit lattice dimensions must be positive."); //$NON-NLS-1$
+    }
+    nx = _nx;
+    ny = _ny;
+    nw = (nx+63)/64;
+    int valid = nx-64*(nw-1); // valid sites in the last word
+    lastMask = (valid==64) ? -1L : ~(-1L>>>valid);
+    words = new long[nw*ny];
+    next = new long[nw*ny];
+  }
+
+  /**
+   * Gets the number of x entries.
+   * @return nx
+   */
+  public int getNx() {
+    return nx;
+  }
+
+  /**
+   * Gets the number of y entries.
+   * @return ny
+   */
+  public int getNy() {
+    return ny;
+  }
+
+  /**
+   * Sets periodic (wrap around) or fixed zero boundary conditions.
+   * @param _periodic true for periodic boundaries
+   */
+  public void setPeriodic(boolean _periodic) {
+    periodic = _periodic;
+  }
+
+  /**
+   * Gets the periodic boundary condition flag.
+   * @return true if boundaries are periodic
+   */
+  public boolean isPeriodic() {
+    return periodic;
+  }
+
+  /**
+   * Sets the neighborhood used to count neighbors.
+   * @param _neighborhood MOORE or VON_NEUMANN
+   */
+  public void setNeighborhood(int _neighborhood) {
+    neighborhood = _neighborhood;
+  }
+
+  /**
+   * Gets the neighborhood used to count neighbors.
+   * @return MOORE or VON_NEUMANN
+   */
+  public int getNeighborhood() {
+    return neighborhood;
+  }
+
+  /**
+   * Sets the maximum number of threads used by step.
+   * Small lattices are always updated on the calling thread.
+   * @param n the number of threads
+   */
+  public void setThreads(int n) {
+    threads = OSPRuntime.isJS ? 1 : Math.max(1, n);
+  }
+
+  /**
+   * Gets the value of a site.
+   * @param ix
+   * @param iy
+   * @return 0 or 1
+   */
+  public int getValue(int ix, int iy) {
+    if((iy<0)||(iy>=ny)||(ix<0)||(ix>=nx)) {
+      throw new IllegalArgumentException("Cell row or column index out of range.  row="+iy+"  col="+ix); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    return(int) (words[iy*nw+(ix>>6)]>>>(63-(ix&63)))&1;
+  }
+
+  /**
+   * Sets a site to 1 if the value is >0; the site is set to zero otherwise.
+   * @param ix
+   * @param iy
+   * @param val
+   */
+  public void setValue(int ix, int iy, int val) {
+    if((iy<0)||(iy>=ny)||(ix<0)||(ix>=nx)) {
+      throw new IllegalArgumentException("Cell row or column index out of range.  row="+iy+"  col="+ix); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    long mask = 1L<<(63-(ix&63));
+    int index = iy*nw+(ix>>6);
+    if(val<=0) {
+      words[index] &= ~mask;
+    } else {
+      words[index] |= mask;
+    }
+  }
+
+  /**
+   * Sets all sites to zero.
+   */
+  public void clear() {
+    java.util.Arrays.fill(words, 0);
+  }
+
+  /**
+   * Sets every site to 1 with the given probability.
+   * @param random the random number generator
+   * @param p the probability of a site being 1
+   */
+  public void randomize(Random random, double p) {
+    if(p==0.5) {
+      for(int i = 0; i<words.length; i++) {
+        words[i] = random.nextLong();
+      }
+    } else {
+      for(int i = 0; i<words.length; i++) {
+        long w = 0;
+        for(int b = 0; b<64; b++) {
+          w = (w<<1)|((random.nextDouble()<p) ? 1 : 0);
+        }
+        words[i] = w;
+      }
+    }
+    for(int iy = 0; iy<ny; iy++) {
+      words[iy*nw+nw-1] &= lastMask;
+    }
+  }
+
+  /**
+   * Counts the sites with value 1.
+   * @return the number of sites set
+   */
+  public int countOnes() {
+    int count = 0;
+    for(int i = 0; i<words.length; i++) {
+      count += Long.bitCount(words[i]);
+    }
+    return count;
+  }
+
+  /**
+   * Counts the neighbors of a site that have value 1.
+   * @param ix
+   * @param iy
+   * @return the number of neighbors set
+   */
+  public int getNeighborCount(int ix, int iy) {
+    int count = 0;
+    for(int dy = -1; dy<=1; dy++) {
+      for(int dx = -1; dx<=1; dx++) {
+        if(((dx==0)&&(dy==0))||((neighborhood==VON_NEUMANN)&&(dx!=0)&&(dy!=0))) {
+          continue;
+        }
+        int jx = ix+dx, jy = iy+dy;
+        if(periodic) {
+          jx = (jx+nx)%nx;
+          jy = (jy+ny)%ny;
+        } else if((jx<0)||(jy<0)||(jx>=nx)||(jy>=ny)) {
+          continue;
+        }
+        count += getValue(jx, jy);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Updates every site at once using a totalistic rule.
+   * Bit k of the birth mask is set if a zero site with k neighbors becomes 1;
+   * bit k of the survival mask is set if a one site with k neighbors stays 1.
+   * All other sites become zero.
+   * @param birthMask the birth rule
+   * @param survivalMask the survival rule
+   */
+  public void step(final int birthMask, final int survivalMask) {
+    int bands = Math.min(threads, ny/MIN_ROWS_PER_BAND);
+    if(bands<=1) {
+      stepRows(0, ny, birthMask, survivalMask);
+    } else {
+      ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+      for(int i = 0; i<bands; i++) {
+        final int start = i*ny/bands, end = (i+1)*ny/bands;
+        tasks.add(new Callable<Object>() {
+          @Override
+          public Object call() {
+            stepRows(start, end, birthMask, survivalMask);
+            return null;
+          }
+
+        });
+      }
+      try {
+        for(Future<Object> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+          future.get();
+        }
+      } catch(InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } catch(ExecutionException ex) {
+        throw new RuntimeException(ex.getCause());
+      }
+    }
+    long[] temp = words;
+    words = next;
+    next = temp;
+  }
+
+  /**
+   * Steps Conway's Game of Life.
+   */
+  public void stepLife() {
+    step(LIFE_BIRTH, LIFE_SURVIVAL);
+  }
+
+  /**
+   * Computes the new values of the rows from start (inclusive) to end (exclusive) into the next array.
+   */
+  void stepRows(int start, int end, int birthMask, int survivalMask) {
+    long[] left = new long[nw], right = new long[nw];
+    long[] s0 = new long[nw], s1 = new long[nw], s2 = new long[nw], s3 = new long[nw];
+    boolean moore = (neighborhood!=VON_NEUMANN);
+    for(int iy = start; iy<end; iy++) {
+      java.util.Arrays.fill(s0, 0);
+      java.util.Arrays.fill(s1, 0);
+      java.util.Arrays.fill(s2, 0);
+      java.util.Arrays.fill(s3, 0);
+      int below = iy-1, above = iy+1;
+      if(periodic) {
+        below = (below+ny)%ny;
+        above = above%ny;
+      }
+      // the row itself contributes its left and right neighbors
+      shiftFromLeft(iy, left);
+      shiftFromRight(iy, right);
+      add(left, 0, s0, s1, s2, s3);
+      add(right, 0, s0, s1, s2, s3);
+      for(int jy : new int[] {below, above}) {
+        if((jy<0)||(jy>=ny)) {
+          continue;
+        }
+        add(words, jy*nw, s0, s1, s2, s3);
+        if(moore) {
+          shiftFromLeft(jy, left);
+          shiftFromRight(jy, right);
+          add(left, 0, s0, s1, s2, s3);
+          add(right, 0, s0, s1, s2, s3);
+        }
+      }
+      // apply the rule to the count planes
+      int offset = iy*nw;
+      for(int k = 0; k<nw; k++) {
+        long cell = words[offset+k], result = 0;
+        for(int count = 0; count<=8; count++) {
+          int bit = 1<<count;
+          if(((birthMask|survivalMask)&bit)==0) {
+            continue;
+          }
+          long equal = (((count&1)!=0) ? s0[k] : ~s0[k])&(((count&2)!=0) ? s1[k] : ~s1[k])&(((count&4)!=0) ? s2[k] : ~s2[k])&(((count&8)!=0) ? s3[k] : ~s3[k]);
+          if((birthMask&bit)!=0) {
+            result |= ~cell&equal;
+          }
+          if((survivalMask&bit)!=0) {
+            result |= cell&equal;
+          }
+        }
+        next[offset+k] = result;
+      }
+      next[offset+nw-1] &= lastMask;
+    }
+  }
+
+  /**
+   * Adds a plane of neighbor bits to the bit-sliced counters.
+   */
+  private void add(long[] plane, int offset, long[] s0, long[] s1, long[] s2, long[] s3) {
+    for(int k = 0; k<nw; k++) {
+      long p = plane[offset+k];
+      long c0 = s0[k]&p;
+      s0[k] ^= p;
+      long c1 = s1[k]&c0;
+      s1[k] ^= c0;
+      long c2 = s2[k]&c1;
+      s2[k] ^= c1;
+      s3[k] |= c2;
+    }
+  }
+
+  /**
+   * Fills out with the row shifted so that each site holds the value of its left (x-1) neighbor.
+   */
+  private void shiftFromLeft(int iy, long[] out) {
+    int offset = iy*nw;
+    long carry = 0;
+    if(periodic) {
+      int ix = nx-1;
+      carry = (words[offset+(ix>>6)]>>>(63-(ix&63)))&1;
+    }
+    for(int k = 0; k<nw; k++) {
+      long w = words[offset+k];
+      out[k] = (w>>>1)|(carry<<63);
+      carry = w&1;
+    }
+    out[nw-1] &= lastMask;
+  }
+
+  /**
+   * Fills out with the row shifted so that each site holds the value of its right (x+1) neighbor.
+   */
+  private void shiftFromRight(int iy, long[] out) {
+    int offset = iy*nw;
+    for(int k = 0; k<nw; k++) {
+      long carry = (k<nw-1) ? words[offset+k+1]>>>63 : 0;
+      out[k] = (words[offset+k]<<1)|carry;
+    }
+    if(periodic) {
+      int ix = nx-1;
+      out[nw-1] |= (words[offset]>>>63)<<(63-(ix&63));
+    }
+    out[nw-1] &= lastMask;
+  }
+
+  /**
+   * Copies the sites into the packed raster of a binary lattice, resizing it if needed.
+   * @param lattice the binary lattice
+   */
+  public void copyTo(BinaryLattice lattice) {
+    if((lattice.getNx()!=nx)||(lattice.getNy()!=ny)) {
+      lattice.resizeLattice(nx, ny);
+    }
+    byte[] packed = lattice.packedData;
+    int bytesPerRow = (nx+7)/8;
+    for(int iy = 0; iy<ny; iy++) {
+      int offset = iy*nw, dest = (ny-iy-1)*bytesPerRow; // raster rows start at the top
+      for(int b = 0; b<bytesPerRow; b++) {
+        packed[dest+b] = (byte) (words[offset+(b>>3)]>>>(56-8*(b&7)));
+      }
+    }
+  }
+
+  /**
+   * Copies the sites from the packed raster of a binary lattice, resizing this lattice if needed.
+   * @param lattice the binary lattice
+   */
+  public void copyFrom(BinaryLattice lattice) {
+    if((lattice.getNx()!=nx)||(lattice.getNy()!=ny)) {
+      resizeLattice(lattice.getNx(), lattice.getNy());
+    }
+    byte[] packed = lattice.packedData;
+    int bytesPerRow = (nx+7)/8;
+    java.util.Arrays.fill(words, 0);
+    for(int iy = 0; iy<ny; iy++) {
+      int offset = iy*nw, src = (ny-iy-1)*bytesPerRow;
+      for(int b = 0; b<bytesPerRow; b++) {
+        words[offset+(b>>3)] |= (packed[src+b]&0xFFL)<<(56-8*(b&7));
+      }
+      words[offset+nw-1] &= lastMask;
+    }
+  }
+
+  /**
+   * Copies the sites into any byte lattice, such as a CellLattice or a SiteLattice.
+   * Sites are set to the given values.
+   * @param lattice the byte lattice
+   * @param zero the value for sites that are 0
+   * @param one the value for sites that are 1
+   */
+  public void copyTo(ByteLattice lattice, byte zero, byte one) {
+    int mx = Math.min(nx, lattice.getNx()), my = Math.min(ny, lattice.getNy());
+    for(int iy = 0; iy<my; iy++) {
+      int offset = iy*nw;
+      for(int ix = 0; ix<mx; ix++) {
+        long bit = (words[offset+(ix>>6)]>>>(63-(ix&63)))&1;
+        lattice.setValue(ix, iy, (bit==0) ? zero : one);
+      }
+    }
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -0,0 +1,455 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.display2d;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.opensourcephysics.display.OSPRuntime;
+
+/**
+ * A CheckerboardSweep performs Monte Carlo sweeps of a square lattice model with
+ * nearest neighbor interactions and periodic boundaries, such as the Ising or Potts model.
+ *
+ * The sites are split into the two colors of a checkerboard. Sites of one color only
+ * interact with sites of the other color, so all the sites of a color are updated
+ * in parallel by bands of rows, each band using its own split of the random number generator.
+ * A lattice with an odd number of rows or columns cannot be colored this way and is swept
+ * sequentially.
+ *
+ * Site values are stored in a byte array and can be copied into any ByteLattice,
+ * such as a CellLattice or a SiteLattice, between sweeps. For example:
+ * <pre>
+ * CheckerboardSweep sweep = new CheckerboardSweep(256, 256, CheckerboardSweep.isingMetropolis(2.27, 0));
+ * sweep.randomize(2);
+ * sweep.sweep();
+ * sweep.copyTo(lattice);
+ * </pre>
+ *
+ * @version 1.0
+ */
+public class CheckerboardSweep {
+  static final int MIN_ROWS_PER_BAND = 16;
+  int nx, ny;
+  byte[] spins;
+  Kernel kernel;
+  SplittableRandom random;
+  int threads = OSPRuntime.isJS ? 1 : Runtime.getRuntime().availableProcessors();
+  long sweeps = 0;
+
+  /**
+   * Constructs a sweep engine for a lattice with the given size. All sites are zero.
+   * @param _nx the number of sites in x direction
+   * @param _ny the number of sites in y direction
+   * @param _kernel the single site update
+   */
+  public CheckerboardSweep(int _nx, int _ny, Kernel _kernel) {
+    this(_nx, _ny, _kernel, System.nanoTime());
+  }
+
+  /**
+   * Constructs a sweep engine with a seed for reproducible runs.
+   * Runs are only reproducible for the same number of threads.
+   * @param _nx the number of sites in x direction
+   * @param _ny the number of sites in y direction
+   * @param _kernel the single site update
+   * @param seed the seed of the random number generator
+   */
+  public CheckerboardSweep(int _nx, int _ny, Kernel _kernel, long seed) {
+    if((_nx<1)||(_ny<1)) {
+      throw new IllegalArgumentException("Lattice dimensions must be positive."); //$NON-NLS-1$
+    }
+    nx = _nx;
+    ny = _ny;
+    spins = new byte[nx*ny];
+    kernel = _kernel;
+    random = new SplittableRandom(seed);
+  }
+
+  /**
+   * Sets the single site update, for instance to change the temperature.
+   * @param _kernel the kernel
+   */
+  public synchronized void setKernel(Kernel _kernel) {
+    kernel = _kernel;
+  }
+
+  /**
+   * Gets the single site update.
+   * @return the kernel
+   */
+  public Kernel getKernel() {
+    return kernel;
+  }
+
+  /**
+   * Sets the maximum number of threads used by a sweep.
+   * @param n the number of threads
+   */
+  public void setThreads(int n) {
+    threads = OSPRuntime.isJS ? 1 : Math.max(1, n);
+  }
+
+  /**
+   * Gets the number of x entries.
+   * @return nx
+   */
+  public int getNx() {
+    return nx;
+  }
+
+  /**
+   * Gets the number of y entries.
+   * @return ny
+   */
+  public int getNy() {
+    return ny;
+  }
+
+  /**
+   * Gets the number of sweeps done so far.
+   * @return the number of sweeps
+   */
+  public long getSweeps() {
+    return sweeps;
+  }
+
+  /**
+   * Whether the sites can be split into two independent colors.
+   * @return true if nx and ny are even
+   */
+  public boolean isCheckerboard() {
+    return(nx%2==0)&&(ny%2==0);
+  }
+
+  /**
+   * Gets the value of a site.
+   * @param ix
+   * @param iy
+   * @return the value
+   */
+  public byte getValue(int ix, int iy) {
+    return spins[iy*nx+ix];
+  }
+
+  /**
+   * Sets the value of a site.
+   * @param ix
+   * @param iy
+   * @param val
+   */
+  public synchronized void setValue(int ix, int iy, byte val) {
+    spins[iy*nx+ix] = val;
+  }
+
+  /**
+   * Sets all sites to the given value.
+   * @param val
+   */
+  public synchronized void setAll(byte val) {
+    java.util.Arrays.fill(spins, val);
+  }
+
+  /**
+   * Sets every site to a random value between 0 and q-1.
+   * @param q the number of states
+   */
+  public synchronized void randomize(int q) {
+    for(int i = 0; i<spins.length; i++) {
+      spins[i] = (byte) random.nextInt(q);
+    }
+  }
+
+  /**
+   * Counts the sites that have the given value.
+   * @param val
+   * @return the number of sites
+   */
+  public synchronized int count(byte val) {
+    int count = 0;
+    for(int i = 0; i<spins.length; i++) {
+      if(spins[i]==val) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Performs one Monte Carlo sweep: every site is visited once.
+   */
+  public synchronized void sweep() {
+    if(!isCheckerboard()) {
+      updateRows(0, ny, -1, random);
+    } else {
+      updateColor(0);
+      updateColor(1);
+    }
+    sweeps++;
+  }
+
+  /**
+   * Performs the given number of sweeps.
+   * @param n the number of sweeps
+   */
+  public void sweep(int n) {
+    for(int i = 0; i<n; i++) {
+      sweep();
+    }
+  }
+
+  /**
+   * Updates all the sites of a color, in parallel if the lattice is large enough.
+   */
+  private void updateColor(final int color) {
+    int bands = Math.min(threads, ny/MIN_ROWS_PER_BAND);
+    if(bands<=1) {
+      updateRows(0, ny, color, random);
+      return;
+    }
+    ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+    for(int i = 0; i<bands; i++) {
+      final int start = i*ny/bands, end = (i+1)*ny/bands;
+      final SplittableRandom bandRandom = random.split();
+      tasks.add(new Callable<Object>() {
+        @Override
+        public Object call() {
+          updateRows(start, end, color, bandRandom);
+          return null;
+        }
+
+      });
+    }
+    try {
+      for(Future<Object> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+        future.get();
+      }
+    } catch(InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch(ExecutionException ex) {
+      throw new RuntimeException(ex.getCause());
+    }
+  }
+
+  /**
+   * Updates the sites of the given color (or all sites if color<0) in the rows from start to end.
+   */
+  void updateRows(int start, int end, int color, SplittableRandom rnd) {
+    Kernel k = kernel;
+    for(int iy = start; iy<end; iy++) {
+      int row = iy*nx;
+      int down = ((iy==0) ? ny-1 : iy-1)*nx, up = ((iy==ny-1) ? 0 : iy+1)*nx;
+      int first = 0, step = 1;
+      if(color>=0) {
+        first = (iy+color)&1;
+        step = 2;
+      }
+      for(int ix = first; ix<nx; ix += step) {
+        int left = (ix==0) ? nx-1 : ix-1, right = (ix==nx-1) ? 0 : ix+1;
+        spins[row+ix] = k.update(spins[row+ix], spins[row+left], spins[row+right], spins[down+ix], spins[up+ix], rnd);
+      }
+    }
+  }
+
+  /**
+   * Copies the current state into a lattice for drawing.
+   * The copy is consistent: it never shows a partially completed sweep.
+   * @param lattice the lattice, such as a CellLattice or a SiteLattice
+   */
+  public synchronized void copyTo(ByteLattice lattice) {
+    int mx = Math.min(nx, lattice.getNx()), my = Math.min(ny, lattice.getNy());
+    if(lattice instanceof SiteLattice) { // direct access to the site array
+      byte[][] data = ((SiteLattice) lattice).data;
+      for(int iy = 0; iy<my; iy++) {
+        for(int ix = 0, row = iy*nx; ix<mx; ix++) {
+          data[ix][iy] = spins[row+ix];
+        }
+      }
+      return;
+    }
+    for(int iy = 0; iy<my; iy++) {
+      for(int ix = 0, row = iy*nx; ix<mx; ix++) {
+        lattice.setValue(ix, iy, spins[row+ix]);
+      }
+    }
+  }
+
+  /**
+   * A single site update. Implementations must only read the given values and the
+   * given random number generator, since they are called concurrently.
+   */
+  public interface Kernel {
+    /**
+     * Gets the new value of a site.
+     * @param site the current value of the site
+     * @param left the value of the left neighbor
+     * @param right the value of the right neighbor
+     * @param down the value of the neighbor below
+     * @param up the value of the neighbor above
+     * @param random the random number generator of the calling thread
+     * @return the new value
+     */
+    public byte update(byte site, byte left, byte right, byte down, byte up, SplittableRandom random);
+
+  }
+
+  /**
+   * Creates a Metropolis update for the Ising model with J=1. Sites with value 0 are spin down
+   * and sites with value 1 are spin up. Only the lowest bit of each value is read, so
+   * other values are taken as 0 if even and 1 if odd rather than failing inside a sweep.
+   * @param temperature the temperature
+   * @param field the external magnetic field
+   * @return the kernel
+   */
+  public static Kernel isingMetropolis(double temperature, double field) {
+    // acceptance probabilities indexed by spin (0 or 1) and number of up neighbors (0 to 4)
+    final double[][] w = new double[2][5];
+    for(int s = 0; s<2; s++) {
+      for(int n = 0; n<=4; n++) {
+        double dE = 2*(2*s-1)*((2*n-4)+field);
+        w[s][n] = Math.min(1, Math.exp(-dE/temperature));
+      }
+    }
+    return new Kernel() {
+      @Override
+      public byte update(byte site, byte left, byte right, byte down, byte up, SplittableRandom random) {
+        int s = site&1;
+        double p = w[s][(left&1)+(right&1)+(down&1)+(up&1)];
+        if((p>=1)||(random.nextDouble()<p)) {
+          return(byte) (1-s);
+        }
+        return(byte) s;
+      }
+
+    };
+  }
+
+  /**
+   * Creates a heat bath update for the Ising model with J=1. Sites with value 0 are spin down
+   * and sites with value 1 are spin up. Only the lowest bit of each value is read, so
+   * other values are taken as 0 if even and 1 if odd rather than failing inside a sweep.
+   * @param temperature the temperature
+   * @param field the external magnetic field
+   * @return the kernel
+   */
+  public static Kernel isingHeatBath(double temperature, double field) {
+    // probability of spin up indexed by the number of up neighbors
+    final double[] pUp = new double[5];
+    for(int n = 0; n<=4; n++) {
+      pUp[n] = 1/(1+Math.exp(-2*((2*n-4)+field)/temperature));
+    }
+    return new Kernel() {
+      @Override
+      public byte update(byte site, byte left, byte right, byte down, byte up, SplittableRandom random) {
+        return(byte) ((random.nextDouble()<pUp[(left&1)+(right&1)+(down&1)+(up&1)]) ? 1 : 0);
+      }
+
+    };
+  }
+
+  /**
+   * Creates a Metropolis update for the q-state Potts model with J=1 and values 0 to q-1.
+   * @param q the number of states, at least 2
+   * @param temperature the temperature
+   * @return the kernel
+   */
+  public static Kernel pottsMetropolis(final int q, double temperature) {
+    if(q<2) {
+      throw new IllegalArgumentException("Metropolis Potts updates need at least two states."); //$NON-NLS-1$
+    }
+    // acceptance probabilities indexed by the change in the number of equal neighbors plus 4
+    final double[] w = new double[9];
+    for(int d = -4; d<=4; d++) {
+      w[d+4] = Math.min(1, Math.exp(d/temperature));
+    }
+    return new Kernel() {
+      @Override
+      public byte update(byte site, byte left, byte right, byte down, byte up, SplittableRandom random) {
+        int trial = random.nextInt(q-1);
+        if(trial>=site) {
+          trial++; // a state different from the current one
+        }
+        int d = equal(trial, left, right, down, up)-equal(site, left, right, down, up);
+        double p = w[d+4];
+        if((p>=1)||(random.nextDouble()<p)) {
+          return(byte) trial;
+        }
+        return site;
+      }
+
+    };
+  }
+
+  /**
+   * Creates a heat bath update for the q-state Potts model with J=1 and values 0 to q-1.
+   * @param q the number of states, at least 1
+   * @param temperature the temperature
+   * @return the kernel
+   */
+  public static Kernel pottsHeatBath(final int q, double temperature) {
+    if(q<1) {
+      throw new IllegalArgumentException("Potts updates need at least one state."); //$NON-NLS-1$
+    }
+    // Boltzmann factors indexed by the number of equal neighbors
+    final double[] boltzmann = new double[5];
+    for(int n = 0; n<=4; n++) {
+      boltzmann[n] = Math.exp(n/temperature);
+    }
+    return new Kernel() {
+      @Override
+      public byte update(byte site, byte left, byte right, byte down, byte up, SplittableRandom random) {
+        double sum = 0;
+        for(int s = 0; s<q; s++) {
+          sum += boltzmann[equal(s, left, right, down, up)];
+        }
+        double r = random.nextDouble()*sum;
+        for(int s = 0; s<q-1; s++) {
+          r -= boltzmann[equal(s, left, right, down, up)];
+          if(r<0) {
+            return(byte) s;
+          }
+        }
+        return(byte) (q-1);
+      }
+
+    };
+  }
+
+  static int equal(int s, byte left, byte right, byte down, byte up) {
+    return((left==s) ? 1 : 0)+((right==s) ? 1 : 0)+((down==s) ? 1 : 0)+((up==s) ? 1 : 0);
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -0,0 +1,122 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.display3d.core;
+import org.opensourcephysics.controls.XMLControl;
+
+/**
+ * <p>Title: ElementParticles</p>
+ * <p>Description: A large 3D set of identical spherical particles.</p>
+ * <p>Unlike a Set of ElementSpheres or an ElementPoints, the positions are
+ * kept in a single flat array of the form {x0,y0,z0,x1,y1,z1,...}, so that
+ * the particles can be updated and projected in bulk. Each particle is drawn
+ * as a shaded disk of the given radius using the fill color of the style.</p>
+ */
+public interface ElementParticles extends Element {
+  /**
+   * Sets the positions of the particles.
+   * The number of particles becomes n.
+   * @param xyz double[] a flat array with at least 3*n entries {x0,y0,z0,x1,y1,z1,...}
+   * @param n int the number of particles
+   */
+  public void setPositions(double[] xyz, int n);
+
+  /**
+   * Sets the positions of the particles from a single precision array.
+   * The number of particles becomes n.
+   * @param xyz float[] a flat array with at least 3*n entries {x0,y0,z0,x1,y1,z1,...}
+   * @param n int the number of particles
+   */
+  public void setPositions(float[] xyz, int n);
+
+  /**
+   * Sets the position of a single particle.
+   * Indexes outside the range [0, getNumberOfParticles()) are ignored.
+   * @param index int the index of the particle
+   * @param x double
+   * @param y double
+   * @param z double
+   */
+  public void setPosition(int index, double x, double y, double z);
+
+  /**
+   * Gets a copy of the positions of the particles.
+   * @return double[] a flat array with 3*getNumberOfParticles() entries
+   */
+  public double[] getPositions();
+
+  /**
+   * Gets the number of particles
+   * @return int
+   */
+  public int getNumberOfParticles();
+
+  /**
+   * Sets the radius of the particles, in world units.
+   * A radius of zero draws every particle as a single pixel.
+   * @param radius double
+   */
+  public void setRadius(double radius);
+
+  /**
+   * Gets the radius of the particles
+   * @return double
+   */
+  public double getRadius();
+
+  // ----------------------------------------------------
+  // XML loader
+  // ----------------------------------------------------
+  static abstract class Loader extends Element.Loader {
+    @Override
+	public void saveObject(XMLControl control, Object obj) {
+      super.saveObject(control, obj);
+      ElementParticles element = (ElementParticles) obj;
+      control.setValue("radius", element.getRadius());       //$NON-NLS-1$
+      control.setValue("positions", element.getPositions()); //$NON-NLS-1$
+    }
+
+    @Override
+	public Object loadObject(XMLControl control, Object obj) {
+      super.loadObject(control, obj);
+      ElementParticles element = (ElementParticles) obj;
+      element.setRadius(control.getDouble("radius"));                  //$NON-NLS-1$
+      double[] positions = (double[]) control.getObject("positions"); //$NON-NLS-1$
+      if(positions!=null) {
+        element.setPositions(positions, positions.length/3);
+      }
+      return obj;
+    }
+
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -30,8 +30,8 @@ public abstract class AbstractTile extends Element {
   private Color[] levelColors = null;
   // Implementation variables
   private int a[][] = null, b[][] = null;
-  private double[] pixel = new double[3];       // The output for all projections
-  private double[] center = new double[3];
+  private double[] points = new double[0];      // Flat array of corners and centers to project
+  private double[] pixels = new double[0];      // The output for all projections
   private double[] pixelOrigin = new double[3]; // The projection of the origin
   private Object3D[] objects = null;
 
@@ -251,24 +251,40 @@ protected InteractionTarget getTargetHit(int x, int y) {
   }
 
   protected void projectPoints() {
+    // Corners of all tiles first, then their centers, all projected at once
+    int nCorners = 0;
     for(int i = 0; i<numberOfTiles; i++) {
+      nCorners += corners[i].length;
+    }
+    int nPoints = nCorners+numberOfTiles;
+    if(points.length<3*nPoints) {
+      points = new double[3*nPoints];
+      pixels = new double[3*nPoints];
+    }
+    for(int i = 0, j = 0, c = 3*nCorners; i<numberOfTiles; i++, c += 3) {
       int sides = corners[i].length;
-      for(int k = 0; k<3; k++) {
-        center[k] = 0.0;                                            // Reset coordinates of the center
-      }
-      for(int j = 0; j<sides; j++) {
-        getDrawingPanel3D().project(corners[i][j], pixel);          // Project each corner
-        a[i][j] = (int) pixel[0];
-        b[i][j] = (int) pixel[1];
-        for(int k = 0; k<3; k++) {
-          center[k] += corners[i][j][k];                            // Add to the coordinates of the center
-        }
+      double cx = 0.0, cy = 0.0, cz = 0.0;
+      for(int k = 0; k<sides; k++, j += 3) {
+        double[] corner = corners[i][k];
+        points[j] = corner[0];
+        points[j+1] = corner[1];
+        points[j+2] = corner[2];
+        cx += corner[0];
+        cy += corner[1];
+        cz += corner[2];
       }
-      for(int k = 0; k<3; k++) {
-        center[k] /= sides;
+      points[c] = cx/sides;
+      points[c+1] = cy/sides;
+      points[c+2] = cz/sides;
+    }
+    getDrawingPanel3D().project(points, nPoints, pixels);
+    double depthFactor = getStyle().getDepthFactor();
+    for(int i = 0, j = 0, c = 3*nCorners; i<numberOfTiles; i++, c += 3) {
+      for(int k = 0, sides = corners[i].length; k<sides; k++, j += 3) {
+        a[i][k] = (int) pixels[j];
+        b[i][k] = (int) pixels[j+1];
       }
-      getDrawingPanel3D().project(center, pixel);                   // Project the center and take it
-      objects[i].setDistance(pixel[2]*getStyle().getDepthFactor()); // as reference for the distance
+      objects[i].setDistance(pixels[c+2]*depthFactor); // The center is the reference for the distance
     }
     getDrawingPanel3D().project(getHotSpot(targetPosition), pixelOrigin);
     setNeedToProject(false);
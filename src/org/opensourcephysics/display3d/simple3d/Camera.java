@@ -372,6 +372,18 @@ public void copyFrom(org.opensourcephysics.display3d.core.Camera camera) {
     }
   }
 
+  /**
+   * Projects n points at once.
+   * For internal use of DrawingPanel3D only
+   * @param src double[] a flat array {x0,y0,z0,x1,y1,z1,...} with the points
+   * @param n int the number of points
+   * @param dst double[] a place-holder for the result. It can be the same as src
+   * @return double[] the dst array
+   */
+  double[] project(double[] src, int n, double[] dst) {
+    return projection.direct(src, n, dst);
+  }
+
   private class Projection implements org.opensourcephysics.numerics.Transformation {
     @Override
 	public Object clone() {
@@ -438,6 +450,68 @@ public void copyFrom(org.opensourcephysics.display3d.core.Camera camera) {
       }
     }
 
+    @Override
+	public double[] direct(double[] src, int n, double[] dst) {
+      int n3 = 3*n;
+      switch(projectionMode) {
+         case MODE_PLANAR_XY :
+           for(int j = 0; j<n3; j += 3) {
+             dst[j] = src[j]-focusX;
+             dst[j+1] = src[j+1]-focusY;
+             dst[j+2] = 1.0-(src[j+2]-focusZ)/distanceToFocus;
+           }
+           return dst;
+         case MODE_PLANAR_XZ :
+           for(int j = 0; j<n3; j += 3) {
+             double aux = src[j+1];
+             dst[j] = src[j]-focusX;
+             dst[j+1] = src[j+2]-focusZ;
+             dst[j+2] = 1.0-(aux-focusY)/distanceToFocus;
+           }
+           return dst;
+         case MODE_PLANAR_YZ :
+           for(int j = 0; j<n3; j += 3) {
+             double aux = src[j];
+             dst[j] = src[j+1]-focusY;
+             dst[j+1] = src[j+2]-focusZ;
+             dst[j+2] = 1.0-(aux-focusX)/distanceToFocus;
+           }
+           return dst;
+         case MODE_NO_PERSPECTIVE :
+         case MODE_PERSPECTIVE_OFF : {
+           double e10 = e1[0], e11 = e1[1], e12 = e1[2];
+           double e20 = e2[0], e21 = e2[1], e22 = e2[2];
+           double e30 = e3[0], e31 = e3[1], e32 = e3[2];
+           for(int j = 0; j<n3; j += 3) {
+             double x = src[j]-posX, y = src[j+1]-posY, z = src[j+2]-posZ;
+             dst[j] = x*e20+y*e21+z*e22;
+             dst[j+1] = x*e30+y*e31+z*e32;
+             dst[j+2] = (x*e10+y*e11+z*e12)/distanceToFocus;
+           }
+           return dst;
+         }
+         default :
+         case MODE_PERSPECTIVE :
+         case MODE_PERSPECTIVE_ON : {
+           double e10 = e1[0], e11 = e1[1], e12 = e1[2];
+           double e20 = e2[0], e21 = e2[1], e22 = e2[2];
+           double e30 = e3[0], e31 = e3[1], e32 = e3[2];
+           for(int j = 0; j<n3; j += 3) {
+             double x = src[j]-posX, y = src[j+1]-posY, z = src[j+2]-posZ;
+             double factor = x*e10+y*e11+z*e12, aux1 = factor;
+             if(Math.abs(factor)<panelMaxSizeConstant) {
+               factor = panelMaxSizeConstant; // Avoid division by zero
+             }
+             factor = distanceToScreen/factor;
+             dst[j] = (x*e20+y*e21+z*e22)*factor;
+             dst[j+1] = (x*e30+y*e31+z*e32)*factor;
+             dst[j+2] = aux1/distanceToFocus;
+           }
+           return dst;
+         }
+      }
+    }
+
     @Override
 	public double[] inverse(double[] point) throws UnsupportedOperationException {
       throw new UnsupportedOperationException();
@@ -792,6 +792,9 @@ public void removeInteractionListener(InteractionListener listener) {
     g.setColor(getBackground());
     g.fillRect(0, 0, width, height); // fill the component with the background color
     paintDrawableList(g, tempList);
+    for(int i = 0, n = tempList.size(); i<n; i++) {
+      ((Element) tempList.get(i)).setAppearanceChanged(false); // cached projections are now on display
+    }
   }
 
 	private void paintDrawableList(Graphics g, java.util.List<org.opensourcephysics.display3d.core.Element> tempList) {
@@ -973,6 +976,38 @@ public int print(Graphics g, PageFormat pageFormat, int pageIndex) throws Printe
     return pixel;
   }
 
+  /**
+   * Converts n 3D points of the scene into 2D points of the screen at once.
+   * Equivalent to calling project(double[], double[]) for each point, but
+   * streams over the flat arrays using the camera batch projection.
+   * @param coordinates A flat array {x0,y0,z0,x1,y1,z1,...} with the points of the scene.
+   * The input coordinates are not modified.
+   * @param n The number of points to project
+   * @param pixels A place-holder of at least 3*n entries for the a,b and distance of each point
+   * @return The pixels array
+   * @see #project(double[], double[])
+   */
+  double[] project(double[] coordinates, int n, double[] pixels) {
+    camera.project(coordinates, n, pixels);
+    double factor = 1.8;
+    switch(camera.getProjectionMode()) {
+       case org.opensourcephysics.display3d.core.Camera.MODE_NO_PERSPECTIVE :
+       case org.opensourcephysics.display3d.core.Camera.MODE_PERSPECTIVE_OFF :
+         factor = 1.3;
+         break;
+       case org.opensourcephysics.display3d.core.Camera.MODE_PERSPECTIVE :
+       case org.opensourcephysics.display3d.core.Camera.MODE_PERSPECTIVE_ON :
+         factor = 1;
+         break;
+    }
+    double ka = factor*aconstant, kb = factor*bconstant;
+    for(int j = 0, n3 = 3*n; j<n3; j += 3) {
+      pixels[j] = acenter+pixels[j]*ka;
+      pixels[j+1] = bcenter-pixels[j+1]*kb;
+    }
+    return pixels;
+  }
+
   /**
    * Converts a world size at a given point into a size in the screen
    * @param p double[] The coordinates of the point at which the 3D
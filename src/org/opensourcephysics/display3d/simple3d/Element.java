@@ -46,7 +46,11 @@ public abstract class Element implements org.opensourcephysics.display3d.core.El
   private double factorY = 1.0;
   private double factorZ = 1.0;
   // Implementation variables
-  private boolean elementChanged = true, needsToProject = true;
+  // Changes are tracked at three levels, from the most to the least expensive:
+  // elementChanged  : the geometry or the transformation changed, space coordinates must be recomputed
+  // needsToProject  : only the camera (or the panel) changed, cached space coordinates must be reprojected
+  // appearanceChanged : only the style changed, cached projections can be drawn again as they are
+  private boolean elementChanged = true, needsToProject = true, appearanceChanged = false;
   private DrawingPanel3D panel;
   // Variables for interaction
   private ArrayList<InteractionListener> listeners = new ArrayList<InteractionListener>();
@@ -506,7 +510,17 @@ public void setSizeXYZ(double[] size) {
    * @return boolean
    */
   boolean getElementChanged() {
-    return elementChanged;
+    return elementChanged||appearanceChanged;
+  }
+
+  /**
+   * Tells the element whether it has a change that only requires drawing
+   * it again (such as a new color), with no need to recompute or reproject
+   * its points. The panel clears this once the element has been displayed.
+   * @param change Whether the appearance of the element has changed
+   */
+  void setAppearanceChanged(boolean change) {
+    appearanceChanged = change;
   }
 
   /**
@@ -526,7 +540,10 @@ public void setSizeXYZ(double[] size) {
   // -------------------------------------
   @Override
 public void setVisible(boolean _visible) {
-    this.visible = _visible;
+    if(this.visible!=_visible) {
+      this.visible = _visible;
+      appearanceChanged = true;
+    }
   }
 
   @Override
@@ -568,7 +585,19 @@ final public org.opensourcephysics.display3d.core.Style getStyle() {
    * @param styleThatChanged int
    */
   final void styleChanged(int styleThatChanged) {
-    elementChanged = true;
+    switch(styleThatChanged) {
+       case Style.STYLE_RESOLUTION :
+       case Style.STYLE_RELATIVE_POSITION :
+         elementChanged = true;    // The points themselves change
+         break;
+       case Style.STYLE_DRAWING_FILL :
+         needsToProject = true;    // Some elements project a different set of objects
+         appearanceChanged = true;
+         break;
+       default :
+         appearanceChanged = true; // Colors and strokes are read when drawing
+         break;
+    }
   }
 
   // ----------------------------------------
@@ -0,0 +1,375 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.display3d.simple3d;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.MultipleGradientPaint;
+import java.awt.RadialGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import org.opensourcephysics.controls.XML;
+import org.opensourcephysics.controls.XMLControl;
+
+/**
+ * <p>Title: ElementParticles</p>
+ * <p>Description: A large set of particles drawn as pre-rendered sprites.</p>
+ * <p>The positions are stored in a flat array and projected in bulk.
+ * The whole set provides a single Object3D to the panel, located at the
+ * mean depth of the particles, and the particles are sorted among themselves
+ * (using a bucket sort on the projected depth) before drawing them back to front.
+ * Depth coloring is not applied to the sprites.</p>
+ */
+public class ElementParticles extends Element implements org.opensourcephysics.display3d.core.ElementParticles {
+  static private final int MAX_SPRITE_SIZE = 128; // Larger sprites are scaled from this one
+  static private final int MAX_BUCKETS = 4096;    // Resolution of the depth sort
+  // Configuration variables
+  private double positions[] = new double[0];
+  private int numberOfParticles = 0;
+  private double radius = 0.1;
+  // Implementation variables
+  private double transformedPositions[] = new double[0];
+  private double pixels[] = new double[0];      // a, b and distance of each particle
+  private int diameters[] = new int[0];         // Diameter in pixels of each particle
+  private int order[] = new int[0];             // Drawing order, back to front
+  private int buckets[] = new int[0];
+  private boolean orderIsValid = false;
+  private double point[] = new double[3];
+  private double size[] = new double[3];
+  private double pixelSize[] = new double[2];
+  private double origin[] = new double[3];      // Origin coordinates, required for interaction
+  private double originpixel[] = new double[3]; // Projection of the origin, required for interaction
+  private Object3D[] objects = new Object3D[] {new Object3D(this, 0)};
+  private HashMap<Integer, BufferedImage> sprites = new HashMap<Integer, BufferedImage>();
+  private Color spriteColor = null;
+
+  // -------------------------------------
+  // New configuration methods
+  // -------------------------------------
+  @Override
+public void setPositions(double[] xyz, int n) {
+    ensureCapacity(n);
+    System.arraycopy(xyz, 0, positions, 0, 3*n);
+    setElementChanged(true);
+  }
+
+  @Override
+public void setPositions(float[] xyz, int n) {
+    ensureCapacity(n);
+    for(int i = 0, n3 = 3*n; i<n3; i++) {
+      positions[i] = xyz[i];
+    }
+    setElementChanged(true);
+  }
+
+  @Override
+public void setPosition(int index, double x, double y, double z) {
+    if((index<0)||(index>=numberOfParticles)) {
+      return;
+    }
+    int j = 3*index;
+    positions[j] = x;
+    positions[j+1] = y;
+    positions[j+2] = z;
+    setElementChanged(true);
+  }
+
+  @Override
+public double[] getPositions() {
+    double[] data = new double[3*numberOfParticles];
+    System.arraycopy(positions, 0, data, 0, data.length);
+    return data;
+  }
+
+  @Override
+public int getNumberOfParticles() {
+    return numberOfParticles;
+  }
+
+  @Override
+public void setRadius(double radius) {
+    this.radius = radius;
+    setElementChanged(true);
+  }
+
+  @Override
+public double getRadius() {
+    return radius;
+  }
+
+  // -------------------------------------
+  // Abstract part of Element or Parent methods overwritten
+  // -------------------------------------
+  @Override
+public void getExtrema(double[] min, double[] max) {
+    double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    double minZ = Double.POSITIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+    double[] aPoint = new double[3];
+    for(int i = 0, n3 = 3*numberOfParticles; i<n3; i += 3) {
+      System.arraycopy(positions, i, aPoint, 0, 3);
+      sizeAndToSpaceFrame(aPoint);
+      minX = Math.min(minX, aPoint[0]);
+      maxX = Math.max(maxX, aPoint[0]);
+      minY = Math.min(minY, aPoint[1]);
+      maxY = Math.max(maxY, aPoint[1]);
+      minZ = Math.min(minZ, aPoint[2]);
+      maxZ = Math.max(maxZ, aPoint[2]);
+    }
+    min[0] = minX;
+    max[0] = maxX;
+    min[1] = minY;
+    max[1] = maxY;
+    min[2] = minZ;
+    max[2] = maxZ;
+  }
+
+  @Override
+Object3D[] getObjects3D() {
+    if(!isReallyVisible()||(numberOfParticles==0)) {
+      return null;
+    }
+    if(hasChanged()) {
+      transformAndProject();
+    } else if(needsToProject()) {
+      project();
+    }
+    return objects;
+  }
+
+  @Override
+void draw(Graphics2D _g2, int _index) {
+    if(!orderIsValid) {
+      sortByDepth();
+    }
+    drawParticles(_g2, order);
+  }
+
+  @Override
+void drawQuickly(Graphics2D _g2) {
+    if(!isReallyVisible()||(numberOfParticles==0)) {
+      return;
+    }
+    if(hasChanged()) {
+      transformAndProject();
+    } else if(needsToProject()) {
+      project();
+    }
+    drawParticles(_g2, null);
+  }
+
+  // -------------------------------------
+  // Interaction
+  // -------------------------------------
+  @Override
+protected InteractionTarget getTargetHit(int x, int y) {
+    if(!isReallyVisible()||(numberOfParticles==0)) {
+      return null;
+    }
+    if(hasChanged()) {
+      transformAndProject();
+    } else if(needsToProject()) {
+      project();
+    }
+    if(targetPosition.isEnabled()&&(Math.abs(originpixel[0]-x)<SENSIBILITY)&&(Math.abs(originpixel[1]-y)<SENSIBILITY)) {
+      return targetPosition;
+    }
+    return null;
+  }
+
+  // -------------------------------------
+  // Private methods
+  // -------------------------------------
+  private void ensureCapacity(int n) {
+    if(positions.length<3*n) {
+      double[] newPositions = new double[3*n];
+      System.arraycopy(positions, 0, newPositions, 0, 3*numberOfParticles);
+      positions = newPositions;
+      transformedPositions = new double[3*n];
+      pixels = new double[3*n];
+      diameters = new int[n];
+      order = new int[n];
+    }
+    numberOfParticles = n;
+  }
+
+  private void transformAndProject() {
+    // Compute the origin projection. Reuse center
+    origin[0] = origin[1] = origin[2] = 0.0;
+    sizeAndToSpaceFrame(origin);
+    getDrawingPanel3D().project(origin, originpixel);
+    for(int i = 0, n3 = 3*numberOfParticles; i<n3; i += 3) {
+      System.arraycopy(positions, i, point, 0, 3);
+      sizeAndToSpaceFrame(point);
+      System.arraycopy(point, 0, transformedPositions, i, 3);
+    }
+    setElementChanged(false);
+    project();
+  }
+
+  private void project() {
+    DrawingPanel3D panel = getDrawingPanel3D();
+    int n = numberOfParticles;
+    panel.project(transformedPositions, n, pixels);
+    size[0] = size[1] = size[2] = 2*radius;
+    double depthFactor = getRealStyle().getDepthFactor(), depth = 0;
+    // Only perspective sizes depend on the particle position
+    int mode = panel.getCamera().getProjectionMode();
+    boolean perspective = (mode==org.opensourcephysics.display3d.core.Camera.MODE_PERSPECTIVE)
+      ||(mode==org.opensourcephysics.display3d.core.Camera.MODE_PERSPECTIVE_ON);
+    int diameter = 0;
+    if(!perspective) {
+      panel.projectSize(origin, size, pixelSize);
+      diameter = (int) Math.round(pixelSize[0]);
+    }
+    for(int i = 0, j = 0; i<n; i++, j += 3) {
+      if(perspective) {
+        System.arraycopy(transformedPositions, j, point, 0, 3);
+        panel.projectSize(point, size, pixelSize);
+        diameter = (int) Math.round(pixelSize[0]);
+      }
+      diameters[i] = diameter;
+      depth += pixels[j+2];
+    }
+    objects[0].setDistance(depth*depthFactor/n);
+    orderIsValid = false;
+    setNeedToProject(false);
+  }
+
+  /**
+   * Sorts the particles back to front using a bucket sort on their projected distance.
+   */
+  private void sortByDepth() {
+    int n = numberOfParticles;
+    double minDepth = Double.POSITIVE_INFINITY, maxDepth = Double.NEGATIVE_INFINITY;
+    for(int j = 2, n3 = 3*n; j<n3; j += 3) {
+      minDepth = Math.min(minDepth, pixels[j]);
+      maxDepth = Math.max(maxDepth, pixels[j]);
+    }
+    int nBuckets = Math.max(1, Math.min(n, MAX_BUCKETS));
+    if(buckets.length<nBuckets+1) {
+      buckets = new int[nBuckets+1];
+    } else {
+      java.util.Arrays.fill(buckets, 0);
+    }
+    double scale = (maxDepth>minDepth) ? (nBuckets-1)/(maxDepth-minDepth) : 0;
+    // Count the particles in each bucket, farthest bucket first
+    for(int i = 0; i<n; i++) {
+      buckets[bucketOf(i, maxDepth, scale)+1]++;
+    }
+    for(int b = 1; b<=nBuckets; b++) {
+      buckets[b] += buckets[b-1];
+    }
+    for(int i = 0; i<n; i++) {
+      order[buckets[bucketOf(i, maxDepth, scale)]++] = i;
+    }
+    orderIsValid = true;
+  }
+
+  private int bucketOf(int i, double maxDepth, double scale) {
+    double depth = pixels[3*i+2];
+    if(Double.isNaN(depth)) {
+      return 0;
+    }
+    return(int) ((maxDepth-depth)*scale);
+  }
+
+  /**
+   * Draws the particles in the given order, or in their natural order if null.
+   */
+  private void drawParticles(Graphics2D _g2, int[] drawOrder) {
+    Color color = getRealStyle().getFillColor();
+    if(!color.equals(spriteColor)) {
+      sprites.clear();
+      spriteColor = color;
+    }
+    _g2.setColor(color);
+    for(int k = 0, n = numberOfParticles; k<n; k++) {
+      int i = (drawOrder==null) ? k : drawOrder[k];
+      int j = 3*i, d = diameters[i];
+      int a = (int) pixels[j], b = (int) pixels[j+1];
+      if(d<2) {
+        _g2.fillRect(a, b, 1, 1);
+      } else if(d<=MAX_SPRITE_SIZE) {
+        _g2.drawImage(getSprite(d), a-d/2, b-d/2, null);
+      } else {
+        _g2.drawImage(getSprite(MAX_SPRITE_SIZE), a-d/2, b-d/2, d, d, null);
+      }
+    }
+  }
+
+  /**
+   * Gets the shaded disk used to draw particles of the given diameter.
+   * Sprites are created on demand and shared by all particles of the same size.
+   */
+  private BufferedImage getSprite(int diameter) {
+    Integer key = Integer.valueOf(diameter);
+    BufferedImage sprite = sprites.get(key);
+    if(sprite==null) {
+      sprite = new BufferedImage(diameter, diameter, BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g2 = sprite.createGraphics();
+      g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      float r = diameter/2.0f;
+      Point2D center = new Point2D.Float(r, r);
+      Point2D focus = new Point2D.Float(0.7f*r, 0.7f*r);
+      Color[] colors = {spriteColor.brighter().brighter(), spriteColor, spriteColor.darker().darker()};
+      g2.setPaint(new RadialGradientPaint(center, r, focus, new float[] {0.0f, 0.5f, 1.0f}, colors, MultipleGradientPaint.CycleMethod.NO_CYCLE));
+      g2.fillOval(0, 0, diameter, diameter);
+      g2.dispose();
+      sprites.put(key, sprite);
+    }
+    return sprite;
+  }
+
+  // ----------------------------------------------------
+  // XML loader
+  // ----------------------------------------------------
+
+  /**
+   * Returns an XML.ObjectLoader to save and load object data.
+   * @return the XML.ObjectLoader
+   */
+  public static XML.ObjectLoader getLoader() {
+    return new Loader();
+  }
+
+  static private class Loader extends org.opensourcephysics.display3d.core.ElementParticles.Loader {
+    @Override
+	public Object createObject(XMLControl control) {
+      return new ElementParticles();
+    }
+
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
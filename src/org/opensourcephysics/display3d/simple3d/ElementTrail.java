@@ -30,6 +30,8 @@ public class ElementTrail extends Element implements org.opensourcephysics.displ
   private TrailPoint[] points = null;
   protected ArrayList<TrailPoint> list = new ArrayList<TrailPoint>();
   private TrailPoint ghostPoint = new TrailPoint(Double.NaN, Double.NaN, Double.NaN, true);
+  private double[] flatCoordinates = new double[0]; // Flat buffers for the bulk projection
+  private double[] flatPixels = new double[0];
 
   // -------------------------------------
   // New configuration methods
@@ -241,15 +243,31 @@ public void getExtrema(double[] min, double[] max) {
   // -------------------------------------
   synchronized void transformAndProjectPoints() {
     for(int i = 0, n = points.length; i<n; i++) {
-      points[i].transformAndProject();
+      points[i].transform();
     }
-    setNeedToProject(false);
+    projectPoints();
     setElementChanged(false);
   }
 
+  /**
+   * Projects the (already transformed) points all at once
+   */
   synchronized void projectPoints() {
-    for(int i = 0, n = points.length; i<n; i++) {
-      points[i].transformAndProject();
+    int n = points.length;
+    if(flatCoordinates.length<3*n) {
+      int capacity = Math.max(3*n, 2*flatCoordinates.length);
+      flatCoordinates = new double[capacity];
+      flatPixels = new double[capacity];
+    }
+    for(int i = 0, j = 0; i<n; i++, j += 3) {
+      System.arraycopy(points[i].coordinates, 0, flatCoordinates, j, 3);
+    }
+    getDrawingPanel3D().project(flatCoordinates, n, flatPixels);
+    double depthFactor = getStyle().getDepthFactor();
+    for(int i = 0, j = 0; i<n; i++, j += 3) {
+      TrailPoint point = points[i];
+      System.arraycopy(flatPixels, j, point.pixel, 0, 3);
+      point.setDistance(point.pixel[2]*depthFactor);
     }
     setNeedToProject(false);
   }
@@ -378,11 +396,15 @@ public java.util.ArrayList<Dataset> getDatasets() {
       connected = _c;
     }
 
-    void transformAndProject() {
+    void transform() {
       coordinates[0] = xp;
       coordinates[1] = yp;
       coordinates[2] = zp;
       sizeAndToSpaceFrame(coordinates);
+    }
+
+    void transformAndProject() {
+      transform();
       getDrawingPanel3D().project(coordinates, pixel);
       super.setDistance(pixel[2]*getStyle().getDepthFactor());
     }
@@ -126,6 +126,15 @@ void setNeedToProject(boolean _need) {
     }
   }
 
+  // Overwrites its parent
+  @Override
+void setAppearanceChanged(boolean change) {
+    super.setAppearanceChanged(change);
+    for(Iterator<Element> it = elementList.iterator(); it.hasNext(); ) {
+      (it.next()).setAppearanceChanged(change);
+    }
+  }
+
   @Override
 public void getExtrema(double[] min, double[] max) {
     double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
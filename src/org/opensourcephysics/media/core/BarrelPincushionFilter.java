@@ -68,7 +68,8 @@ public class BarrelPincushionFilter extends Filter {
 	protected static double minScale = 0.5, maxScale = 2.0;
 
 	// instance fields
-	private double[] xOut, yOut, xIn, yIn; // pixel positions on input and output images
+	private double[] xOut, yOut; // output pixel positions
+	private RemapTable remap; // maps output pixels to input pixels
 	private double pixelsToCorner; // half image diagonal in pixels
 	private boolean isValidTransform = false, updatingDisplay = false, dimensionsChanged = false;
 
@@ -76,6 +77,7 @@ public class BarrelPincushionFilter extends Filter {
 	private int interpolation = 1; // neighborhood size for color interpolation
 	private double alpha = 0;
 	private double scaleFactor = 1;
+	private boolean isScaleSet = false; // true when set by the user, false to fit the image
 
 	// inspector and circle
 	private Inspector inspector;
@@ -117,12 +119,14 @@ public class BarrelPincushionFilter extends Filter {
 	public void setAlpha(double a) {
 		alpha = Math.max(minAlpha, Math.min(maxAlpha, a));
 		isValidTransform = false;
+		isScaleSet = false;
 		firePropertyChange(PROPERTY_FILTER_IMAGE, null, null); //$NON-NLS-1$
 	}
 
 	public void setScale(double scale) {
 		scaleFactor = scale;
 		isValidTransform = false;
+		isScaleSet = true;
 		firePropertyChange(PROPERTY_FILTER_IMAGE, null, null); //$NON-NLS-1$
 	}
 
@@ -192,16 +196,21 @@ public class BarrelPincushionFilter extends Filter {
 		
 		// if needed, map the output (corrected) pixel positions to input pixel
 		// positions
-		if (!isValidTransform || xIn == null || dimensionsChanged) {
-			xIn = new double[w * h];
-			yIn = new double[w * h];
+		if (!isValidTransform || remap == null || dimensionsChanged) {
+			double[] xIn = new double[w * h];
+			double[] yIn = new double[w * h];
 			transform(xOut, yOut, xIn, yIn);
+			remap = new RemapTable(w, h, interpolation == 2);
+			// scale about the image center
+			for (int i = 0; i < nPixelsIn; i++) {
+				double x = w / 2 + (xIn[i] - w / 2) * scaleFactor;
+				double y = h / 2 + (yIn[i] - h / 2) * scaleFactor;
+				remap.set(i, x, y);
+			}
 		}
 
-		// find output pixel color values by interpolating input pixel colors
-		for (int i = 0; i < nPixelsIn; i++) {
-			pixelsOut[i] = getColor(xIn[i], yIn[i], w, h, pixelsIn);
-		}
+		// find output pixel color values from the cached input pixel positions
+		remap.apply(pixelsIn, pixelsOut);
 		
 		dimensionsChanged = false;
 	}
@@ -219,8 +228,10 @@ public class BarrelPincushionFilter extends Filter {
 
 		double xCenter = w / 2.0, yCenter = h / 2.0;
 		
-		double str = getStretchFactor(0.9*xCenter);
-		scaleFactor = 1/str; // pig
+		if (!isScaleSet) {
+			double str = getStretchFactor(0.9*xCenter);
+			scaleFactor = 1/str; // pig
+		}
 		
 		int n = xSource.length;
 		for (int i = 0; i < n; i++) {
@@ -455,75 +466,6 @@ public class BarrelPincushionFilter extends Filter {
 	}
 
 	
-	/**
-	 * Get the interpolated color at a non-integer position (between pixels points).
-	 * 
-	 * @param x           the x-coordinate of the position
-	 * @param y           the y-coordinate of the position
-	 * @param w           the width of the image
-	 * @param h           the height of the image
-	 * @param pixelValues the color values of the pixels in the image
-	 */
-	private int getColor(double x, double y, int w, int h, int[] pixelValues) {
-		double dx = x-w/2;
-		double dy = y-h/2;
-		x = w/2 + dx * scaleFactor;
-		y = h/2 + dy * scaleFactor;
-//		x = w/2 + dx;
-//		y = h/2 + dy;
-		// get base pixel position
-		int col = (int) Math.floor(x);
-		int row = (int) Math.floor(y);
-		if (col < 0 || col >= w || row < 0 || row >= h) {
-			return 0; // black if not in image
-		}
-		if (col + 1 == w || row + 1 == h) {
-			return pixelValues[row * w + col];
-		}
-
-		double u = col == 0 ? x : x % col;
-		double v = row == 0 ? y : y % row;
-
-		if (interpolation == 2) {
-			// get 2x2 neighborhood pixel values
-			int[] values = new int[] { pixelValues[row * w + col], pixelValues[row * w + col + 1],
-					pixelValues[(row + 1) * w + col], pixelValues[(row + 1) * w + col + 1] };
-
-			int[] rgb = new int[4];
-			for (int j = 0; j < 4; j++) {
-				rgb[j] = (values[j] >> 16) & 0xff; // red
-			}
-			int r = bilinearInterpolation(u, v, rgb);
-			for (int j = 0; j < 4; j++) {
-				rgb[j] = (values[j] >> 8) & 0xff; // green
-			}
-			int g = bilinearInterpolation(u, v, rgb);
-			for (int j = 0; j < 4; j++) {
-				rgb[j] = (values[j]) & 0xff; // blue
-			}
-			int b = bilinearInterpolation(u, v, rgb);
-			return (r << 16) | (g << 8) | b;
-		}
-
-		// if not interpolating, return value of nearest neighbor
-		return u < 0.5 ? v < 0.5 ? pixelValues[row * w + col] : pixelValues[(row + 1) * w + col]
-				: v < 0.5 ? pixelValues[row * w + col + 1] : pixelValues[(row + 1) * w + col + 1];
-	}
-
-	/**
-	 * Returns a bilinear interpolated pixel color (int value) at a given point
-	 * relative to (0,0).
-	 * 
-	 * @param x      the x-position relative to 0,0 (0<=x<1)
-	 * @param x      the y-position relative to 0,0 (0<=y<1)
-	 * @param values array of pixels color values [value(0,0), value(0,1),
-	 *               value(1,0), value(1,1)]
-	 * @return the interpolated color value
-	 */
-	private int bilinearInterpolation(double x, double y, int[] values) {
-		return (int) ((1 - y) * ((1 - x) * values[0] + x * values[2]) + y * ((1 - x) * values[1] + x * values[3]));
-	}
-
 	/**
 	 * Inner Inspector class to control filter parameters
 	 */
@@ -615,7 +557,7 @@ public class BarrelPincushionFilter extends Filter {
 			alphaField.addActionListener(new ActionListener() {
 				@Override
 				public void actionPerformed(ActionEvent e) {
-					alpha = alphaField.getValue();
+					setAlpha(alphaField.getValue());
 					updateDisplay();
 					alphaField.selectAll();
 				}
@@ -629,7 +571,7 @@ public class BarrelPincushionFilter extends Filter {
 
 				@Override
 				public void focusLost(FocusEvent e) {
-					alpha = alphaField.getValue();
+					setAlpha(alphaField.getValue());
 					updateDisplay();
 				}
 
@@ -657,7 +599,7 @@ public class BarrelPincushionFilter extends Filter {
 			scaleField.addActionListener(new ActionListener() {
 				@Override
 				public void actionPerformed(ActionEvent e) {
-					scaleFactor = scaleField.getValue();
+					setScale(scaleField.getValue());
 					updateDisplay();
 					scaleField.selectAll();
 				}
@@ -671,7 +613,7 @@ public class BarrelPincushionFilter extends Filter {
 
 				@Override
 				public void focusLost(FocusEvent e) {
-					scaleFactor = scaleField.getValue();
+					setScale(scaleField.getValue());
 					updateDisplay();
 				}
 
@@ -319,9 +319,20 @@ public class BaselineFilter extends Filter {
 	protected void setOutputPixels() {
 		getPixelsIn();
 		getPixelsOut();
+		filterPixels(pixelsIn, pixelsOut, 0, nPixelsIn);
+	}
+
+	@Override
+	protected boolean isPointFilter() {
+		return true;
+	}
+
+	@Override
+	protected void filterPixels(int[] pixelsIn, int[] pixelsOut, int start, int end) {
 		if (baseline != null) {
+			int[] baselinePixels = this.baselinePixels;
 			int pixel, base, r, g, b;
-			for (int i = 0; i < nPixelsIn; i++) {
+			for (int i = start; i < end; i++) {
 				pixel = pixelsIn[i];
 				base = baselinePixels[i];
 				r = (pixel >> 16) & 0xff; // red
@@ -336,8 +347,8 @@ public class BaselineFilter extends Filter {
 				pixelsOut[i] = (r << 16) | (g << 8) | b;
 			}
 		}
-		else {
-			System.arraycopy(pixelsIn, 0, pixelsOut, 0, nPixelsIn);
+		else if (pixelsIn != pixelsOut) {
+			System.arraycopy(pixelsIn, start, pixelsOut, start, end - start);
 		}
 	}
 
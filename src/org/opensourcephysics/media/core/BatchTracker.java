@@ -0,0 +1,321 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+/*
+ * The org.opensourcephysics.media.core package defines the Open Source Physics
+ * media framework for working with video and other media.
+ *
+ * Copyright (c) 2024  Douglas Brown and Wolfgang Christian.
+ *
+ * This is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * For additional information and documentation on Open Source Physics,
+ * please see <http://www.opensourcephysics.org/>.
+ */
+package org.opensourcephysics.media.core;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.opensourcephysics.display.OSPRuntime;
+
+/**
+ * A class to autotrack one or more templates through a range of steps of a
+ * video clip. Each step frame is decoded only once and shared by all
+ * TemplateMatchers, whose searches run in parallel on the common ForkJoinPool
+ * while the next frame is being decoded. Results are passed to a Listener in
+ * step order on the calling thread.
+ *
+ * Each matcher has its own search rectangle, which follows its template: after
+ * every accepted match the rectangle is moved by the distance the template
+ * moved since its previous accepted match. A match is accepted if its peak
+ * height (see TemplateMatcher.getMatchWidthAndHeight) is at least the minimum
+ * peak height.
+ *
+ * Tracking sets the frame number of the clip's video, so it should be done on
+ * the thread that normally steps the video. The original frame number is
+ * restored when tracking ends.
+ *
+ * @version 1.0
+ */
+public class BatchTracker {
+
+	/**
+	 * A listener that receives the tracking results for each step.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called in step order when all matchers have searched a step frame.
+		 *
+		 * @param stepNumber  the step number
+		 * @param frameNumber the frame number
+		 * @param points      the match location for each matcher, or null if no
+		 *                    match was accepted
+		 * @param peaks       the {width, height} of each match peak
+		 */
+		void stepTracked(int stepNumber, int frameNumber, TPoint[] points, double[][] peaks);
+
+	}
+
+	// static constants
+	private static final double DEFAULT_MIN_PEAK_HEIGHT = 5;
+
+	// instance fields
+	private VideoClip clip;
+	private TemplateMatcher[] matchers;
+	private Rectangle[] searchRects;
+	private double minPeakHeight = DEFAULT_MIN_PEAK_HEIGHT;
+	private FrameBuffer[] frames = new FrameBuffer[2]; // double buffer
+	private volatile boolean cancelled;
+
+	/**
+	 * Constructs a BatchTracker.
+	 *
+	 * @param clip        the video clip to track
+	 * @param matchers    the template matchers
+	 * @param searchRects the initial search rectangle for each matcher
+	 */
+	public BatchTracker(VideoClip clip, TemplateMatcher[] matchers, Rectangle[] searchRects) {
+		if (matchers.length != searchRects.length)
+			throw new IllegalArgumentException("one search rectangle per matcher required"); //$NON-NLS-1$
+		this.clip = clip;
+		this.matchers = matchers;
+		this.searchRects = new Rectangle[searchRects.length];
+		for (int i = 0; i < searchRects.length; i++) {
+			this.searchRects[i] = new Rectangle(searchRects[i]);
+		}
+	}
+
+	/**
+	 * Sets the minimum peak height of an accepted match.
+	 *
+	 * @param height the minimum peak height
+	 */
+	public void setMinPeakHeight(double height) {
+		minPeakHeight = height;
+	}
+
+	/**
+	 * Gets the minimum peak height of an accepted match.
+	 *
+	 * @return the minimum peak height
+	 */
+	public double getMinPeakHeight() {
+		return minPeakHeight;
+	}
+
+	/**
+	 * Gets the current search rectangle of a matcher. This is initially the
+	 * rectangle passed to the constructor and follows the matcher's template
+	 * during tracking.
+	 *
+	 * @param i the matcher index
+	 * @return the search rectangle
+	 */
+	public Rectangle getSearchRect(int i) {
+		return new Rectangle(searchRects[i]);
+	}
+
+	/**
+	 * Cancels tracking. May be called from any thread. Tracking stops after the
+	 * step currently being searched.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Determines if tracking was cancelled.
+	 *
+	 * @return true if cancelled
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Tracks all matchers through a range of steps.
+	 *
+	 * @param startStep the first step number
+	 * @param endStep   the last step number
+	 * @param listener  the listener to receive the results (may be null)
+	 * @return the number of steps tracked
+	 */
+	public int track(int startStep, int endStep, Listener listener) {
+		cancelled = false;
+		Video video = clip.getVideo();
+		if (video == null)
+			return 0;
+		startStep = Math.max(0, startStep);
+		endStep = Math.min(clip.getStepCount() - 1, endStep);
+		int prevFrameNumber = video.getFrameNumber();
+		int n = matchers.length;
+		TPoint[] prevPoints = new TPoint[n];
+		List<Future<Object>> futures = new ArrayList<Future<Object>>(n);
+		for (int i = 0; i < n; i++) {
+			futures.add(null);
+		}
+		int count = 0;
+		try {
+			BufferedImage image = getFrameImage(video, startStep, 0);
+			for (int step = startStep; step <= endStep && !cancelled; step++) {
+				TPoint[] points = new TPoint[n];
+				double[][] peaks = new double[n][];
+				// search this frame in parallel
+				if (image != null) {
+					for (int i = 0; i < n; i++) {
+						Callable<Object> task = getSearchTask(i, image, points, peaks);
+						if (OSPRuntime.isJS) {
+							task.call();
+						} else {
+							futures.set(i, ForkJoinPool.commonPool().submit(task));
+						}
+					}
+				}
+				// decode the next frame while searching
+				BufferedImage next = (step < endStep ? getFrameImage(video, step + 1, count + 1) : null);
+				if (image != null) {
+					for (int i = 0; i < n; i++) {
+						Future<Object> future = futures.set(i, null);
+						if (future != null) {
+							future.get();
+						}
+						if (points[i] == null)
+							continue;
+						// move the search rect with the template
+						if (prevPoints[i] != null) {
+							searchRects[i].translate((int) Math.round(points[i].x - prevPoints[i].x),
+									(int) Math.round(points[i].y - prevPoints[i].y));
+						}
+						prevPoints[i] = points[i];
+					}
+				}
+				count++;
+				if (listener != null)
+					listener.stepTracked(step, clip.stepToFrame(step), points, peaks);
+				image = next;
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			// rethrow the matcher's own failure
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		} catch (RuntimeException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new RuntimeException(ex);
+		} finally {
+			for (Future<Object> future : futures) {
+				if (future != null)
+					future.cancel(false);
+			}
+			video.setFrameNumber(prevFrameNumber);
+			for (int i = 0; i < frames.length; i++) {
+				if (frames[i] != null)
+					frames[i].release();
+				frames[i] = null;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets a task that searches a frame with one matcher.
+	 *
+	 * @param i      the matcher index
+	 * @param image  the frame image
+	 * @param points array to receive the accepted match location
+	 * @param peaks  array to receive the match peak
+	 * @return the task
+	 */
+	private Callable<Object> getSearchTask(int i, BufferedImage image, TPoint[] points, double[][] peaks) {
+		return new Callable<Object>() {
+			@Override
+			public Object call() {
+				TemplateMatcher matcher = matchers[i];
+				// search a copy since the matcher trims the rectangle
+				TPoint p = matcher.getMatchLocation(image, new Rectangle(searchRects[i]), null);
+				peaks[i] = matcher.getMatchWidthAndHeight();
+				if (p != null && peaks[i][1] >= minPeakHeight)
+					points[i] = p;
+				return null;
+			}
+
+		};
+	}
+
+	/**
+	 * Decodes a step frame into one of the two frame buffers. The buffers
+	 * alternate so a frame can be decoded while the previous one is searched.
+	 *
+	 * @param video      the video
+	 * @param stepNumber the step number
+	 * @param k          the index used to choose a buffer
+	 * @return the frame image, or null if the frame is not in the video
+	 */
+	private BufferedImage getFrameImage(Video video, int stepNumber, int k) {
+		int frameNumber = clip.stepToFrame(stepNumber);
+		if (frameNumber >= video.getFrameCount())
+			return null;
+		video.setFrameNumber(frameNumber);
+		BufferedImage source = video.getImage();
+		if (source == null)
+			return null;
+		FrameBuffer frame = frames[k % 2] = FrameBuffer.acquire(frames[k % 2], source.getWidth(), source.getHeight());
+		frame.setImage(source);
+		return frame.getImage();
+	}
+
+}
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
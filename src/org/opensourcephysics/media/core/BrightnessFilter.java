@@ -221,8 +221,19 @@ public class BrightnessFilter extends Filter {
 	protected void setOutputPixels() {
 		getPixelsIn();
 		getPixelsOut();
+		filterPixels(pixelsIn, pixelsOut, 0, nPixelsIn);
+	}
+
+	@Override
+	protected boolean isPointFilter() {
+		return true;
+	}
+
+	@Override
+	protected void filterPixels(int[] pixelsIn, int[] pixelsOut, int start, int end) {
+		double slope = this.slope, offset1 = this.offset1, offset2 = this.offset2;
 		int pixel, r, g, b;
-		for (int i = 0; i < nPixelsIn; i++) {
+		for (int i = start; i < end; i++) {
 			pixel = pixelsIn[i];
 			r = (pixel >> 16) & 0xff; // red
 			r = Math.max((int) (slope * (r + offset1) + offset2), 0);
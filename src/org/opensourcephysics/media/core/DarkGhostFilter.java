@@ -49,6 +49,17 @@ public class DarkGhostFilter extends GhostFilter {
 		prefix = "Filter.DarkGhost";
 	}
 
+	/**
+	 * Gets the faded value of a previous input value. Dark ghosts fade to white.
+	 *
+	 * @param v the value
+	 * @return the faded value
+	 */
+	@Override
+	protected int getFadedValue(int v) {
+		return (int) (255 - (1 - fade) * (255 - v));
+	}
+
 	/**
 	 * Sets the output image pixels to a ghost of the input pixels.
 	 */
@@ -56,11 +67,12 @@ public class DarkGhostFilter extends GhostFilter {
 	protected void setOutputPixels() {
 		getPixelsIn();
 		getPixelsOut();
+		int[] faded = getFadeTable();
 		for (int i = 0; i < nPixelsIn; i++) {
 			int pixel = pixelsIn[i];
 			// value of current input pixel
 			int v = (((pixel >> 16) & 0xff) + ((pixel >> 8) & 0xff) + (pixel & 0xff)) / 3;
-			int ghost = (int) (255 - (1 - fade) * (255 - values[i])); // faded value of prev input
+			int ghost = faded[values[i]]; // faded value of prev input
 			if (ghost < v) {
 				pixelsOut[i] = (ghost << 16) | (ghost << 8) | ghost; // grey
 				values[i] = ghost;
@@ -497,6 +497,49 @@ public abstract class Filter extends OSPRuntime.Supported {
 
 	abstract protected void setOutputPixels();
 
+	/**
+	 * Returns true if this filter sets each output pixel from the input pixel at
+	 * the same index alone. A FilterStack fuses consecutive enabled point filters
+	 * into a single pass using filterPixels.
+	 *
+	 * @return true if a point filter
+	 */
+	protected boolean isPointFilter() {
+		return false;
+	}
+
+	/**
+	 * Filters the pixels from index start (inclusive) to end (exclusive). Point
+	 * filters override this. It may be called from several threads at once for
+	 * different ranges, and in and out may be the same array.
+	 *
+	 * @param in    the input pixels
+	 * @param out   the output pixels
+	 * @param start the first index
+	 * @param end   the last index + 1
+	 */
+	protected void filterPixels(int[] in, int[] out, int start, int end) {
+		if (in != out)
+			System.arraycopy(in, start, out, start, end - start);
+	}
+
+	/**
+	 * Prepares a point filter to filter pixels of an image of a given size without
+	 * creating its own input and output images.
+	 *
+	 * @param width  the image width
+	 * @param height the image height
+	 */
+	void initializePointFilter(int width, int height) {
+		if (width != w || height != h || width * height != nPixelsIn) {
+			source = null; // so getFilteredImage will reinitialize
+			w = width;
+			h = height;
+			nPixelsIn = w * h;
+			initializeSubclass();
+		}
+	}
+
 	public void addLocation(XMLControl control) {
 		if (getFrame() != null && inspectorDlg != null && inspectorDlg.isVisible()) {
 			int x = inspectorDlg.getLocation().x - frame.getLocation().x;
@@ -38,11 +38,22 @@ import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.opensourcephysics.display.OSPRuntime;
 
 
 
 /**
  * This is a Filter that contains and manages a series of Filters.
+ * 
+ * When fused, consecutive enabled point filters (see Filter.isPointFilter) are
+ * applied together in a single pass over the image, one cache-sized tile at a
+ * time, with bands of rows filtered in parallel. The images used by fused
+ * passes are reused from frame to frame.
  *
  * @author Douglas Brown
  * @version 1.0
@@ -52,6 +63,14 @@ public class FilterStack extends Filter implements PropertyChangeListener {
 	private ArrayList<Filter> filters = new ArrayList<Filter>();
 	private Filter postFilter;
 	private int indexRemoved = -1;
+	private boolean fused = !OSPRuntime.isJS;
+	private ArrayList<FrameBuffer> fusedImages = new ArrayList<FrameBuffer>(); // output of each fused pass
+	private FrameBuffer fusedInput; // TYPE_INT_RGB copy of a source of another type
+
+	// pixels per tile, small enough for all filters in a fused pass to find the tile in cache
+	private static final int TILE_PIXELS = 8192;
+	// minimum rows per band when filtering in parallel
+	private static final int MIN_ROWS_PER_BAND = 32;
 
 	/**
 	 * Constructs a FilterStack object.
@@ -179,6 +198,8 @@ public class FilterStack extends Filter implements PropertyChangeListener {
 	@Override
 	public void dispose() {
 		clear();
+		fusedImages.clear();
+		fusedInput = null;
 		super.dispose();
 	}
 	/**
@@ -231,16 +252,128 @@ public class FilterStack extends Filter implements PropertyChangeListener {
 			return sourceImage;
 		}
 		
+		ArrayList<Filter> pointFilters = new ArrayList<Filter>();
+		int pass = 0;
 		for (int i = 0, n = filters.size(); i <= n; i++) {
 			Filter filter = (i == n ? postFilter : filters.get(i));
-			if (filter != null && filter.isEnabled())
-				sourceImage = filter.getFilteredImage(sourceImage);
+			if (filter == null || !filter.isEnabled())
+				continue;
+			if (fused && filter.isPointFilter()) {
+				pointFilters.add(filter);
+				continue;
+			}
+			if (!pointFilters.isEmpty()) {
+				sourceImage = getFusedImage(pointFilters, sourceImage, pass++);
+				pointFilters.clear();
+			}
+			sourceImage = filter.getFilteredImage(sourceImage);
+		}
+		if (!pointFilters.isEmpty()) {
+			sourceImage = getFusedImage(pointFilters, sourceImage, pass++);
 		}
-		
-		
 		return sourceImage;
 	}
 
+	/**
+	 * Sets the fused property. When fused, consecutive point filters are applied in
+	 * a single multithreaded pass.
+	 *
+	 * @param fuse true to fuse point filters
+	 */
+	public void setFused(boolean fuse) {
+		if (fused == fuse)
+			return;
+		fused = fuse;
+		if (!fuse) {
+			fusedImages.clear();
+			fusedInput = null;
+		}
+		firePropertyChange(PROPERTY_FILTER_IMAGE, null, null); // $NON-NLS-1$
+	}
+
+	/**
+	 * Gets the fused property.
+	 *
+	 * @return true if point filters are fused
+	 */
+	public boolean isFused() {
+		return fused;
+	}
+
+	/**
+	 * Applies a series of point filters to an image in a single pass.
+	 *
+	 * @param pointFilters the point filters
+	 * @param image        the image to filter
+	 * @param pass         the index of this pass, used to reuse its output image
+	 * @return the filtered image
+	 */
+	private BufferedImage getFusedImage(ArrayList<Filter> pointFilters, BufferedImage image, int pass) {
+		int w = image.getWidth();
+		int h = image.getHeight();
+		FrameBuffer input = FrameBuffer.wrap(image);
+		if (input == null) {
+			input = fusedInput = FrameBuffer.acquire(fusedInput, w, h);
+			input.setImage(image);
+		}
+		int[] in = input.getPixels();
+		while (fusedImages.size() <= pass) {
+			fusedImages.add(null);
+		}
+		FrameBuffer output = fusedImages.get(pass);
+		if (output == null || output.getWidth() != w || output.getHeight() != h) {
+			output = new FrameBuffer(w, h);
+			fusedImages.set(pass, output);
+		}
+		int[] out = output.getPixels();
+		Filter[] run = pointFilters.toArray(new Filter[pointFilters.size()]);
+		for (int i = 0; i < run.length; i++) {
+			run[i].initializePointFilter(w, h);
+		}
+		int bands = Math.min(Runtime.getRuntime().availableProcessors(), h / MIN_ROWS_PER_BAND);
+		if (OSPRuntime.isJS || bands <= 1) {
+			filterRows(run, in, out, 0, w * h);
+			return output.getImage();
+		}
+		ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (int i = 0; i < bands; i++) {
+			final int start = (i * h / bands) * w, end = ((i + 1) * h / bands) * w;
+			final int[] pixelsIn = in;
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() {
+					filterRows(run, pixelsIn, out, start, end);
+					return null;
+				}
+
+			});
+		}
+		try {
+			for (Future<Object> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			throw new RuntimeException(ex.getCause());
+		}
+		return output.getImage();
+	}
+
+	/**
+	 * Applies point filters to a range of pixels one tile at a time. The first
+	 * filter reads the input and the rest work in place on the output.
+	 */
+	private static void filterRows(Filter[] run, int[] in, int[] out, int start, int end) {
+		for (int tile = start; tile < end; tile += TILE_PIXELS) {
+			int tileEnd = Math.min(tile + TILE_PIXELS, end);
+			run[0].filterPixels(in, out, tile, tileEnd);
+			for (int i = 1; i < run.length; i++) {
+				run[i].filterPixels(out, out, tile, tileEnd);
+			}
+		}
+	}
+
 	@Override
 	protected void setOutputPixels() {
 		// n/a
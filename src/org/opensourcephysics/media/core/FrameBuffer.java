@@ -0,0 +1,258 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+/*
+ * The org.opensourcephysics.media.core package defines the Open Source Physics
+ * media framework for working with video and other media.
+ *
+ * Copyright (c) 2024  Douglas Brown and Wolfgang Christian.
+ *
+ * This is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * For additional information and documentation on Open Source Physics,
+ * please see <http://www.opensourcephysics.org/>.
+ */
+package org.opensourcephysics.media.core;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * A TYPE_INT_RGB frame image whose pixel array is accessed directly. Frame
+ * buffers of a given size can be acquired from and released to a small shared
+ * pool so per-frame work does not allocate images.
+ *
+ * The static methods get the pixel array of a packed int image and copy
+ * TYPE_INT_RGB images without drawing them.
+ *
+ * @version 1.0
+ */
+public class FrameBuffer {
+
+	// maximum number of released buffers kept in the pool
+	private static final int MAX_POOLED = 8;
+
+	private static final ArrayDeque<FrameBuffer> pool = new ArrayDeque<FrameBuffer>();
+
+	private final BufferedImage image;
+	private final int[] pixels;
+
+	/**
+	 * Constructs a FrameBuffer with a new image.
+	 *
+	 * @param w the width
+	 * @param h the height
+	 */
+	public FrameBuffer(int w, int h) {
+		image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+		pixels = getPixels(image);
+	}
+
+	/**
+	 * Constructs a FrameBuffer that shares the pixels of an image.
+	 */
+	private FrameBuffer(BufferedImage image, int[] pixels) {
+		this.image = image;
+		this.pixels = pixels;
+	}
+
+	/**
+	 * Gets a frame buffer from the pool, or a new one if none of the right size
+	 * is pooled. The contents are undefined.
+	 *
+	 * @param w the width
+	 * @param h the height
+	 * @return the frame buffer
+	 */
+	public static FrameBuffer acquire(int w, int h) {
+		synchronized (pool) {
+			for (Iterator<FrameBuffer> it = pool.iterator(); it.hasNext();) {
+				FrameBuffer buffer = it.next();
+				if (buffer.getWidth() == w && buffer.getHeight() == h) {
+					it.remove();
+					return buffer;
+				}
+			}
+		}
+		return new FrameBuffer(w, h);
+	}
+
+	/**
+	 * Gets a frame buffer of a given size, reusing a current one if it fits.
+	 * A current buffer that does not fit is released.
+	 *
+	 * @param buffer the current buffer (may be null)
+	 * @param w      the width
+	 * @param h      the height
+	 * @return the buffer or one acquired from the pool
+	 */
+	public static FrameBuffer acquire(FrameBuffer buffer, int w, int h) {
+		if (buffer != null) {
+			if (buffer.getWidth() == w && buffer.getHeight() == h)
+				return buffer;
+			buffer.release();
+		}
+		return acquire(w, h);
+	}
+
+	/**
+	 * Wraps an image as a frame buffer without copying.
+	 *
+	 * @param image the image
+	 * @return the frame buffer, or null if the image is not a TYPE_INT_RGB image
+	 *         with its own pixel array
+	 */
+	public static FrameBuffer wrap(BufferedImage image) {
+		int[] pixels = (image.getType() == BufferedImage.TYPE_INT_RGB ? getPixels(image) : null);
+		return (pixels == null ? null : new FrameBuffer(image, pixels));
+	}
+
+	/**
+	 * Returns this buffer to the pool. It must not be used afterwards.
+	 */
+	public void release() {
+		synchronized (pool) {
+			if (pool.size() >= MAX_POOLED)
+				pool.removeFirst();
+			pool.addLast(this);
+		}
+	}
+
+	/**
+	 * Gets the image.
+	 *
+	 * @return the TYPE_INT_RGB image
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * Gets the pixel array of the image. Changes are seen by the image.
+	 *
+	 * @return the pixels
+	 */
+	public int[] getPixels() {
+		return pixels;
+	}
+
+	public int getWidth() {
+		return image.getWidth();
+	}
+
+	public int getHeight() {
+		return image.getHeight();
+	}
+
+	/**
+	 * Copies an image into this buffer. See copy(Image, BufferedImage).
+	 *
+	 * @param source the image to copy
+	 */
+	public void setImage(Image source) {
+		copy(source, image);
+	}
+
+	/**
+	 * Gets the pixel array of a TYPE_INT_RGB or TYPE_INT_ARGB image that is not a
+	 * subimage.
+	 *
+	 * @param image the image
+	 * @return the pixels, or null if not available
+	 */
+	public static int[] getPixels(BufferedImage image) {
+		int type = image.getType();
+		if (type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB)
+			return null;
+		WritableRaster raster = image.getRaster();
+		DataBuffer buf = raster.getDataBuffer();
+		if (!(buf instanceof DataBufferInt) || buf.getSize() != image.getWidth() * image.getHeight()
+				|| raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0)
+			return null;
+		return ((DataBufferInt) buf).getData();
+	}
+
+	/**
+	 * Copies a source image into a destination image. A TYPE_INT_RGB source
+	 * (including a subimage) of the same size as a TYPE_INT_RGB destination is
+	 * copied directly. Anything else is drawn on the destination after clearing
+	 * it, so the result is the same as drawing on a new image.
+	 *
+	 * @param source the image to copy
+	 * @param dest   the destination image
+	 */
+	public static void copy(Image source, BufferedImage dest) {
+		if (source instanceof BufferedImage) {
+			BufferedImage src = (BufferedImage) source;
+			int w = dest.getWidth(), h = dest.getHeight();
+			if (src.getWidth() == w && src.getHeight() == h && src.getType() == BufferedImage.TYPE_INT_RGB
+					&& dest.getType() == BufferedImage.TYPE_INT_RGB) {
+				int[] in = getPixels(src);
+				int[] out = getPixels(dest);
+				if (out != null) {
+					if (in != null) {
+						System.arraycopy(in, 0, out, 0, out.length);
+					} else {
+						// subimage
+						src.getRaster().getDataElements(0, 0, w, h, out);
+					}
+					return;
+				}
+			}
+		}
+		Graphics2D g = dest.createGraphics();
+		// pooled buffers hold an earlier frame
+		g.setBackground(new Color(0, 0, 0, 0));
+		g.clearRect(0, 0, dest.getWidth(), dest.getHeight());
+		g.drawImage(source, 0, 0, null);
+		g.dispose();
+	}
+
+}
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
@@ -0,0 +1,440 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+/*
+ * The org.opensourcephysics.media.core package defines the Open Source Physics
+ * media framework for working with video and other media.
+ *
+ * Copyright (c) 2024  Douglas Brown and Wolfgang Christian.
+ *
+ * This is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * For additional information and documentation on Open Source Physics,
+ * please see <http://www.opensourcephysics.org/>.
+ */
+package org.opensourcephysics.media.core;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.opensourcephysics.display.OSPRuntime;
+import org.opensourcephysics.tools.ResourceLoader;
+
+/**
+ * A least-recently-used cache of decoded video frames bounded by the memory
+ * they use, with a background thread that reads ahead of the current frame.
+ * Frames are keyed by their absolute paths, so a single shared cache can serve
+ * all file-based videos.
+ *
+ * Each owner (typically a video) has at most one read-ahead request at a time.
+ * A new request replaces the previous one, so stepping or seeking never waits
+ * for frames that are no longer wanted.
+ *
+ * In JavaScript no threads are used and frames are not cached here, since
+ * ResourceLoader already caches resources there.
+ *
+ * @version 1.0
+ */
+public class FrameCache {
+
+	/** default maximum number of bytes used by cached frames */
+	public static final long DEFAULT_MAX_BYTES = Math.min(256L << 20, Runtime.getRuntime().maxMemory() / 4);
+
+	/** default number of frames to read ahead */
+	public static final int DEFAULT_READ_AHEAD = 8;
+
+	private static FrameCache shared;
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(64, 0.75f, true);
+	private final LinkedHashMap<Object, ArrayDeque<String>> requests = new LinkedHashMap<Object, ArrayDeque<String>>();
+	private ExecutorService executor;
+	private boolean draining;
+	private String loadingPath;
+	private long maxBytes = DEFAULT_MAX_BYTES;
+	private long bytes;
+	private int readAhead = DEFAULT_READ_AHEAD;
+	private long hits, misses, readAheadLoads, evictions;
+
+	/**
+	 * Gets the cache shared by all videos.
+	 *
+	 * @return the shared cache
+	 */
+	public static synchronized FrameCache getShared() {
+		if (shared == null)
+			shared = new FrameCache();
+		return shared;
+	}
+
+	/**
+	 * Gets the image at a path, loading and caching it if needed. If the image is
+	 * being read ahead, this waits for that load rather than repeating it.
+	 *
+	 * @param path the absolute path
+	 * @return the image, or null if not found
+	 */
+	public Image get(String path) {
+		if (OSPRuntime.isJS)
+			return ResourceLoader.getVideoImage(path);
+		synchronized (this) {
+			while (path.equals(loadingPath)) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			Entry entry = entries.get(path);
+			if (entry != null) {
+				hits++;
+				return entry.image;
+			}
+			misses++;
+		}
+		Image image = load(path);
+		if (image instanceof BufferedImage) {
+			put(path, (BufferedImage) image);
+		}
+		return image;
+	}
+
+	/**
+	 * Gets a cached image without loading it.
+	 *
+	 * @param path the absolute path
+	 * @return the image, or null if not cached
+	 */
+	public synchronized BufferedImage getIfCached(String path) {
+		Entry entry = entries.get(path);
+		return (entry == null ? null : entry.image);
+	}
+
+	/**
+	 * Determines whether an image is cached.
+	 *
+	 * @param path the absolute path
+	 * @return true if cached
+	 */
+	public synchronized boolean contains(String path) {
+		return entries.containsKey(path);
+	}
+
+	/**
+	 * Requests that images be loaded in the background, in order, replacing any
+	 * earlier request by the same owner. Images that are already cached are
+	 * skipped.
+	 *
+	 * @param owner the requesting object
+	 * @param paths the absolute paths in the order they will be needed
+	 */
+	public synchronized void readAhead(Object owner, String[] paths) {
+		if (OSPRuntime.isJS || readAhead <= 0)
+			return;
+		ArrayDeque<String> queue = new ArrayDeque<String>();
+		for (int i = 0; i < paths.length; i++) {
+			if (paths[i] != null && !entries.containsKey(paths[i]))
+				queue.add(paths[i]);
+		}
+		requests.remove(owner);
+		if (queue.isEmpty())
+			return;
+		requests.put(owner, queue);
+		if (!draining) {
+			draining = true;
+			getExecutor().execute(() -> drain());
+		}
+	}
+
+	/**
+	 * Cancels the read-ahead request of an owner, if any.
+	 *
+	 * @param owner the requesting object
+	 */
+	public synchronized void cancel(Object owner) {
+		requests.remove(owner);
+	}
+
+	/**
+	 * Removes an image from the cache.
+	 *
+	 * @param path the absolute path
+	 */
+	public synchronized void remove(String path) {
+		Entry entry = entries.remove(path);
+		if (entry != null)
+			bytes -= entry.bytes;
+	}
+
+	/**
+	 * Removes all images and read-ahead requests.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		requests.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Sets the maximum number of bytes used by cached images, evicting images if
+	 * needed.
+	 *
+	 * @param max the maximum number of bytes
+	 */
+	public synchronized void setMaxBytes(long max) {
+		maxBytes = Math.max(0, max);
+		trim();
+	}
+
+	/**
+	 * Gets the maximum number of bytes used by cached images.
+	 *
+	 * @return the maximum number of bytes
+	 */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Gets the number of bytes used by cached images.
+	 *
+	 * @return the number of bytes
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Gets the number of cached images.
+	 *
+	 * @return the number of images
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Sets the number of frames to read ahead. Zero disables reading ahead.
+	 *
+	 * @param n the number of frames
+	 */
+	public synchronized void setReadAhead(int n) {
+		readAhead = Math.max(0, n);
+		if (readAhead == 0)
+			requests.clear();
+	}
+
+	/**
+	 * Gets the number of frames to read ahead.
+	 *
+	 * @return the number of frames
+	 */
+	public synchronized int getReadAhead() {
+		return readAhead;
+	}
+
+	/**
+	 * Gets the number of frames to read ahead for images of a given size, so that
+	 * the frames read ahead use no more than half the cache.
+	 *
+	 * @param image a typical image, may be null
+	 * @return the number of frames
+	 */
+	public synchronized int getReadAhead(Image image) {
+		if (!(image instanceof BufferedImage))
+			return readAhead;
+		long n = maxBytes / 2 / Math.max(1, getBytes((BufferedImage) image));
+		return (int) Math.min(readAhead, n);
+	}
+
+	/**
+	 * Gets the hit, miss, read-ahead load and eviction counts.
+	 *
+	 * @return {hits, misses, readAheadLoads, evictions}
+	 */
+	public synchronized long[] getCounts() {
+		return new long[] { hits, misses, readAheadLoads, evictions };
+	}
+
+	/**
+	 * Resets the hit, miss, read-ahead load and eviction counts.
+	 */
+	public synchronized void resetCounts() {
+		hits = misses = readAheadLoads = evictions = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "FrameCache[" + entries.size() + " frames, " + (bytes >> 10) + "/" + (maxBytes >> 10) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ " KB, hits " + hits + ", misses " + misses + ", read ahead " + readAheadLoads + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	// _______________________ private methods ____________________________
+
+	private synchronized void put(String path, BufferedImage image) {
+		Entry entry = new Entry(image);
+		if (entry.bytes > maxBytes)
+			return;
+		Entry prev = entries.put(path, entry);
+		if (prev != null)
+			bytes -= prev.bytes;
+		bytes += entry.bytes;
+		trim();
+	}
+
+	private void trim() {
+		Iterator<Entry> it = entries.values().iterator();
+		while (bytes > maxBytes && it.hasNext()) {
+			bytes -= it.next().bytes;
+			it.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Loads the images of the pending read-ahead requests, taking one path at a
+	 * time from each owner in turn.
+	 */
+	private void drain() {
+		while (true) {
+			String path;
+			synchronized (this) {
+				path = null;
+				Iterator<ArrayDeque<String>> it = requests.values().iterator();
+				while (path == null && it.hasNext()) {
+					ArrayDeque<String> queue = it.next();
+					path = queue.poll();
+					if (queue.isEmpty())
+						it.remove();
+					if (path != null && entries.containsKey(path))
+						path = null;
+				}
+				if (path == null) {
+					draining = false;
+					return;
+				}
+				loadingPath = path;
+			}
+			Image image = null;
+			try {
+				image = load(path);
+			} finally {
+				synchronized (this) {
+					if (image instanceof BufferedImage) {
+						put(path, (BufferedImage) image);
+						readAheadLoads++;
+					}
+					loadingPath = null;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), (r) -> {
+						Thread t = new Thread(r, "FrameCache"); //$NON-NLS-1$
+						t.setDaemon(true);
+						t.setPriority(Thread.NORM_PRIORITY - 1);
+						return t;
+					});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		return executor;
+	}
+
+	/**
+	 * Loads an image. Local files are decoded directly with ImageIO so they do not
+	 * accumulate in the AWT toolkit image cache; anything else is loaded by the
+	 * ResourceLoader.
+	 *
+	 * @param path the absolute path
+	 * @return the image, or null if not found
+	 */
+	private static Image load(String path) {
+		File file = new File(path);
+		if (file.isFile()) {
+			try {
+				BufferedImage image = ImageIO.read(file);
+				if (image != null)
+					return image;
+			} catch (IOException | RuntimeException e) {
+				// fall through to ResourceLoader
+			}
+		}
+		return ResourceLoader.getVideoImage(path);
+	}
+
+	private static long getBytes(BufferedImage image) {
+		DataBuffer buf = image.getRaster().getDataBuffer();
+		return (long) buf.getSize() * buf.getNumBanks() * DataBuffer.getDataTypeSize(buf.getDataType()) / 8;
+	}
+
+	private static class Entry {
+
+		BufferedImage image;
+		long bytes;
+
+		Entry(BufferedImage image) {
+			this.image = image;
+			bytes = getBytes(image);
+		}
+	}
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
@@ -67,6 +67,8 @@ public class GhostFilter extends Filter {
 	protected NumberField fadeField;
 	protected JSlider fadeSlider;
 	protected int[] values;
+	protected int[] fadeTable = new int[256]; // faded value of each value
+	private double tableFade = Double.NaN; // fade of fadeTable
 
 	String prefix = "Filter.Ghost";
 
@@ -171,6 +173,32 @@ public class GhostFilter extends Filter {
 		}
 	}
 
+	/**
+	 * Gets a table of the faded value of each value 0-255 for the current fade,
+	 * so pixels are faded without floating point arithmetic.
+	 *
+	 * @return the fade table
+	 */
+	protected int[] getFadeTable() {
+		if (tableFade != fade) {
+			tableFade = fade;
+			for (int v = 0; v < 256; v++) {
+				fadeTable[v] = getFadedValue(v);
+			}
+		}
+		return fadeTable;
+	}
+
+	/**
+	 * Gets the faded value of a previous input value.
+	 *
+	 * @param v the value
+	 * @return the faded value
+	 */
+	protected int getFadedValue(int v) {
+		return (int) ((1 - fade) * v);
+	}
+
 	/**
 	 * Sets the output image pixels to a ghost of the input pixels.
 	 */
@@ -178,11 +206,12 @@ public class GhostFilter extends Filter {
 	protected void setOutputPixels() {
 		getPixelsIn();
 		getPixelsOut();
+		int[] faded = getFadeTable();
 		for (int i = 0; i < nPixelsIn; i++) {
 			int pixel = pixelsIn[i];
 			// value of current input pixel
 			int v = (((pixel >> 16) & 0xff) + ((pixel >> 8) & 0xff) + (pixel & 0xff)) / 3;
-			int ghost = (int) ((1 - fade) * values[i]); // faded value of prev input
+			int ghost = faded[values[i]]; // faded value of prev input
 			if (ghost > v) {
 				pixelsOut[i] = (ghost << 16) | (ghost << 8) | ghost; // grey
 				values[i] = ghost;
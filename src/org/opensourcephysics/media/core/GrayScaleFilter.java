@@ -158,7 +158,17 @@ public class GrayScaleFilter extends Filter {
 	protected void setOutputPixels() {
 		getPixelsIn();
 		getPixelsOut();
-		for (int i = 0; i < nPixelsIn; i++) {
+		filterPixels(pixelsIn, pixelsOut, 0, nPixelsIn);
+	}
+
+	@Override
+	protected boolean isPointFilter() {
+		return true;
+	}
+
+	@Override
+	protected void filterPixels(int[] pixelsIn, int[] pixelsOut, int start, int end) {
+		for (int i = start; i < end; i++) {
 			int pixel = pixelsIn[i];
 			int v = getGray(((pixel >> 16) & 0xff), ((pixel >> 8) & 0xff), (pixel & 0xff));
 			pixelsOut[i] = (v << 16) | (v << 8) | v; // grey
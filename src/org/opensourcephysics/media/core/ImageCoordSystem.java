@@ -73,6 +73,8 @@ public class ImageCoordSystem extends OSPRuntime.Supported {
 	private DoubleArray scaleX, scaleY;
 	private DoubleArray originX, originY;
 	private DoubleArray cosine, sine;
+	// transform coefficients m00, m10, m01, m11, m02, m12 for each frame
+	private double[] toImageMatrix, toWorldMatrix;
 	TreeSet<Integer> keyFrames = new TreeSet<Integer>();
 	protected boolean firePropChange = true;
 	private boolean isAdjusting = false;
@@ -104,6 +106,8 @@ public class ImageCoordSystem extends OSPRuntime.Supported {
 		originY = new DoubleArray(length, 0);
 		cosine = new DoubleArray(length, 1);
 		sine = new DoubleArray(length, 0);
+		toImageMatrix = new double[6 * Math.max(length, 1)];
+		toWorldMatrix = new double[6 * Math.max(length, 1)];
 		updateAllTransforms();
 	}
 
@@ -799,6 +803,8 @@ public class ImageCoordSystem extends OSPRuntime.Supported {
 		originY.setLength(length);
 		cosine.setLength(length);
 		sine.setLength(length);
+		toImageMatrix = resizeMatrix(toImageMatrix, length);
+		toWorldMatrix = resizeMatrix(toWorldMatrix, length);
 	}
 
 	/**
@@ -954,6 +960,88 @@ public class ImageCoordSystem extends OSPRuntime.Supported {
 		return point.getY();
 	}
 
+	/**
+	 * Converts image positions to world positions for consecutive frames. Point i
+	 * is converted with the transform for frame start + i. The destination arrays
+	 * may be the same as the source arrays.
+	 *
+	 * @param start  the frame number of the first point
+	 * @param imageX the image x positions
+	 * @param imageY the image y positions
+	 * @param worldX the array to fill with world x positions
+	 * @param worldY the array to fill with world y positions
+	 * @param count  the number of points to convert
+	 */
+	public void imageToWorld(int start, double[] imageX, double[] imageY, double[] worldX, double[] worldY,
+			int count) {
+		if (start + count > length) {
+			setLength(start + count);
+		}
+		transform(toWorldMatrix, start, null, imageX, imageY, worldX, worldY, count);
+	}
+
+	/**
+	 * Converts image positions to world positions. Point i is converted with the
+	 * transform for frame frames[i]. The destination arrays may be the same as the
+	 * source arrays.
+	 *
+	 * @param frames the frame number of each point
+	 * @param imageX the image x positions
+	 * @param imageY the image y positions
+	 * @param worldX the array to fill with world x positions
+	 * @param worldY the array to fill with world y positions
+	 * @param count  the number of points to convert
+	 */
+	public void imageToWorld(int[] frames, double[] imageX, double[] imageY, double[] worldX, double[] worldY,
+			int count) {
+		int max = maxFrame(frames, count);
+		if (max >= length) {
+			setLength(max + 1);
+		}
+		transform(toWorldMatrix, 0, frames, imageX, imageY, worldX, worldY, count);
+	}
+
+	/**
+	 * Converts world positions to image positions for consecutive frames. Point i
+	 * is converted with the transform for frame start + i. The destination arrays
+	 * may be the same as the source arrays.
+	 *
+	 * @param start  the frame number of the first point
+	 * @param worldX the world x positions
+	 * @param worldY the world y positions
+	 * @param imageX the array to fill with image x positions
+	 * @param imageY the array to fill with image y positions
+	 * @param count  the number of points to convert
+	 */
+	public void worldToImage(int start, double[] worldX, double[] worldY, double[] imageX, double[] imageY,
+			int count) {
+		if (start + count > length) {
+			setLength(start + count);
+		}
+		transform(toImageMatrix, start, null, worldX, worldY, imageX, imageY, count);
+	}
+
+	/**
+	 * Converts world positions to image positions. Point i is converted with the
+	 * transform for frame frames[i]. The destination arrays may be the same as the
+	 * source arrays.
+	 *
+	 * @param frames the frame number of each point
+	 * @param worldX the world x positions
+	 * @param worldY the world y positions
+	 * @param imageX the array to fill with image x positions
+	 * @param imageY the array to fill with image y positions
+	 * @param count  the number of points to convert
+	 */
+	public void worldToImage(int[] frames, double[] worldX, double[] worldY, double[] imageX, double[] imageY,
+			int count) {
+		int max = maxFrame(frames, count);
+		if (max >= length) {
+			setLength(max + 1);
+		}
+		transform(toImageMatrix, 0, frames, worldX, worldY, imageX, imageY, count);
+	}
+
 	/**
 	 * Gets a copy of the affine transform used to convert from worldspace to
 	 * imagespace for the specified frame number.
@@ -1144,7 +1232,15 @@ public class ImageCoordSystem extends OSPRuntime.Supported {
 		double sin = sine.get(n);
 		at.setTransform(sx * cos, -sy * sin, -sx * sin, -sy * cos, tx, ty);
 		// toWorld is inverse of toImage
-		toWorld.get(n).setTransform(at.createInverse());
+		AffineTransform inverse = toWorld.get(n);
+		inverse.setTransform(at.createInverse());
+		// copy coefficients for bulk transforms
+		if (6 * n + 6 > toImageMatrix.length) {
+			toImageMatrix = resizeMatrix(toImageMatrix, n + 1);
+			toWorldMatrix = resizeMatrix(toWorldMatrix, n + 1);
+		}
+		setMatrix(toImageMatrix, n, at);
+		setMatrix(toWorldMatrix, n, inverse);
 		// fire property change
 		if (firePropChange) {
 			firePropertyChange(PROPERTY_COORDS_TRANSFORM, null, Integer.valueOf(n)); //$NON-NLS-1$
@@ -1172,6 +1268,83 @@ public class ImageCoordSystem extends OSPRuntime.Supported {
 		}
 	}
 
+	/**
+	 * Applies per-frame transform coefficients to arrays of points. Frames beyond
+	 * the end of the matrix use the last frame, as TransformArray does.
+	 *
+	 * @param matrix the transform coefficients, six per frame
+	 * @param start  the frame number of the first point if frames is null
+	 * @param frames the frame number of each point, may be null
+	 * @param srcX   the source x positions
+	 * @param srcY   the source y positions
+	 * @param dstX   the destination x positions
+	 * @param dstY   the destination y positions
+	 * @param count  the number of points
+	 */
+	private static void transform(double[] matrix, int start, int[] frames, double[] srcX, double[] srcY,
+			double[] dstX, double[] dstY, int count) {
+		int last = matrix.length / 6 - 1;
+		for (int i = 0; i < count; i++) {
+			int k = 6 * Math.min(frames == null ? start + i : frames[i], last);
+			double x = srcX[i], y = srcY[i];
+			dstX[i] = matrix[k] * x + matrix[k + 2] * y + matrix[k + 4];
+			dstY[i] = matrix[k + 1] * x + matrix[k + 3] * y + matrix[k + 5];
+		}
+	}
+
+	/**
+	 * Gets the largest frame number in an array.
+	 *
+	 * @param frames the frame numbers
+	 * @param count  the number of frame numbers to check
+	 * @return the largest frame number
+	 */
+	private static int maxFrame(int[] frames, int count) {
+		int max = 0;
+		for (int i = 0; i < count; i++) {
+			max = Math.max(max, frames[i]);
+		}
+		return max;
+	}
+
+	/**
+	 * Copies the coefficients of a transform into a matrix array.
+	 *
+	 * @param matrix the matrix array
+	 * @param n      the frame number
+	 * @param at     the transform
+	 */
+	private static void setMatrix(double[] matrix, int n, AffineTransform at) {
+		int k = 6 * n;
+		matrix[k] = at.getScaleX();
+		matrix[k + 1] = at.getShearY();
+		matrix[k + 2] = at.getShearX();
+		matrix[k + 3] = at.getScaleY();
+		matrix[k + 4] = at.getTranslateX();
+		matrix[k + 5] = at.getTranslateY();
+	}
+
+	/**
+	 * Resizes a matrix array, filling new frames with copies of the last frame.
+	 *
+	 * @param matrix the matrix array
+	 * @param count  the new number of frames
+	 * @return the resized array
+	 */
+	private static double[] resizeMatrix(double[] matrix, int count) {
+		count = Math.max(count, 1);
+		int prev = matrix.length / 6;
+		if (count == prev) {
+			return matrix;
+		}
+		double[] newMatrix = new double[6 * count];
+		System.arraycopy(matrix, 0, newMatrix, 0, 6 * Math.min(count, prev));
+		for (int n = prev; n < count; n++) {
+			System.arraycopy(matrix, 6 * (prev - 1), newMatrix, 6 * n, 6);
+		}
+		return newMatrix;
+	}
+
 	/**
 	 * Inner class containing the coords data for a single frame number.
 	 */
@@ -72,6 +72,10 @@ public class ImageVideo extends VideoAdapter {
 	protected boolean readOnly; // true if images are only loaded from files as needed
 	protected double deltaT = 100; // frame duration in milliseconds
 	protected Dimension rgbSize = new Dimension();
+	private int prevFrameNumber = -1; // last frame shown, for read-ahead direction
+	private int readStep = 1; // frames between read-ahead frames
+	private int prevChange; // last frame change, to tell steps from seeks
+	private static final int MAX_READ_STEP = 4; // larger changes are steps only if repeated
 
 	/**
 	 * Creates a read-only ImageVideo and loads a named image or image sequence.
@@ -171,6 +175,7 @@ public class ImageVideo extends VideoAdapter {
 	public void setFrameNumber(int n) {
 		super.setFrameNumber(n);
 		rawImage = getImageAtFrame(getFrameNumber(), rawImage);
+		readAhead(getFrameNumber());
 		updateBufferedImage(); // For SwingJS
 		invalidateVideoAndFilter();
 		notifyFrame(n, false); // only this subsclass does this asynchronously
@@ -517,7 +522,7 @@ public class ImageVideo extends VideoAdapter {
 //				OSPLog.debug(Performance.timeCheckStr("ImageVideo.getImageAtFrame0 " + frameNumber,
 //						Performance.TIME_MARK));
 //
-				Image image = ResourceLoader.getVideoImage(getAbsolutePath(paths[frameNumber]));
+				Image image = FrameCache.getShared().get(getAbsolutePath(paths[frameNumber]));
 
 //				OSPLog.debug(Performance.timeCheckStr("ImageVideo.getImageAtFrame1 " + frameNumber,
 //						Performance.TIME_MARK));
@@ -533,6 +538,36 @@ public class ImageVideo extends VideoAdapter {
 		return defaultImage;
 	}
 
+	/**
+	 * Asks the shared frame cache to load the next frames in the direction and
+	 * step size of the last frame change. A change larger than MAX_READ_STEP is
+	 * taken as a seek rather than a step, and read ahead uses a step of 1, unless
+	 * it repeats the previous change. Only read-only videos load frames as needed,
+	 * so only they read ahead.
+	 *
+	 * @param frameNumber the current frame number
+	 */
+	private void readAhead(int frameNumber) {
+		if (!readOnly || OSPRuntime.isJS)
+			return;
+		if (prevFrameNumber >= 0 && frameNumber != prevFrameNumber) {
+			int change = frameNumber - prevFrameNumber;
+			readStep = (Math.abs(change) <= MAX_READ_STEP || change == prevChange ? change : 1);
+			prevChange = change;
+		}
+		prevFrameNumber = frameNumber;
+		FrameCache cache = FrameCache.getShared();
+		int n = cache.getReadAhead(rawImage);
+		int start = getStartFrameNumber();
+		int end = Math.min(getEndFrameNumber(), paths.length - 1);
+		ArrayList<String> list = new ArrayList<String>();
+		for (int i = 1, frame = frameNumber + readStep; i <= n && frame >= start && frame <= end; i++, frame += readStep) {
+			if ((frame >= images.length || images[frame] == null) && !paths[frame].equals("")) //$NON-NLS-1$
+				list.add(getAbsolutePath(paths[frame]));
+		}
+		cache.readAhead(this, list.toArray(new String[list.size()]));
+	}
+
 	private int length() {
 		if (readOnly)
 			return paths.length;
@@ -844,22 +879,22 @@ public class ImageVideo extends VideoAdapter {
 		refreshBufferedImage();
 		if (!isValidImage) { // bufferedImage needs refreshing
 			isValidImage = true;
-			Graphics g = bufferedImage.createGraphics();
-			
 			// bufferedImage.setData(clearRaster);
 			if (rawImage.getWidth(null) < bufferedImage.getWidth()
 					|| rawImage.getHeight(null) < bufferedImage.getHeight()) {
+				Graphics g = bufferedImage.createGraphics();
 				g.setColor(new Color(255, 255, 255, 255));
 				g.fillRect(0, 0, bufferedImage.getWidth(), bufferedImage.getHeight());
 				rgbSize.width = rawImage.getWidth(null);
 				rgbSize.height = rawImage.getHeight(null);
+				g.drawImage(rawImage, 0, 0, null);
+				g.dispose();
 			}
 			else {
 				rgbSize.width = bufferedImage.getWidth();
 				rgbSize.height = bufferedImage.getHeight();
+				FrameBuffer.copy(rawImage, bufferedImage);
 			}
-			g.drawImage(rawImage, 0, 0, null);
-			g.dispose();
 		}
 	}
 
@@ -880,21 +915,22 @@ public class ImageVideo extends VideoAdapter {
 				filteredImage = filterStack.getFilteredImage(bufferedImage);
 			}
 			else {
+				// rgbImage is reused as the filter input, so keep it separate from the output
 				if (rgbImage == null 
 						|| rgbImage.getWidth() != rgbSize.width 
 						|| rgbImage.getHeight() != rgbSize.height)
 					rgbImage = new BufferedImage(rgbSize.width, rgbSize.height, BufferedImage.TYPE_INT_RGB);
-				Graphics g = rgbImage.createGraphics();
-				g.drawImage(rawImage, 0, 0, null);
-				rgbImage = filterStack.getFilteredImage(rgbImage);
+				FrameBuffer.copy(rawImage, rgbImage);
+				BufferedImage rgbFiltered = filterStack.getFilteredImage(rgbImage);
 				if (filteredImage == null 
 						|| filteredImage.getWidth() != bufferedImage.getWidth() 
 						|| filteredImage.getHeight() != bufferedImage.getHeight())
 					filteredImage = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
-				g = filteredImage.createGraphics();
+				Graphics g = filteredImage.createGraphics();
 				g.setColor(new Color(255, 255, 255, 255));
 				g.fillRect(0, 0, filteredImage.getWidth(), filteredImage.getHeight());
-				g.drawImage(rgbImage, 0, 0, null);	
+				g.drawImage(rgbFiltered, 0, 0, null);	
+				g.dispose();
 			}
 		}
 		return filteredImage;
@@ -1124,6 +1160,16 @@ public class ImageVideo extends VideoAdapter {
 		return this.getTypeName() + " " + this.frameCount;
 	}
 
+	/**
+	 * Disposes of this video.
+	 */
+	@Override
+	public void dispose() {
+		if (!OSPRuntime.isJS)
+			FrameCache.getShared().cancel(this);
+		super.dispose();
+	}
+
 	@Override
 	protected void setStartTimes() {
 		// n/a for image stack videos
@@ -60,6 +60,7 @@ public class ImageVideoRecorder extends ScratchVideoRecorder {
 	private String tempFileBasePath;
 	private String tempFileType = "png"; //$NON-NLS-1$
 	private String[] savedFilePaths;
+	private FrameBuffer buffer; // for images that are not BufferedImages
 
 	/**
 	 * Constructs a default ImageVideoRecorder object.
@@ -273,9 +274,10 @@ public class ImageVideoRecorder extends ScratchVideoRecorder {
 			return false;
 		// convert to BufferedImage if needed
 		if (!(image instanceof BufferedImage)) {
-			BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
-			img.getGraphics().drawImage(image, 0, 0, null);
-			image = img;
+			// the image is written before the next frame, so the buffer can be reused
+			buffer = FrameBuffer.acquire(buffer, w, h);
+			buffer.setImage(image);
+			image = buffer.getImage();
 		}
 		BufferedImage source = (BufferedImage) image;
 		String fileName = tempFileBasePath + "_" + tempFiles.size() + ".tmp"; //$NON-NLS-1$ //$NON-NLS-2$
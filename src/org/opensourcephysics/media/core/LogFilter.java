@@ -123,7 +123,6 @@ public class LogFilter extends Filter {
 		// nothing to do
 	}
 
-	final static float[] hsb = new float[3];
 	/**
 	 * Sets the output image pixels.
 	 */
@@ -131,7 +130,20 @@ public class LogFilter extends Filter {
 	protected void setOutputPixels() {
 		getPixelsIn();
 		getPixelsOut();
-		for (int i = 0; i < nPixelsIn; i++) {
+		filterPixels(pixelsIn, pixelsOut, 0, nPixelsIn);
+	}
+
+	@Override
+	protected boolean isPointFilter() {
+		return true;
+	}
+
+	@Override
+	protected void filterPixels(int[] pixelsIn, int[] pixelsOut, int start, int end) {
+		int[] lookup = this.lookup;
+		boolean grayscale = this.grayscale;
+		float[] hsb = new float[3]; // local, since ranges may be filtered concurrently
+		for (int i = start; i < end; i++) {
 			int pixel = pixelsIn[i];
 			int r = (pixel >> 16) & 0xff;
 			int g = (pixel >> 8) & 0xff;
@@ -80,7 +80,17 @@ public class NegativeFilter extends Filter {
 	protected void setOutputPixels() {
 		getPixelsIn();
 		getPixelsOut();
-		for (int i = 0; i < pixelsIn.length; i++) {
+		filterPixels(pixelsIn, pixelsOut, 0, pixelsIn.length);
+	}
+
+	@Override
+	protected boolean isPointFilter() {
+		return true;
+	}
+
+	@Override
+	protected void filterPixels(int[] pixelsIn, int[] pixelsOut, int start, int end) {
+		for (int i = start; i < end; i++) {
 			int pixel = pixelsIn[i];
 			int r = 255 - ((pixel >> 16) & 0xff); // neg red
 			int g = 255 - ((pixel >> 8) & 0xff); // neg green
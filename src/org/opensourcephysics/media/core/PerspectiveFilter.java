@@ -99,6 +99,8 @@ public class PerspectiveFilter extends Filter implements PropertyChangeListener
 	private double[][] temp1 = new double[3][3]; // intermediate matrix
 	private double[][] temp2 = new double[3][3]; // intermediate matrix
 	private double[] xOut, yOut, xIn, yIn; // pixel positions on input and output images
+	private RemapTable remap; // maps output pixels to input pixels
+	private double[][] remapMatrix = new double[3][3]; // transform matrix used for remap
 	private int interpolation = 2; // neighborhood size for color interpolation
 	private Quadrilateral quad;
 	private QuadEditor inputEditor, outputEditor;
@@ -379,6 +381,7 @@ public class PerspectiveFilter extends Filter implements PropertyChangeListener
 	 */
 	@Override
 	protected void initializeSubclass() {
+		remap = null;
 		xIn = new double[nPixelsIn];
 		yIn = new double[nPixelsIn];
 		// output positions are integer pixels
@@ -426,13 +429,37 @@ public class PerspectiveFilter extends Filter implements PropertyChangeListener
 		// concatenate temp2 to temp1 to obtain transform matrix output->input
 		concatenate(temp1, temp2);
 
-		// transform the output (pixel) positions to input positions
-		transform(xOut, yOut, xIn, yIn);
+		// if the matrix has changed, transform the output (pixel) positions to input
+		// positions and rebuild the remap table
+		if (remap == null || !remap.fits(w, h, interpolation == 2) || !isRemapMatrix()) {
+			transform(xOut, yOut, xIn, yIn);
+			remap = new RemapTable(w, h, interpolation == 2);
+			for (int i = 0; i < nPixelsIn; i++) {
+				remap.set(i, xIn[i], yIn[i]);
+			}
+			for (int i = 0; i < 3; i++) {
+				System.arraycopy(matrix[i], 0, remapMatrix[i], 0, 3);
+			}
+		}
 
 		// find output pixel values by interpolating input pixels
-		for (int i = 0; i < nPixelsIn; i++) {
-			pixelsOut[i] = getColor(xIn[i], yIn[i], w, h, pixelsIn);
+		remap.apply(pixelsIn, pixelsOut);
+	}
+
+	/**
+	 * Determines whether the current transform matrix is the one used to build the
+	 * remap table.
+	 *
+	 * @return true if the matrix is unchanged
+	 */
+	private boolean isRemapMatrix() {
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				if (matrix[i][j] != remapMatrix[i][j])
+					return false;
+			}
 		}
+		return true;
 	}
 
 	/**
@@ -458,73 +485,6 @@ public class PerspectiveFilter extends Filter implements PropertyChangeListener
 		}
 	}
 
-	private	int[] rgb = new int[4], values = new int[4];
-
-	/**
-	 * Get the interpolated color at a non-integer position (between pixels points).
-	 * 
-	 * @param x           the x-coordinate of the position
-	 * @param y           the y-coordinate of the position
-	 * @param w           the width of the image
-	 * @param h           the height of the image
-	 * @param pixelValues the color values of the pixels in the image
-	 */
-	private int getColor(double x, double y, int w, int h, int[] pixelValues) {
-		// get base pixel position
-		int col = (int) Math.floor(x);
-		int row = (int) Math.floor(y);
-		if (col < 0 || col >= w || row < 0 || row >= h) {
-			return 0; // black if not in image
-		}
-		if (col + 1 == w || row + 1 == h) {
-			return pixelValues[row * w + col];
-		}
-
-		double u = col == 0 ? x : x % col;
-		double v = row == 0 ? y : y % row;
-
-		if (interpolation == 2) {
-			// get 2x2 neighborhood pixel values
-			values[0] = pixelValues[row * w + col];
-			values[1] = pixelValues[row * w + col + 1];
-			values[2] =	pixelValues[(row + 1) * w + col];
-			values[3] = pixelValues[(row + 1) * w + col + 1];
-			
-
-			for (int j = 0; j < 4; j++) {
-				rgb[j] = (values[j] >> 16) & 0xff; // red
-			}
-			int r = bilinearInterpolation(u, v, rgb);
-			for (int j = 0; j < 4; j++) {
-				rgb[j] = (values[j] >> 8) & 0xff; // green
-			}
-			int g = bilinearInterpolation(u, v, rgb);
-			for (int j = 0; j < 4; j++) {
-				rgb[j] = (values[j]) & 0xff; // blue
-			}
-			int b = bilinearInterpolation(u, v, rgb);
-			return (r << 16) | (g << 8) | b;
-		}
-
-		// if not interpolating, return value of nearest neighbor
-		return u < 0.5 ? v < 0.5 ? pixelValues[row * w + col] : pixelValues[(row + 1) * w + col]
-				: v < 0.5 ? pixelValues[row * w + col + 1] : pixelValues[(row + 1) * w + col + 1];
-	}
-
-	/**
-	 * Returns a bilinear interpolated pixel color (int value) at a given point
-	 * relative to (0,0).
-	 * 
-	 * @param x      the x-position relative to 0,0 (0<=x<1)
-	 * @param x      the y-position relative to 0,0 (0<=y<1)
-	 * @param values array of pixels color values [value(0,0), value(0,1),
-	 *               value(1,0), value(1,1)]
-	 * @return the interpolated color value
-	 */
-	private int bilinearInterpolation(double x, double y, int[] values) {
-		return (int) ((1 - y) * ((1 - x) * values[0] + x * values[2]) + y * ((1 - x) * values[1] + x * values[3]));
-	}
-
 	/**
 	 * Creates a transform matrix to map a unit square onto a quadrilateral.
 	 *
@@ -99,7 +99,8 @@ public class RadialDistortionFilter extends Filter {
 	protected static double minFOV = Math.PI / 18, maxFOV = Math.PI - .001;
 
 	// instance fields
-	private double[] xOut, yOut, xIn, yIn; // pixel positions on input and output images
+	private double[] xOut, yOut; // output pixel positions
+	private RemapTable remap; // maps output pixels to input pixels
 	private double pixelsToCorner; // half image diagonal in pixels
 	private boolean isValidTransform = false, updatingDisplay = false, dimensionsChanged = false;
 	private double outputFOV;
@@ -329,16 +330,18 @@ public class RadialDistortionFilter extends Filter {
 		}
 		// if needed, map the output (corrected) pixel positions to input pixel
 		// positions
-		if (!isValidTransform || xIn == null || dimensionsChanged) {
-			xIn = new double[w * h];
-			yIn = new double[w * h];
+		if (!isValidTransform || remap == null || dimensionsChanged) {
+			double[] xIn = new double[w * h];
+			double[] yIn = new double[w * h];
 			transform(xOut, yOut, xIn, yIn);
+			remap = new RemapTable(w, h, interpolation == 2);
+			for (int i = 0; i < nPixelsIn; i++) {
+				remap.set(i, xIn[i], yIn[i]);
+			}
 		}
 
-		// find output pixel color values by interpolating input pixel colors
-		for (int i = 0; i < nPixelsIn; i++) {
-			pixelsOut[i] = getColor(xIn[i], yIn[i], w, h, pixelsIn);
-		}
+		// find output pixel color values from the cached input pixel positions
+		remap.apply(pixelsIn, pixelsOut);
 		
 		dimensionsChanged = false;
 	}
@@ -540,69 +543,6 @@ public class RadialDistortionFilter extends Filter {
 		return rSource / rOut;
 	}
 
-	/**
-	 * Get the interpolated color at a non-integer position (between pixels points).
-	 * 
-	 * @param x           the x-coordinate of the position
-	 * @param y           the y-coordinate of the position
-	 * @param w           the width of the image
-	 * @param h           the height of the image
-	 * @param pixelValues the color values of the pixels in the image
-	 */
-	private int getColor(double x, double y, int w, int h, int[] pixelValues) {
-		// get base pixel position
-		int col = (int) Math.floor(x);
-		int row = (int) Math.floor(y);
-		if (col < 0 || col >= w || row < 0 || row >= h) {
-			return 0; // black if not in image
-		}
-		if (col + 1 == w || row + 1 == h) {
-			return pixelValues[row * w + col];
-		}
-
-		double u = col == 0 ? x : x % col;
-		double v = row == 0 ? y : y % row;
-
-		if (interpolation == 2) {
-			// get 2x2 neighborhood pixel values
-			int[] values = new int[] { pixelValues[row * w + col], pixelValues[row * w + col + 1],
-					pixelValues[(row + 1) * w + col], pixelValues[(row + 1) * w + col + 1] };
-
-			int[] rgb = new int[4];
-			for (int j = 0; j < 4; j++) {
-				rgb[j] = (values[j] >> 16) & 0xff; // red
-			}
-			int r = bilinearInterpolation(u, v, rgb);
-			for (int j = 0; j < 4; j++) {
-				rgb[j] = (values[j] >> 8) & 0xff; // green
-			}
-			int g = bilinearInterpolation(u, v, rgb);
-			for (int j = 0; j < 4; j++) {
-				rgb[j] = (values[j]) & 0xff; // blue
-			}
-			int b = bilinearInterpolation(u, v, rgb);
-			return (r << 16) | (g << 8) | b;
-		}
-
-		// if not interpolating, return value of nearest neighbor
-		return u < 0.5 ? v < 0.5 ? pixelValues[row * w + col] : pixelValues[(row + 1) * w + col]
-				: v < 0.5 ? pixelValues[row * w + col + 1] : pixelValues[(row + 1) * w + col + 1];
-	}
-
-	/**
-	 * Returns a bilinear interpolated pixel color (int value) at a given point
-	 * relative to (0,0).
-	 * 
-	 * @param x      the x-position relative to 0,0 (0<=x<1)
-	 * @param x      the y-position relative to 0,0 (0<=y<1)
-	 * @param values array of pixels color values [value(0,0), value(0,1),
-	 *               value(1,0), value(1,1)]
-	 * @return the interpolated color value
-	 */
-	private int bilinearInterpolation(double x, double y, int[] values) {
-		return (int) ((1 - y) * ((1 - x) * values[0] + x * values[2]) + y * ((1 - x) * values[1] + x * values[3]));
-	}
-
 	/**
 	 * Inner Inspector class to control filter parameters
 	 */
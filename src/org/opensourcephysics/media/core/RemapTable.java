@@ -0,0 +1,216 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+/*
+ * The org.opensourcephysics.media.core package defines the Open Source Physics
+ * media framework for working with video and other media.
+ *
+ * Copyright (c) 2024  Douglas Brown and Wolfgang Christian.
+ *
+ * This is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * For additional information and documentation on Open Source Physics,
+ * please see <http://www.opensourcephysics.org/>.
+ */
+package org.opensourcephysics.media.core;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.opensourcephysics.display.OSPRuntime;
+
+/**
+ * A lookup table that maps each output pixel of a geometric transformation to
+ * the input pixel(s) it is copied or interpolated from. Filters build it when
+ * their parameters or image dimensions change and then reuse it for every
+ * frame, so filtering a frame is just a gather of input pixels.
+ *
+ * Each entry holds the index of the (upper left) input pixel, or -1 for black,
+ * and for bilinear tables the interpolation fractions in 8-bit fixed point.
+ *
+ * @version 1.0
+ */
+class RemapTable {
+
+	// fixed-point scale of interpolation fractions
+	private static final int ONE = 256;
+	// minimum rows per band when remapping in parallel
+	private static final int MIN_ROWS_PER_BAND = 32;
+
+	private final int w, h;
+	private final int[] index;
+	private final int[] fractions; // null if not interpolating
+
+	/**
+	 * Constructor.
+	 *
+	 * @param w        the image width
+	 * @param h        the image height
+	 * @param bilinear true to interpolate between the four nearest input pixels
+	 */
+	RemapTable(int w, int h, boolean bilinear) {
+		this.w = w;
+		this.h = h;
+		index = new int[w * h];
+		fractions = bilinear ? new int[w * h] : null;
+	}
+
+	/**
+	 * Sets the input position for an output pixel. Positions outside the image
+	 * map to black. Positions in the last row or column are not interpolated.
+	 *
+	 * @param i the output pixel index
+	 * @param x the input x-coordinate
+	 * @param y the input y-coordinate
+	 */
+	void set(int i, double x, double y) {
+		int col = (int) Math.floor(x);
+		int row = (int) Math.floor(y);
+		if (col < 0 || col >= w || row < 0 || row >= h) {
+			index[i] = -1; // black if not in image
+			return;
+		}
+		if (col + 1 == w || row + 1 == h) {
+			index[i] = row * w + col;
+			if (fractions != null)
+				fractions[i] = 0;
+			return;
+		}
+		double u = x - col;
+		double v = y - row;
+		if (fractions == null) {
+			// nearest neighbor
+			index[i] = (v < 0.5 ? row : row + 1) * w + (u < 0.5 ? col : col + 1);
+			return;
+		}
+		index[i] = row * w + col;
+		// fractions weight the pixels as the filters' bilinearInterpolation
+		// methods did: u between rows, v between columns
+		int fu = (int) Math.round(u * ONE);
+		int fv = (int) Math.round(v * ONE);
+		fractions[i] = fu | (fv << 16);
+	}
+
+	/**
+	 * Determines whether this table fits images of a given size and interpolation.
+	 *
+	 * @param width    the image width
+	 * @param height   the image height
+	 * @param bilinear true if interpolating
+	 * @return true if this table can be used
+	 */
+	boolean fits(int width, int height, boolean bilinear) {
+		return w == width && h == height && (fractions != null) == bilinear;
+	}
+
+	/**
+	 * Fills the output pixels from the input pixels, in parallel bands of rows
+	 * when the image is large enough.
+	 *
+	 * @param in  the input pixels
+	 * @param out the output pixels
+	 */
+	void apply(int[] in, int[] out) {
+		int bands = Math.min(Runtime.getRuntime().availableProcessors(), h / MIN_ROWS_PER_BAND);
+		if (OSPRuntime.isJS || bands <= 1) {
+			apply(in, out, 0, w * h);
+			return;
+		}
+		ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (int i = 0; i < bands; i++) {
+			final int start = (i * h / bands) * w, end = ((i + 1) * h / bands) * w;
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() {
+					apply(in, out, start, end);
+					return null;
+				}
+
+			});
+		}
+		try {
+			for (Future<Object> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			throw new RuntimeException(ex.getCause());
+		}
+	}
+
+	private void apply(int[] in, int[] out, int start, int end) {
+		if (fractions == null) {
+			for (int i = start; i < end; i++) {
+				int k = index[i];
+				out[i] = (k < 0 ? 0 : in[k]);
+			}
+			return;
+		}
+		for (int i = start; i < end; i++) {
+			int k = index[i];
+			int f = fractions[i];
+			if (k < 0) {
+				out[i] = 0;
+			} else if (f == 0) {
+				out[i] = in[k];
+			} else {
+				int fu = f & 0xffff, fv = f >>> 16;
+				int p00 = in[k], p01 = in[k + 1], p10 = in[k + w], p11 = in[k + w + 1];
+				int r = lerp((p00 >> 16) & 0xff, (p01 >> 16) & 0xff, (p10 >> 16) & 0xff, (p11 >> 16) & 0xff, fu, fv);
+				int g = lerp((p00 >> 8) & 0xff, (p01 >> 8) & 0xff, (p10 >> 8) & 0xff, (p11 >> 8) & 0xff, fu, fv);
+				int b = lerp(p00 & 0xff, p01 & 0xff, p10 & 0xff, p11 & 0xff, fu, fv);
+				out[i] = (r << 16) | (g << 8) | b;
+			}
+		}
+	}
+
+	private static int lerp(int c00, int c01, int c10, int c11, int fu, int fv) {
+		return ((ONE - fv) * ((ONE - fu) * c00 + fu * c10) + fv * ((ONE - fu) * c01 + fu * c11)) >> 16;
+	}
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
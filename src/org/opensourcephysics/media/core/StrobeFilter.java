@@ -62,6 +62,9 @@ public class StrobeFilter extends Filter {
 	private double fade;
 	private double defaultFade = 0;
 	private boolean brightTrails = false;
+	private int[] fadeTable = new int[256]; // faded value of each value
+	private double tableFade = Double.NaN; // fade of fadeTable
+	private boolean tableBright; // brightTrails of fadeTable
 	// inspector fields
 	private Inspector inspector;
 	private JLabel fadeLabel;
@@ -203,6 +206,15 @@ public class StrobeFilter extends Filter {
 	protected void setOutputPixels() {
 		getPixelsIn();
 		getPixelsOut();
+		if (tableFade != fade || tableBright != brightTrails) {
+			// table of faded values, identical to fading each channel in floating point
+			tableFade = fade;
+			tableBright = brightTrails;
+			for (int v = 0; v < 256; v++) {
+				fadeTable[v] = brightTrails ? (int) ((1 - fade) * v) : (int) (255 - (1 - fade) * (255 - v));
+			}
+		}
+		int[] faded = fadeTable;
 		int pixel, r, g, b, val, rprev, gprev, bprev, valprev;
 		for (int i = 0; i < pixelsIn.length; i++) {
 			pixel = pixelsIn[i];
@@ -215,21 +227,21 @@ public class StrobeFilter extends Filter {
 			bprev = (prevPixels[i]) & 0xff; // previous blue
 			valprev = (rprev + gprev + bprev) / 3; // previous value
 			if (brightTrails) { // bright trails fade to black
-				valprev = (int) ((1 - fade) * valprev); // faded previous value
+				valprev = faded[valprev]; // faded previous value
 				if (valprev > val) {
-					rprev = (int) ((1 - fade) * rprev); // faded red
-					gprev = (int) ((1 - fade) * gprev); // faded green
-					bprev = (int) ((1 - fade) * bprev); // faded blue
+					rprev = faded[rprev]; // faded red
+					gprev = faded[gprev]; // faded green
+					bprev = faded[bprev]; // faded blue
 					pixelsOut[i] = (rprev << 16) | (gprev << 8) | bprev;
 				} else {
 					pixelsOut[i] = pixel;
 				}
 			} else { // dark trails fade to white
-				valprev = (int) (255 - (1 - fade) * (255 - valprev)); // faded previous value
+				valprev = faded[valprev]; // faded previous value
 				if (val > valprev) {
-					rprev = (int) (255 - (1 - fade) * (255 - rprev)); // faded red
-					gprev = (int) (255 - (1 - fade) * (255 - gprev)); // faded green
-					bprev = (int) (255 - (1 - fade) * (255 - bprev)); // faded blue
+					rprev = faded[rprev]; // faded red
+					gprev = faded[gprev]; // faded green
+					bprev = faded[bprev]; // faded blue
 					pixelsOut[i] = (rprev << 16) | (gprev << 8) | bprev;
 				} else {
 					pixelsOut[i] = pixel;
@@ -65,6 +65,11 @@ public class SumFilter extends Filter {
 	private double brightness = 1; // fraction of full
 	private boolean mean;
 	private boolean skipSum = true;
+	private int frameWindow; // number of most recent images summed, or 0 for all
+	private int[][] window; // the summed images when windowed
+	private int windowStart; // index in window of the oldest image
+	private boolean isValidOutput; // true if output pixels match the sums
+	private double outputFactor; // factor applied to the sums in the output
 	// inspector fields
 	private Inspector inspector;
 	private JLabel percentLabel;
@@ -106,6 +111,35 @@ public class SumFilter extends Filter {
 		}
 	}
 
+	/**
+	 * Sets the frame window. When the window is greater than zero, only the most
+	 * recently added images up to that number are summed: adding an image to a
+	 * full window subtracts the oldest one, so the cost of adding an image does
+	 * not depend on the window. The window images are kept in memory. Changing
+	 * the window restarts the sum with the current image.
+	 *
+	 * @param frames the number of images to sum, or 0 to sum all
+	 */
+	public void setFrameWindow(int frames) {
+		frames = Math.max(0, frames);
+		if (frames != frameWindow) {
+			frameWindow = frames;
+			if (source != null) {
+				initializeSubclass();
+			}
+			firePropertyChange(Filter.PROPERTY_FILTER_RESET, null, null);
+		}
+	}
+
+	/**
+	 * Gets the frame window.
+	 *
+	 * @return the number of images summed, or 0 if all are summed
+	 */
+	public int getFrameWindow() {
+		return frameWindow;
+	}
+
 	/**
 	 * Overrides Filter method.
 	 *
@@ -196,28 +230,49 @@ public class SumFilter extends Filter {
 		getPixelsOut();
 		System.arraycopy(pixelsIn, 0, pixelsOut, 0, nPixelsIn);
 		imageCount = 0;
+		window = (frameWindow > 0 ? new int[frameWindow][] : null);
+		windowStart = 0;
 		addPixels();
 	}
 
 	/**
-	 * Adds the input pixel RGB values to their sums.
+	 * Adds the input pixel RGB values to their sums. If the frame window is
+	 * full, the oldest image in the window is subtracted and replaced.
 	 */
 	private void addPixels() {
-		imageCount++;
 		getPixelsIn();
+		if (window != null && imageCount == window.length) {
+			int[] oldest = window[windowStart];
+			for (int i = 0; i < nPixelsIn; i++) {
+				int pixel = oldest[i];
+				rsums[i] -= (pixel >> 16) & 0xff; // red
+				gsums[i] -= (pixel >> 8) & 0xff; // green
+				bsums[i] -= (pixel) & 0xff; // blue
+			}
+			System.arraycopy(pixelsIn, 0, oldest, 0, nPixelsIn);
+			windowStart = (windowStart + 1) % window.length;
+		} else {
+			if (window != null) {
+				window[(windowStart + imageCount) % window.length] = pixelsIn.clone();
+			}
+			imageCount++;
+		}
 		for (int i = 0; i < nPixelsIn; i++) {
 			int pixel = pixelsIn[i];
 			rsums[i] += (pixel >> 16) & 0xff; // red
 			gsums[i] += (pixel >> 8) & 0xff; // green
 			bsums[i] += (pixel) & 0xff; // blue
 		}
+		isValidOutput = false;
 		if ((inspector != null) && inspector.isVisible()) {
 			refresh();
 		}
 	}
 
 	/**
-	 * Sets the output image pixels to the reduced sum values.
+	 * Sets the output image pixels to the reduced sum values. The output does not
+	 * depend on the current input, so it is only recomputed when the sums or the
+	 * brightness change.
 	 */
 	@Override
 	protected void setOutputPixels() {
@@ -227,6 +282,11 @@ public class SumFilter extends Filter {
 		}
 		getPixelsOut();
 		double f = (mean ? 1.0 / imageCount : brightness);
+		if (isValidOutput && f == outputFactor) {
+			return;
+		}
+		isValidOutput = true;
+		outputFactor = f;
 		for (int i = 0; i < nPixelsIn; i++) {
 			pixelsOut[i] = (((int) Math.min(rsums[i] * f, 255)) << 16) 
 					| (((int) Math.min(gsums[i] * f, 255)) << 8) 
@@ -386,6 +446,9 @@ public class SumFilter extends Filter {
 		@Override
 		public void saveObject(XMLControl control, Object obj) {
 			SumFilter filter = (SumFilter) obj;
+			if (filter.getFrameWindow() > 0) {
+				control.setValue("frame_window", filter.getFrameWindow()); //$NON-NLS-1$
+			}
 			filter.addLocation(control);
 		}
 
@@ -410,6 +473,9 @@ public class SumFilter extends Filter {
 		@Override
 		public Object loadObject(XMLControl control, Object obj) {
 			final SumFilter filter = (SumFilter) obj;
+			if (control.getPropertyNamesRaw().contains("frame_window")) { //$NON-NLS-1$
+				filter.setFrameWindow(control.getInt("frame_window")); //$NON-NLS-1$
+			}
 			filter.inspectorX = control.getInt("inspector_x"); //$NON-NLS-1$
 			filter.inspectorY = control.getInt("inspector_y"); //$NON-NLS-1$
 			return obj;
@@ -0,0 +1,276 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+/*
+ * The org.opensourcephysics.media.core package defines the Open Source Physics
+ * media framework for working with video and other media.
+ *
+ * Copyright (c) 2024  Douglas Brown and Wolfgang Christian.
+ *
+ * This is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * For additional information and documentation on Open Source Physics,
+ * please see <http://www.opensourcephysics.org/>.
+ */
+package org.opensourcephysics.media.core;
+
+import java.util.Arrays;
+
+import org.opensourcephysics.numerics.FFT2D;
+
+/**
+ * Computes the masked sum of squared RGB differences between a template and
+ * every position in a test image using fast Fourier transforms. For a template
+ * T with opacity mask M and test image I,
+ * 
+ * <pre>
+ * SSD(x, y) = sum(M*T^2) - 2*sum(M*T*I(x, y)) + sum(M*I(x, y)^2)
+ * </pre>
+ * 
+ * where each sum is over the template pixels and color channels. The first
+ * term is a constant and the other two are cross-correlations, so the entire
+ * SSD surface takes three complex FFTs: two forward transforms that each carry
+ * two real images, and one inverse transform that yields both correlations.
+ * Since the SSD is a sum of integers, rounding recovers the exact values found
+ * by direct summation.
+ *
+ * @version 1.0
+ */
+class TemplateCorrelator {
+
+	private int wTest, hTest, wTemplate, hTemplate;
+	private int rows, cols;
+	private FFT2D fft;
+	private double[] z1, z2; // test image transforms
+	private double[] kR, kG, kB, kM; // conjugated template and mask transforms
+	private double sumTemplateSq;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param wTest     the test image width
+	 * @param hTest     the test image height
+	 * @param wTemplate the template width
+	 * @param hTemplate the template height
+	 */
+	TemplateCorrelator(int wTest, int hTest, int wTemplate, int hTemplate) {
+		this.wTest = wTest;
+		this.hTest = hTest;
+		this.wTemplate = wTemplate;
+		this.hTemplate = hTemplate;
+		// circular correlation does not wrap at valid positions, so the test size is
+		// enough--round up to a size with small prime factors for speed
+		rows = getFFTSize(hTest);
+		cols = getFFTSize(wTest);
+		fft = new FFT2D(rows, cols);
+		z1 = new double[2 * rows * cols];
+		z2 = new double[2 * rows * cols];
+	}
+
+	/**
+	 * Determines whether this correlator fits given image and template sizes.
+	 *
+	 * @return true if it fits
+	 */
+	boolean fits(int wTest, int hTest, int wTemplate, int hTemplate) {
+		return this.wTest == wTest && this.hTest == hTest && this.wTemplate == wTemplate
+				&& this.hTemplate == hTemplate;
+	}
+
+	/**
+	 * Sets the template.
+	 *
+	 * @param r           the red components
+	 * @param g           the green components
+	 * @param b           the blue components
+	 * @param transparent true for pixels excluded from the match
+	 */
+	void setTemplate(int[] r, int[] g, int[] b, boolean[] transparent) {
+		double[] y1 = new double[2 * rows * cols];
+		double[] y2 = new double[2 * rows * cols];
+		sumTemplateSq = 0;
+		for (int j = 0, tpt = 0; j < hTemplate; j++) {
+			for (int i = 0; i < wTemplate; i++, tpt++) {
+				if (transparent[tpt])
+					continue;
+				int k = 2 * (j * cols + i);
+				y1[k] = r[tpt];
+				y1[k + 1] = g[tpt];
+				y2[k] = b[tpt];
+				y2[k + 1] = 1;
+				sumTemplateSq += r[tpt] * r[tpt] + g[tpt] * g[tpt] + b[tpt] * b[tpt];
+			}
+		}
+		fft.transform(y1);
+		fft.transform(y2);
+		int n = rows * cols;
+		kR = new double[2 * n];
+		kG = new double[2 * n];
+		kB = new double[2 * n];
+		kM = new double[2 * n];
+		split(y1, kR, kG);
+		split(y2, kB, kM);
+		// conjugate for correlation
+		for (int k = 1; k < 2 * n; k += 2) {
+			kR[k] = -kR[k];
+			kG[k] = -kG[k];
+			kB[k] = -kB[k];
+			kM[k] = -kM[k];
+		}
+	}
+
+	/**
+	 * Gets the SSD at every position at which the template lies entirely inside
+	 * the test image. The template must have been set.
+	 *
+	 * @param pixels the RGB test image pixels
+	 * @return the SSD values, (wTest - wTemplate + 1) per row, for (hTest -
+	 *         hTemplate + 1) rows
+	 */
+	double[] getSSD(int[] pixels) {
+		Arrays.fill(z1, 0);
+		Arrays.fill(z2, 0);
+		for (int j = 0, pt = 0; j < hTest; j++) {
+			for (int i = 0; i < wTest; i++, pt++) {
+				int pixel = pixels[pt];
+				int r = (pixel >> 16) & 0xff, g = (pixel >> 8) & 0xff, b = pixel & 0xff;
+				int k = 2 * (j * cols + i);
+				z1[k] = r;
+				z1[k + 1] = g;
+				z2[k] = b;
+				z2[k + 1] = r * r + g * g + b * b;
+			}
+		}
+		fft.transform(z1);
+		fft.transform(z2);
+		// combine into the transform of (cross + i*square) correlations,
+		// working on each frequency and its mirror together
+		double[] out = new double[2 * rows * cols];
+		for (int u = 0; u < rows; u++) {
+			int um = (rows - u) % rows;
+			for (int v = 0; v < cols; v++) {
+				int vm = (cols - v) % cols;
+				int k = 2 * (u * cols + v), km = 2 * (um * cols + vm);
+				// red and green from z1, blue and squares from z2
+				double ar = z1[k], ai = z1[k + 1], br = z1[km], bi = z1[km + 1];
+				double rRe = (ar + br) / 2, rIm = (ai - bi) / 2;
+				double gRe = (ai + bi) / 2, gIm = (br - ar) / 2;
+				ar = z2[k];
+				ai = z2[k + 1];
+				br = z2[km];
+				bi = z2[km + 1];
+				double bRe = (ar + br) / 2, bIm = (ai - bi) / 2;
+				double qRe = (ai + bi) / 2, qIm = (br - ar) / 2;
+				double pRe = kR[k] * rRe - kR[k + 1] * rIm + kG[k] * gRe - kG[k + 1] * gIm + kB[k] * bRe - kB[k + 1] * bIm;
+				double pIm = kR[k] * rIm + kR[k + 1] * rRe + kG[k] * gIm + kG[k + 1] * gRe + kB[k] * bIm + kB[k + 1] * bRe;
+				double sRe = kM[k] * qRe - kM[k + 1] * qIm;
+				double sIm = kM[k] * qIm + kM[k + 1] * qRe;
+				// out = P + i*S
+				out[k] = pRe - sIm;
+				out[k + 1] = pIm + sRe;
+			}
+		}
+		fft.backtransform(out);
+		double norm = 1.0 / (rows * cols);
+		int wSSD = wTest - wTemplate + 1, hSSD = hTest - hTemplate + 1;
+		double[] ssd = new double[wSSD * hSSD];
+		for (int j = 0, pt = 0; j < hSSD; j++) {
+			for (int i = 0, k = 2 * j * cols; i < wSSD; i++, pt++, k += 2) {
+				double cross = out[k] * norm, square = out[k + 1] * norm;
+				ssd[pt] = Math.max(0, Math.rint(sumTemplateSq - 2 * cross + square));
+			}
+		}
+		return ssd;
+	}
+
+	/**
+	 * Estimates the relative cost of an SSD surface, in the same units as one
+	 * template pixel compared at one position.
+	 *
+	 * @param wTest the test image width
+	 * @param hTest the test image height
+	 * @return the estimated cost
+	 */
+	static double getCost(int wTest, int hTest) {
+		double n = (double) getFFTSize(wTest) * getFFTSize(hTest);
+		return 4 * n * Math.log(n) / Math.log(2);
+	}
+
+	/**
+	 * Splits the transform of a + ib, where a and b are real, into the transforms
+	 * of a and b.
+	 */
+	private void split(double[] z, double[] a, double[] b) {
+		for (int u = 0; u < rows; u++) {
+			int um = (rows - u) % rows;
+			for (int v = 0; v < cols; v++) {
+				int vm = (cols - v) % cols;
+				int k = 2 * (u * cols + v), km = 2 * (um * cols + vm);
+				double zr = z[k], zi = z[k + 1], mr = z[km], mi = z[km + 1];
+				a[k] = (zr + mr) / 2;
+				a[k + 1] = (zi - mi) / 2;
+				b[k] = (zi + mi) / 2;
+				b[k + 1] = (mr - zr) / 2;
+			}
+		}
+	}
+
+	/**
+	 * Gets the smallest size of the form 2^a 3^b 5^c that is at least n.
+	 */
+	private static int getFFTSize(int n) {
+		for (int size = Math.max(n, 1);; size++) {
+			int m = size;
+			while (m % 2 == 0)
+				m /= 2;
+			while (m % 3 == 0)
+				m /= 3;
+			while (m % 5 == 0)
+				m /= 5;
+			if (m == 1)
+				return size;
+		}
+	}
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
@@ -48,6 +48,8 @@ public class TemplateMatcher {
 
 	// static constants
 	private static final double LARGE_NUMBER = 1.0E10;
+	private static final int MAX_PYRAMID_LEVELS = 4;
+	private static final int PYRAMID_REFINE = 2; // refinement half-width in pixels
 
 	// instance fields
 	private BufferedImage original, template, working, match;
@@ -55,6 +57,7 @@ public class TemplateMatcher {
 	private int[] pixels, templateR, templateG, templateB;
 	private boolean[] isPixelTransparent;
 	private int[] targetPixels;
+	private FrameBuffer targetBuffer; // for targets that are not TYPE_INT_RGB
 	private int wTemplate, hTemplate; // width and height of the template image
 	private int wTarget, hTarget; // width and height of the target image
 	private int wTest, hTest; // width and height of the tested image (in search rect)
@@ -66,6 +69,11 @@ public class TemplateMatcher {
 	private int[] alphas = new int[2]; // most recent alphas {input, original}
 	private int index; // for AutoTracker--not used internally
 	private KnownPolynomial parabola; // for parabolic fit
+	private int nOpaque; // number of non-transparent template pixels
+	private boolean fftEnabled = true; // true to use FFT correlation when faster
+	private int pyramidLevels; // reduced-resolution levels for coarse-to-fine search
+	private TemplateCorrelator correlator; // for FFT correlation
+	private boolean isCorrelatorTemplateSet;
 
 	/**
 	 * Constructs a TemplateMatcher object. If a mask shape is specified, then only
@@ -103,6 +111,55 @@ public class TemplateMatcher {
 			templateB[i] = getBlue(val); // blue
 			isPixelTransparent[i] = getAlpha(val) == 0; // alpha
 		}
+		nOpaque = 0;
+		for (int i = isPixelTransparent.length; --i >= 0;) {
+			if (!isPixelTransparent[i])
+				nOpaque++;
+		}
+		isCorrelatorTemplateSet = false;
+	}
+
+	/**
+	 * Sets the FFT enabled property. When enabled, the RGBSqD at all test
+	 * positions is computed by FFT correlation whenever that is estimated to be
+	 * faster than direct summation. The results are the same either way.
+	 *
+	 * @param enabled true to enable FFT correlation
+	 */
+	public void setFFTEnabled(boolean enabled) {
+		fftEnabled = enabled;
+	}
+
+	/**
+	 * Gets the FFT enabled property.
+	 *
+	 * @return true if FFT correlation is enabled
+	 */
+	public boolean isFFTEnabled() {
+		return fftEnabled;
+	}
+
+	/**
+	 * Sets the number of pyramid levels for coarse-to-fine searches. With one or
+	 * more levels, a search of an entire rectangle first finds the best match in
+	 * images reduced by a factor of 2 per level, then refines it in a small
+	 * neighborhood at each finer level. This is much faster for large templates
+	 * and search areas but, unlike a full search, may miss a narrow best match.
+	 * Searches along a set of points are always full searches.
+	 *
+	 * @param levels the number of levels, 0 (the default) for full searches
+	 */
+	public void setPyramidLevels(int levels) {
+		pyramidLevels = Math.max(0, Math.min(MAX_PYRAMID_LEVELS, levels));
+	}
+
+	/**
+	 * Gets the number of pyramid levels for coarse-to-fine searches.
+	 *
+	 * @return the number of levels
+	 */
+	public int getPyramidLevels() {
+		return pyramidLevels;
 	}
 
 	/**
@@ -294,7 +351,10 @@ public class TemplateMatcher {
 	 * 1. At each test position in the search area, find the RGB square deviation
 	 * ("RGBSqD": sum of squares of rgb differences of all pixels) between the
 	 * template and video image. Note that the RGBSqD is zero for a perfect match
-	 * and larger for poorer matches.
+	 * and larger for poorer matches. When faster, the RGBSqD at all test
+	 * positions is found at once by FFT correlation (see setFFTEnabled).
+	 * Optionally, a rectangle is searched coarse-to-fine instead (see
+	 * setPyramidLevels).
 	 * 
 	 * 2. Determine the average RGBSqD for all test positions.
 	 * 
@@ -347,39 +407,57 @@ public class TemplateMatcher {
 		int yMax = Math.min(hTarget, sy + sh + bottom);
 		wTest = xMax - xMin;
 		hTest = yMax - yMin;
-		target = ensureType(target, wTarget, hTarget, BufferedImage.TYPE_INT_RGB);
-		targetPixels = new int[wTest * hTest];
-		transferPixels(getPixels(target), xMin, yMin, wTarget, targetPixels, wTest);
+		FrameBuffer targetFrame = FrameBuffer.wrap(target);
+		if (targetFrame == null) {
+			// copy into a reusable TYPE_INT_RGB buffer
+			targetFrame = targetBuffer = FrameBuffer.acquire(targetBuffer, wTarget, hTarget);
+			targetFrame.setImage(target);
+			target = targetFrame.getImage();
+		}
+		if (targetPixels == null || targetPixels.length != wTest * hTest)
+			targetPixels = new int[wTest * hTest];
+		transferPixels(targetFrame.getPixels(), xMin, yMin, wTarget, targetPixels, wTest);
 		// find the rectangle point with the minimum difference squared
 		double minDiffSq = largeNumber; // larger than typical differences
 		int xMatch = 0, yMatch = 0;
 		double avgDiffSq = 0;
-		if (searchPts == null) {
-			searchPts = new int[sw * sh][2];
-			int index = 0;
-			for (int x = 0; x < sw; x++) { // BH this was <=, but then we are checking past the edge
-				for (int y = 0; y < sh; y++) { // BH same here.
-					searchPts[index][0] = x;
-					searchPts[index][1] = y;
-					index++;
-				}
-			}			
-		}
-		int n = 0;
-		for (int i = 0; i < searchPts.length; i++) {
-			if (searchPts[i][0] >= sw || searchPts[i][1] >= sh || searchPts[i][0] < 0 || searchPts[i][1] < 0)
-				continue;
+		int[] pyramidMatch = (searchPts == null && pyramidLevels > 0 ? getPyramidMatch(sw, sh) : null);
+		if (pyramidMatch != null) {
+			xMatch = pyramidMatch[0];
+			yMatch = pyramidMatch[1];
+			minDiffSq = getRGBDiffSquaredAtTestPoint(xMatch, yMatch);
+			avgDiffSq = getMeanDiffSquared(sw, sh);
+		} else {
+			if (searchPts == null) {
+				searchPts = new int[sw * sh][2];
+				int index = 0;
+				for (int x = 0; x < sw; x++) { // BH this was <=, but then we are checking past the edge
+					for (int y = 0; y < sh; y++) { // BH same here.
+						searchPts[index][0] = x;
+						searchPts[index][1] = y;
+						index++;
+					}
+				}			
+			}
+			double[] ssd = getSSDSurface(searchPts.length);
+			int wSSD = wTest - wTemplate + 1;
+			int n = 0;
+			for (int i = 0; i < searchPts.length; i++) {
+				if (searchPts[i][0] >= sw || searchPts[i][1] >= sh || searchPts[i][0] < 0 || searchPts[i][1] < 0)
+					continue;
 			
-			double diffSq = getRGBDiffSquaredAtTestPoint(searchPts[i][0], searchPts[i][1]);
-			avgDiffSq += diffSq;
-			n++;
-			if (diffSq < minDiffSq) {
-				minDiffSq = diffSq;
-				xMatch = searchPts[i][0];
-				yMatch = searchPts[i][1];
+				double diffSq = (ssd == null ? getRGBDiffSquaredAtTestPoint(searchPts[i][0], searchPts[i][1])
+						: ssd[searchPts[i][1] * wSSD + searchPts[i][0]]);
+				avgDiffSq += diffSq;
+				n++;
+				if (diffSq < minDiffSq) {
+					minDiffSq = diffSq;
+					xMatch = searchPts[i][0];
+					yMatch = searchPts[i][1];
+				}
 			}
+			avgDiffSq /= n;
 		}
-		avgDiffSq /= n;
 		peakHeight = avgDiffSq / minDiffSq - 1;
 		peakWidth = Double.NaN;
 		double dx = 0, dy = 0;
@@ -578,6 +656,118 @@ public class TemplateMatcher {
 		return diff;
 	}
 
+	/**
+	 * Gets the RGBSqD at all test points using FFT correlation, if enabled and
+	 * estimated to be faster than summing at each of the points to be searched.
+	 *
+	 * @param nPoints the number of points to be searched
+	 * @return the RGBSqD, (wTest - wTemplate + 1) per row, or null
+	 */
+	private double[] getSSDSurface(int nPoints) {
+		if (!fftEnabled)
+			return null;
+		boolean isNew = (correlator == null || !correlator.fits(wTest, hTest, wTemplate, hTemplate));
+		// a new template costs two more transforms
+		double cost = TemplateCorrelator.getCost(wTest, hTest) * (isNew || !isCorrelatorTemplateSet ? 5 : 3) / 3;
+		if ((double) nPoints * nOpaque < cost)
+			return null;
+		if (isNew) {
+			correlator = new TemplateCorrelator(wTest, hTest, wTemplate, hTemplate);
+			isCorrelatorTemplateSet = false;
+		}
+		if (!isCorrelatorTemplateSet) {
+			correlator.setTemplate(templateR, templateG, templateB, isPixelTransparent);
+			isCorrelatorTemplateSet = true;
+		}
+		return correlator.getSSD(targetPixels);
+	}
+
+	/**
+	 * Finds the best match in a rectangle of test points by a coarse-to-fine
+	 * search of an image pyramid. Returns null if the template is too small to
+	 * reduce.
+	 *
+	 * @param sw the width of the rectangle of test points
+	 * @param sh the height of the rectangle of test points
+	 * @return the best test point {x, y}, or null
+	 */
+	private int[] getPyramidMatch(int sw, int sh) {
+		Level[] pyramid = new Level[pyramidLevels + 1];
+		pyramid[0] = new Level(targetPixels, wTest, hTest, templateR, templateG, templateB, isPixelTransparent,
+				wTemplate, hTemplate);
+		int top = 0;
+		while (top < pyramidLevels) {
+			Level next = pyramid[top].reduce();
+			if (next == null)
+				break;
+			pyramid[++top] = next;
+		}
+		if (top == 0)
+			return null;
+		// search all points at the top level
+		Level level = pyramid[top];
+		int[] best = level.getBestMatch(0, level.wTest - level.wTemplate, 0, level.hTest - level.hTemplate);
+		// refine near the best match at each finer level
+		for (int i = top - 1; i >= 0; i--) {
+			level = pyramid[i];
+			int xMax = (i == 0 ? sw - 1 : level.wTest - level.wTemplate);
+			int yMax = (i == 0 ? sh - 1 : level.hTest - level.hTemplate);
+			int x = 2 * best[0], y = 2 * best[1];
+			best = level.getBestMatch(Math.max(0, x - PYRAMID_REFINE), Math.min(xMax, x + PYRAMID_REFINE),
+					Math.max(0, y - PYRAMID_REFINE), Math.min(yMax, y + PYRAMID_REFINE));
+		}
+		return best;
+	}
+
+	/**
+	 * Gets the mean RGBSqD over a rectangle of test points without computing it at
+	 * each point. The sum over all points of the RGBSqD for one template pixel
+	 * depends only on sums of the test pixel values over a rectangle, which
+	 * summed-area tables provide directly.
+	 *
+	 * @param sw the width of the rectangle of test points
+	 * @param sh the height of the rectangle of test points
+	 * @return the mean RGBSqD
+	 */
+	private double getMeanDiffSquared(int sw, int sh) {
+		int w1 = wTest + 1;
+		int len = w1 * (hTest + 1);
+		long[] sumR = new long[len], sumG = new long[len], sumB = new long[len], sumSq = new long[len];
+		for (int j = 0, pt = 0; j < hTest; j++) {
+			long rowR = 0, rowG = 0, rowB = 0, rowSq = 0;
+			for (int i = 0; i < wTest; i++, pt++) {
+				int pixel = targetPixels[pt];
+				int r = (pixel >> 16) & 0xff, g = (pixel >> 8) & 0xff, b = pixel & 0xff;
+				rowR += r;
+				rowG += g;
+				rowB += b;
+				rowSq += r * r + g * g + b * b;
+				int k = (j + 1) * w1 + i + 1;
+				sumR[k] = sumR[k - w1] + rowR;
+				sumG[k] = sumG[k - w1] + rowG;
+				sumB[k] = sumB[k - w1] + rowB;
+				sumSq[k] = sumSq[k - w1] + rowSq;
+			}
+		}
+		long n = (long) sw * sh;
+		long total = 0;
+		for (int j = 0, tpt = 0; j < hTemplate; j++) {
+			for (int i = 0; i < wTemplate; i++, tpt++) {
+				if (isPixelTransparent[tpt])
+					continue;
+				// corners of the rectangle of test pixels under this template pixel
+				int k00 = j * w1 + i, k01 = k00 + sw, k10 = k00 + sh * w1, k11 = k10 + sw;
+				int r = templateR[tpt], g = templateG[tpt], b = templateB[tpt];
+				total += n * (r * r + g * g + b * b)
+						- 2 * (r * (sumR[k11] - sumR[k10] - sumR[k01] + sumR[k00])
+								+ g * (sumG[k11] - sumG[k10] - sumG[k01] + sumG[k00])
+								+ b * (sumB[k11] - sumB[k10] - sumB[k01] + sumB[k00]))
+						+ (sumSq[k11] - sumSq[k10] - sumSq[k01] + sumSq[k00]);
+			}
+		}
+		return (double) total / n;
+	}
+
 	/**
 	 * Gets an array of points [x, y] that lie within pixels in a rectangle and
 	 * along a line.
@@ -819,4 +1009,107 @@ public class TemplateMatcher {
 
 
 
+	/**
+	 * A test image and template at one level of an image pyramid.
+	 */
+	private static class Level {
+
+		int[] test; // rgb pixels
+		int wTest, hTest, wTemplate, hTemplate;
+		int[] templateR, templateG, templateB;
+		boolean[] transparent;
+
+		Level(int[] test, int wTest, int hTest, int[] templateR, int[] templateG, int[] templateB,
+				boolean[] transparent, int wTemplate, int hTemplate) {
+			this.test = test;
+			this.wTest = wTest;
+			this.hTest = hTest;
+			this.templateR = templateR;
+			this.templateG = templateG;
+			this.templateB = templateB;
+			this.transparent = transparent;
+			this.wTemplate = wTemplate;
+			this.hTemplate = hTemplate;
+		}
+
+		/**
+		 * Gets the next level by averaging 2x2 blocks of pixels. A template pixel at
+		 * the next level is transparent if any of its block is.
+		 *
+		 * @return the next level, or null if the template would be too small
+		 */
+		Level reduce() {
+			int w = wTest / 2, h = hTest / 2, wT = wTemplate / 2, hT = hTemplate / 2;
+			if (wT < 2 || hT < 2 || w < wT || h < hT)
+				return null;
+			int[] pixels = new int[w * h];
+			for (int j = 0, pt = 0; j < h; j++) {
+				for (int i = 0; i < w; i++, pt++) {
+					int k = 2 * j * wTest + 2 * i;
+					int p0 = test[k], p1 = test[k + 1], p2 = test[k + wTest], p3 = test[k + wTest + 1];
+					int r = (((p0 >> 16) & 0xff) + ((p1 >> 16) & 0xff) + ((p2 >> 16) & 0xff) + ((p3 >> 16) & 0xff) + 2) >> 2;
+					int g = (((p0 >> 8) & 0xff) + ((p1 >> 8) & 0xff) + ((p2 >> 8) & 0xff) + ((p3 >> 8) & 0xff) + 2) >> 2;
+					int b = ((p0 & 0xff) + (p1 & 0xff) + (p2 & 0xff) + (p3 & 0xff) + 2) >> 2;
+					pixels[pt] = (r << 16) | (g << 8) | b;
+				}
+			}
+			int len = wT * hT;
+			int[] r = new int[len], g = new int[len], b = new int[len];
+			boolean[] clear = new boolean[len];
+			boolean isOpaque = false;
+			for (int j = 0, pt = 0; j < hT; j++) {
+				for (int i = 0; i < wT; i++, pt++) {
+					int k = 2 * j * wTemplate + 2 * i;
+					int k2 = k + wTemplate;
+					clear[pt] = transparent[k] || transparent[k + 1] || transparent[k2] || transparent[k2 + 1];
+					isOpaque = isOpaque || !clear[pt];
+					r[pt] = (templateR[k] + templateR[k + 1] + templateR[k2] + templateR[k2 + 1] + 2) >> 2;
+					g[pt] = (templateG[k] + templateG[k + 1] + templateG[k2] + templateG[k2 + 1] + 2) >> 2;
+					b[pt] = (templateB[k] + templateB[k + 1] + templateB[k2] + templateB[k2 + 1] + 2) >> 2;
+				}
+			}
+			return isOpaque ? new Level(pixels, w, h, r, g, b, clear, wT, hT) : null;
+		}
+
+		/**
+		 * Gets the test point with the minimum RGBSqD in a range.
+		 *
+		 * @return the best test point {x, y}
+		 */
+		int[] getBestMatch(int xMin, int xMax, int yMin, int yMax) {
+			long min = Long.MAX_VALUE;
+			int[] best = new int[] { xMin, yMin };
+			for (int y = yMin; y <= yMax; y++) {
+				for (int x = xMin; x <= xMax; x++) {
+					long diff = getDiffSquared(x, y);
+					if (diff < min) {
+						min = diff;
+						best[0] = x;
+						best[1] = y;
+					}
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Gets the RGBSqD with the top left corner of the template at a test point.
+		 */
+		long getDiffSquared(int x, int y) {
+			long diff = 0;
+			for (int j = 0, tpt = 0, k = y * wTest + x, dw = wTest - wTemplate; j < hTemplate; j++, k += dw) {
+				for (int i = 0; i < wTemplate; i++, tpt++, k++) {
+					if (!transparent[tpt]) {
+						int pixel = test[k];
+						int dr = templateR[tpt] - ((pixel >> 16) & 0xff);
+						int dg = templateG[tpt] - ((pixel >> 8) & 0xff);
+						int db = templateB[tpt] - (pixel & 0xff);
+						diff += dr * dr + dg * dg + db * db;
+					}
+				}
+			}
+			return diff;
+		}
+	}
+
 }
@@ -1095,10 +1095,8 @@ public abstract class VideoAdapter extends OSPRuntime.Supported implements Video
 		refreshBufferedImage();
 		if (!isValidImage) { // bufferedImage needs refreshing
 			isValidImage = true;
-			Graphics g = bufferedImage.createGraphics();
 			// bufferedImage.setData(clearRaster);
-			g.drawImage(rawImage, 0, 0, null);
-			g.dispose();
+			FrameBuffer.copy(rawImage, bufferedImage);
 		}
 	}
 
@@ -77,7 +77,6 @@ public class VideoGrabber extends VideoCaptureTool {
 	boolean saved = false;
 	int frameCount = 0;
 	Dimension imageSize;
-	int[] pixels = new int[1];
 	Map<String, VideoType> vidTypes = new HashMap<String, VideoType>();
 	boolean previewAll = false;
 
@@ -160,9 +159,6 @@ public class VideoGrabber extends VideoCaptureTool {
 					h = image.getHeight();
 				}
 				// end of added code
-				if (pixels.length != w * h) {
-					pixels = new int[w * h];
-				}
 				boolean newScratch = false;
 				if (previewAll) {
 					scratch = null;
@@ -171,8 +167,8 @@ public class VideoGrabber extends VideoCaptureTool {
 					newScratch = true;
 				}
 				BufferedImage copy = previewAll ? new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB) : scratch;
-				image.getRaster().getDataElements(0, 0, w, h, pixels);
-				copy.getRaster().setDataElements(0, 0, w, h, pixels);
+				// copy the pixels straight into the frame's pixel array
+				image.getRaster().getDataElements(0, 0, w, h, FrameBuffer.getPixels(copy));
 				Video video = recorderPanel.getVideo();
 				if (video == null) { // first frame added
 					recorderPanel.setVideo(new ImageVideo(copy));
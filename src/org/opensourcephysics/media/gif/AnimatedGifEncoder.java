@@ -38,6 +38,15 @@ import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.opensourcephysics.display.OSPRuntime;
+import org.opensourcephysics.media.core.FrameBuffer;
 
 /**
  * Class AnimatedGifEncoder - Encodes a GIF file consisting of one or
@@ -51,6 +60,11 @@ import java.io.OutputStream;
  *    e.addFrame(image2);
  *    e.finish();
  * </pre>
+ * When pipelined, frames are quantized on worker threads and written in
+ * order by a single writer thread, so addFrame returns as soon as the frame
+ * pixels are copied. With a global palette, the palette of the first frame
+ * is used for all frames, so only the first frame trains a quantizer.
+ * <br>
  * No copyright asserted on the source code of this class.  May be used
  * for any purpose, however, refer to the Unisys LZW patent for restrictions
  * on use of the associated LZWEncoder class.  Please forward any corrections
@@ -81,6 +95,32 @@ public class AnimatedGifEncoder {
   protected boolean firstFrame = true;
   protected boolean sizeSet = false;                // if false, get size from first frame
   protected int sample = 10;                        // default sample interval for quantizer
+  protected boolean globalPalette = false;          // use first frame's palette for all frames
+  protected boolean pipelined = false;              // quantize and write frames on worker threads
+  protected NeuQuant globalQuant;                   // quantizer of first frame if global palette
+  protected byte[] globalColorTab;                  // palette of first frame if global palette
+  protected ExecutorService quantizers;             // quantizes frames when pipelined
+  protected ExecutorService writer;                 // writes frames in order when pipelined
+  protected Future<Frame> firstFrameResult;         // quantized first frame when pipelined
+  protected Semaphore pendingFrames;                // limits frames in the pipeline
+  protected volatile boolean failed;                // a pipelined write failed
+
+  /**
+   * A frame waiting to be quantized and written by the pipeline.
+   */
+  protected static class Frame {
+    byte[] pixels;                                  // BGR pixels
+    byte[] indexedPixels;                           // pixels indexed to palette
+    byte[] colorTab;                                // RGB palette
+    boolean[] usedEntry = new boolean[256];         // active palette entries
+    Color transparent;                              // transparent color if given
+    int transIndex;                                 // transparent index in color table
+    int delay;                                      // frame delay (hundredths)
+    int dispose;                                    // disposal code
+    int sample;                                     // sample interval for quantizer
+    boolean first;                                  // first frame
+
+  }
 
   /**
    * Sets the delay time between each frame, or changes it
@@ -104,6 +144,56 @@ public class AnimatedGifEncoder {
     }
   }
 
+  /**
+   * Sets the global palette property. When true, the color table of the first
+   * frame is written as the global color table and used for all frames, so no
+   * other frame trains a quantizer or writes a local color table. This is much
+   * faster and makes files smaller when the colors do not change much.
+   * Must be invoked before the first image is added.
+   *
+   * @param global true to use a global palette
+   */
+  public void setGlobalPalette(boolean global) {
+    if(started&&!firstFrame) {
+      return;
+    }
+    globalPalette = global;
+  }
+
+  /**
+   * Gets the global palette property.
+   *
+   * @return true if using a global palette
+   */
+  public boolean isGlobalPalette() {
+    return globalPalette;
+  }
+
+  /**
+   * Sets the pipelined property. When true, addFrame only copies the frame
+   * pixels: frames are quantized on worker threads and written in order by a
+   * single writer thread, and finish() waits until all frames are written.
+   * An error writing a frame is reported by the next call to addFrame or
+   * finish. Must be invoked before start. Ignored in JavaScript.
+   *
+   * @param pipeline true to pipeline encoding
+   */
+  public void setPipelined(boolean pipeline) {
+    if(started) {
+      return;
+    }
+    pipelined = pipeline&&!OSPRuntime.isJS;
+  }
+
+  /**
+   * Gets the pipelined property.
+   *
+   * @return true if pipelined
+   */
+  public boolean isPipelined() {
+    return pipelined;
+  }
+
   /**
    * Sets the number of times the set of GIF frames
    * should be played.  Default is 1; 0 means play
@@ -154,6 +244,9 @@ public class AnimatedGifEncoder {
       }
       image = im;
       getImagePixels();      // convert to correct format if necessary
+      if(pipelined) {
+        return addPipelinedFrame(im);
+      }
       analyzePixels();       // build color table & map pixels
       if(firstFrame) {
         writeLSD();          // logical screen descriptior
@@ -165,17 +258,100 @@ public class AnimatedGifEncoder {
       }
       writeGraphicCtrlExt(); // write graphic control extension
       writeImageDesc();      // image descriptor
-      if(!firstFrame) {
+      if(!firstFrame&&!globalPalette) {
         writePalette();      // local color table
       }
       writePixels();         // encode and write pixel data
       firstFrame = false;
+    } catch(InterruptedException e) {
+      // interrupted while waiting for the pipeline: the GIF can't be completed
+      Thread.currentThread().interrupt();
+      failed = true;
+      stopPipeline();
+      return false;
     } catch(Exception e) {
       return false;
     }
     return true;
   }
 
+  /**
+   * Passes the current frame pixels to the pipeline.
+   *
+   * @param im the image the pixels were extracted from
+   * @return true if successful
+   * @throws InterruptedException if interrupted while waiting for the pipeline
+   */
+  protected boolean addPipelinedFrame(BufferedImage im) throws InterruptedException {
+    if(failed) {
+      return false;
+    }
+    pendingFrames.acquire();
+    Frame frame = new Frame();
+    // copy pixels the caller may reuse
+    frame.pixels = (image==im) ? pixels.clone() : pixels;
+    frame.transparent = transparent;
+    frame.delay = delay;
+    frame.dispose = dispose;
+    frame.sample = sample;
+    frame.first = firstFrame;
+    image = null;
+    pixels = null;
+    firstFrame = false;
+    Future<Frame> quantized = quantizers.submit(() -> {
+      NeuQuant nq = null;
+      if(globalPalette&&!frame.first) {
+        firstFrameResult.get();
+        nq = globalQuant;
+      }
+      quantize(frame, nq);
+      return frame;
+    });
+    if(frame.first) {
+      firstFrameResult = quantized;
+    }
+    writer.execute(() -> {
+      try {
+        if(!failed) {
+          writeFrame(quantized.get());
+        }
+      } catch(Exception ex) {
+        failed = true;
+      } finally {
+        pendingFrames.release();
+      }
+    });
+    return true;
+  }
+
+  /**
+   * Writes a quantized frame. Called by the writer thread when pipelined.
+   *
+   * @param frame the frame
+   * @throws IOException
+   */
+  protected void writeFrame(Frame frame) throws IOException {
+    indexedPixels = frame.indexedPixels;
+    colorTab = frame.colorTab;
+    colorDepth = 8;
+    palSize = 7;
+    if(frame.first) {
+      writeLSD();          // logical screen descriptior
+      writePalette();      // global color table
+      if(repeat>=0) {
+        // use NS app extension to indicate reps
+        writeNetscapeExt();
+      }
+    }
+    writeGraphicCtrlExt(frame.transparent, frame.dispose, frame.delay, frame.transIndex);
+    writeImageDesc(!frame.first&&!globalPalette);
+    if(!frame.first&&!globalPalette) {
+      writePalette();      // local color table
+    }
+    writePixels();         // encode and write pixel data
+    indexedPixels = null;
+  }
+
   /**
    * Flushes any pending data and closes output file.
    * If writing to an OutputStream, the stream is not closed.
@@ -188,6 +364,16 @@ public class AnimatedGifEncoder {
     }
     boolean ok = true;
     started = false;
+    if(writer!=null) {
+      // wait for pipelined frames to be written
+      try {
+        writer.submit(() -> {}).get();
+      } catch(InterruptedException | ExecutionException ex) {
+        ok = false;
+      }
+      stopPipeline();
+    }
+    ok = ok&&!failed;
     try {
       out.write(0x3b); // gif trailer
       out.flush();
@@ -204,8 +390,11 @@ public class AnimatedGifEncoder {
     pixels = null;
     indexedPixels = null;
     colorTab = null;
+    globalQuant = null;
+    globalColorTab = null;
     closeStream = false;
     firstFrame = true;
+    failed = false;
     return ok;
   }
 
@@ -280,6 +469,9 @@ public class AnimatedGifEncoder {
     } catch(IOException e) {
       ok = false;
     }
+    if(ok&&pipelined) {
+      startPipeline();
+    }
     return started = ok;
   }
 
@@ -301,36 +493,112 @@ public class AnimatedGifEncoder {
     return started = ok;
   }
 
+  /**
+   * Starts the worker threads of the pipeline.
+   */
+  protected void startPipeline() {
+    int n = Runtime.getRuntime().availableProcessors();
+    quantizers = createExecutor(n);
+    writer = createExecutor(1);
+    pendingFrames = new Semaphore(2*n+2);
+    failed = false;
+  }
+
+  /**
+   * Stops the worker threads of the pipeline. Frames not yet written are
+   * discarded.
+   */
+  protected void stopPipeline() {
+    if(writer==null) {
+      return;
+    }
+    writer.shutdownNow();
+    quantizers.shutdownNow();
+    writer = quantizers = null;
+    firstFrameResult = null;
+  }
+
+  /**
+   * Creates an executor with daemon threads.
+   *
+   * @param threads the number of threads
+   * @return the executor
+   */
+  private static ExecutorService createExecutor(int threads) {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(), (r) -> {
+        Thread t = new Thread(r, "AnimatedGifEncoder"); //$NON-NLS-1$
+        t.setDaemon(true);
+        t.setPriority(Thread.NORM_PRIORITY-1);
+        return t;
+      });
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
   /**
    * Analyzes image colors and creates color map.
    */
   protected void analyzePixels() {
-    int len = pixels.length;
+    Frame frame = new Frame();
+    frame.pixels = pixels;
+    frame.transparent = transparent;
+    frame.sample = sample;
+    quantize(frame, globalPalette ? globalQuant : null);
+    indexedPixels = frame.indexedPixels;
+    colorTab = frame.colorTab;
+    usedEntry = frame.usedEntry;
+    pixels = null;
+    colorDepth = 8;
+    palSize = 7;
+    // get closest match to transparent color if specified
+    if(transparent!=null) {
+      transIndex = frame.transIndex;
+    }
+  }
+
+  /**
+   * Creates a color map for a frame, or uses the global one, and maps the frame
+   * pixels to it. When a global palette is used, the quantizer of the first
+   * frame becomes the global quantizer.
+   *
+   * @param frame the frame
+   * @param nq the global quantizer, or null to train a quantizer for the frame
+   */
+  protected void quantize(Frame frame, NeuQuant nq) {
+    int len = frame.pixels.length;
     int nPix = len/3;
-    indexedPixels = new byte[nPix];
-    NeuQuant nq = new NeuQuant(pixels, len, sample);
-    // initialize quantizer
-    colorTab = nq.process(); // create reduced palette
-    // convert map from BGR to RGB
-    for(int i = 0; i<colorTab.length; i += 3) {
-      byte temp = colorTab[i];
-      colorTab[i] = colorTab[i+2];
-      colorTab[i+2] = temp;
-      usedEntry[i/3] = false;
+    byte[] pix = frame.pixels;
+    frame.indexedPixels = new byte[nPix];
+    if(nq==null) {
+      nq = new NeuQuant(pix, len, frame.sample);
+      // initialize quantizer
+      byte[] tab = nq.process(); // create reduced palette
+      // convert map from BGR to RGB
+      for(int i = 0; i<tab.length; i += 3) {
+        byte temp = tab[i];
+        tab[i] = tab[i+2];
+        tab[i+2] = temp;
+      }
+      frame.colorTab = tab;
+      if(globalPalette) {
+        globalColorTab = tab;
+        globalQuant = nq;
+      }
+    } else {
+      frame.colorTab = globalColorTab;
     }
     // map image pixels to new palette
+    boolean[] used = frame.usedEntry;
     int k = 0;
     for(int i = 0; i<nPix; i++) {
-      int index = nq.map(pixels[k++]&0xff, pixels[k++]&0xff, pixels[k++]&0xff);
-      usedEntry[index] = true;
-      indexedPixels[i] = (byte) index;
+      int index = nq.map(pix[k++]&0xff, pix[k++]&0xff, pix[k++]&0xff);
+      used[index] = true;
+      frame.indexedPixels[i] = (byte) index;
     }
-    pixels = null;
-    colorDepth = 8;
-    palSize = 7;
-    // get closest match to transparent color if specified
-    if(transparent!=null) {
-      transIndex = findClosest(transparent);
+    frame.pixels = null;
+    if(frame.transparent!=null) {
+      frame.transIndex = findClosest(frame.transparent, frame.colorTab, used);
     }
   }
 
@@ -339,6 +607,18 @@ public class AnimatedGifEncoder {
    *
    */
   protected int findClosest(Color c) {
+    return findClosest(c, colorTab, usedEntry);
+  }
+
+  /**
+   * Returns index of the used palette color closest to c
+   *
+   * @param c the color
+   * @param colorTab the RGB palette
+   * @param usedEntry the active palette entries
+   * @return the index, or -1 if no palette
+   */
+  protected static int findClosest(Color c, byte[] colorTab, boolean[] usedEntry) {
     if(colorTab==null) {
       return -1;
     }
@@ -370,6 +650,20 @@ public class AnimatedGifEncoder {
     int w = image.getWidth();
     int h = image.getHeight();
     int type = image.getType();
+    int[] rgb = ((w==width)&&(h==height)&&(type==BufferedImage.TYPE_INT_RGB)&&!OSPRuntime.isJS)
+                ? FrameBuffer.getPixels(image) : null;
+    if(rgb!=null) {
+      // convert packed RGB directly to BGR bytes
+      pixels = new byte[3*rgb.length];
+      for(int i = 0, k = 0; i<rgb.length; i++) {
+        int c = rgb[i];
+        pixels[k++] = (byte) c;
+        pixels[k++] = (byte) (c>>8);
+        pixels[k++] = (byte) (c>>16);
+      }
+      image = null;
+      return;
+    }
     if((w!=width)||(h!=height)||(type!=BufferedImage.TYPE_3BYTE_BGR)) {
       // create new image with right size/format
       BufferedImage temp = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
@@ -386,6 +680,13 @@ public class AnimatedGifEncoder {
    * Writes Graphic Control Extension
    */
   protected void writeGraphicCtrlExt() throws IOException {
+    writeGraphicCtrlExt(transparent, dispose, delay, transIndex);
+  }
+
+  /**
+   * Writes Graphic Control Extension with the given frame settings
+   */
+  protected void writeGraphicCtrlExt(Color transparent, int dispose, int delay, int transIndex) throws IOException {
     out.write(0x21); // extension introducer
     out.write(0xf9); // GCE label
     out.write(4);    // data block size
@@ -415,13 +716,20 @@ public class AnimatedGifEncoder {
    * Writes Image Descriptor
    */
   protected void writeImageDesc() throws IOException {
+    writeImageDesc(!firstFrame&&!globalPalette);
+  }
+
+  /**
+   * Writes Image Descriptor, specifying a local color table if requested
+   */
+  protected void writeImageDesc(boolean localTable) throws IOException {
     out.write(0x2c);   // image separator
     writeShort(0);     // image position x,y = 0,0
     writeShort(0);
     writeShort(width); // image size
     writeShort(height);
     // packed fields
-    if(firstFrame) {
+    if(!localTable) {
       // no LCT  - GCT is used for first (or only) frame
       out.write(0);
     } else {
@@ -182,12 +182,7 @@ public class GifDecoder {
     if(lastDispose>0) {
       if(lastDispose==3) {
         // use image before last
-        int n = frameCount-2;
-        if(n>0) {
-          lastImage = getFrame(n-1);
-        } else {
-          lastImage = null;
-        }
+        lastImage = getRestoreImage();
       }
       if(lastImage!=null) {
         int[] prev = ((DataBufferInt) lastImage.getRaster().getDataBuffer()).getData();
@@ -256,6 +251,17 @@ public class GifDecoder {
     }
   }
 
+  /**
+   * Gets the image to restore when the previous frame's disposal method is 3
+   * (restore to previous) while the current frame is being read.
+   *
+   * @return the frame before the previous frame, or null if none
+   */
+  protected BufferedImage getRestoreImage() {
+    int n = frameCount-2;
+    return (n>0) ? getFrame(n-1) : null;
+  }
+
   /**
    * Gets the image contents of frame n.
    *
@@ -163,7 +163,7 @@ public class GifVideo extends VideoAdapter {
 	 * @throws IOException
 	 */
 	protected void load(String gifName) throws IOException {
-		decoder = new GifDecoder();
+		decoder = new StreamingGifDecoder();
 		int status = decoder.read(gifName);
 		if (status == GifDecoder.STATUS_OPEN_ERROR) {
 			throw new IOException("Gif " + gifName + " not found"); //$NON-NLS-1$ //$NON-NLS-2$
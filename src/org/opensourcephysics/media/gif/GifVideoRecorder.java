@@ -31,9 +31,9 @@
  */
 package org.opensourcephysics.media.gif;
 import java.awt.Dimension;
-import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
+import org.opensourcephysics.media.core.FrameBuffer;
 import org.opensourcephysics.media.core.ScratchVideoRecorder;
 
 /**
@@ -45,12 +45,14 @@ import org.opensourcephysics.media.core.ScratchVideoRecorder;
 public class GifVideoRecorder extends ScratchVideoRecorder {
   // instance fields
   private AnimatedGifEncoder encoder = new AnimatedGifEncoder();
+  private FrameBuffer buffer; // for images that are not BufferedImages
 
   /**
    * Constructs a GifVideoRecorder object.
    */
   public GifVideoRecorder() {
     super(new GifVideoType());
+    encoder.setPipelined(true); // don't stall captures while encoding
   }
 
   /**
@@ -118,10 +120,10 @@ protected boolean append(Image image) {
       if(dim==null) {
         return false;
       }
-      bi = new BufferedImage(dim.width, dim.height, BufferedImage.TYPE_INT_RGB);
-      Graphics2D g = bi.createGraphics();
-      g.drawImage(image, 0, 0, null);
-      g.dispose();
+      // the encoder copies the pixels, so the buffer can be reused
+      buffer = FrameBuffer.acquire(buffer, dim.width, dim.height);
+      buffer.setImage(image);
+      bi = buffer.getImage();
     }
     encoder.addFrame(bi);
     return true;
@@ -0,0 +1,435 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+/*
+ * The org.opensourcephysics.media.gif package provides animated gif
+ * implementations of the Video and VideoRecorder interfaces.
+ *
+ * Copyright (c) 2024  Douglas Brown and Wolfgang Christian.
+ *
+ * This is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * For additional information and documentation on Open Source Physics,
+ * please see <http://www.opensourcephysics.org/>.
+ */
+package org.opensourcephysics.media.gif;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class StreamingGifDecoder - A GifDecoder that decodes frames on demand.
+ * <br>
+ * Reading a GIF only indexes its frames: the undecoded file is kept in memory
+ * and the position and graphic control values of each frame are recorded.
+ * getFrame() then decodes frames as they are requested and keeps the most
+ * recently used ones in a small cache, so memory use no longer grows with
+ * the number of frames.
+ * <br>
+ * A frame usually has to be composed on top of the previous frame(s) as
+ * specified by their disposal methods. Frames that do not depend on earlier
+ * frames (the first frame, and opaque frames that cover the whole image) are
+ * decoded directly, and every CHECKPOINT_INTERVAL-th decoded frame is kept as
+ * a checkpoint, so a random seek decodes at most CHECKPOINT_INTERVAL frames
+ * once the checkpoints before it exist. The MAX_CHECKPOINTS most recently used
+ * checkpoints are kept, so memory use stays bounded for long GIFs too.
+ *
+ * @version 1.0
+ */
+public class StreamingGifDecoder extends GifDecoder {
+  protected static final int DEFAULT_CACHE_SIZE = 8; // decoded frames cached
+  protected static final int CHECKPOINT_INTERVAL = 16; // frames between seek checkpoints
+  protected static final int MAX_CHECKPOINTS = 32; // checkpoints kept
+  protected byte[] data;                 // undecoded GIF data
+  protected ArrayList<FrameInfo> index;  // frame index
+  protected boolean indexing;            // true while reading the index
+  protected int cacheSize = DEFAULT_CACHE_SIZE;
+  protected Map<Integer, BufferedImage> checkpoints = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+      return size()>MAX_CHECKPOINTS;
+    }
+
+  };
+  protected Map<Integer, BufferedImage> cache = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+      return size()>cacheSize;
+    }
+
+  };
+  private BufferedImage restoreImage; // image to restore while decoding a frame
+
+  /**
+   * Index entry with the position and drawing state of a frame.
+   */
+  static class FrameInfo {
+    int offset;           // position of the image descriptor
+    int dispose;          // disposal method
+    boolean transparency; // use transparent color
+    int transIndex;       // transparent color index
+    int delay;            // delay in milliseconds
+    Rectangle rect;       // image rectangle
+    int bgColor;          // background color after reading the frame
+    boolean keyFrame;     // true if decoded without earlier frames
+
+  }
+
+  /**
+   * Input stream over the undecoded GIF data that can be repositioned.
+   */
+  static class ByteSource extends BufferedInputStream {
+    private byte[] bytes;
+    private ByteArrayInputStream source;
+
+    ByteSource(byte[] bytes) {
+      super(new ByteArrayInputStream(bytes));
+      this.bytes = bytes;
+      source = (ByteArrayInputStream) in;
+    }
+
+    /**
+     * Gets the position of the next byte to be read.
+     *
+     * @return the position
+     */
+    synchronized int getPosition() {
+      return bytes.length-source.available()-(count-pos);
+    }
+
+    /**
+     * Moves to a position.
+     *
+     * @param position the position of the next byte to be read
+     */
+    synchronized void seek(int position) {
+      in = source = new ByteArrayInputStream(bytes, position, bytes.length-position);
+      count = pos = 0;
+      markpos = -1;
+    }
+
+  }
+
+  /**
+   * Gets display duration for specified frame.
+   *
+   * @param n int index of frame
+   * @return delay in milliseconds, or -1 if n is invalid
+   */
+  @Override
+  public int getDelay(int n) {
+    if((n>=0)&&(n<frameCount)) {
+      return index.get(n).delay;
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the image contents of frame n, decoding it if it is not cached.
+   *
+   * @param n the frame number
+   * @return BufferedImage representation of frame, or null if n is invalid.
+   */
+  @Override
+  public synchronized BufferedImage getFrame(int n) {
+    if((n<0)||(n>=frameCount)) {
+      return null;
+    }
+    BufferedImage im = getDecodedFrame(n);
+    if(im!=null) {
+      return im;
+    }
+    // find the nearest frame that can be decoded and decode forward from it
+    int start = n;
+    while(!isDecodable(start)) {
+      start--;
+    }
+    for(int i = start; i<=n; i++) {
+      im = getDecodedFrame(i);
+      if(im==null) {
+        if(!isDecodable(i)) {
+          // restores a frame before the start
+          getFrame(getPrerequisite(i));
+        }
+        im = decodeFrame(i);
+        if(im==null) {
+          return null;
+        }
+      }
+    }
+    return im;
+  }
+
+  /**
+   * Sets the maximum number of decoded frames kept in the cache.
+   * Up to MAX_CHECKPOINTS checkpoints are kept in addition to these.
+   *
+   * @param size the cache size (minimum 2)
+   */
+  public synchronized void setCacheSize(int size) {
+    cacheSize = Math.max(2, size);
+    while(cache.size()>cacheSize) {
+      cache.remove(cache.keySet().iterator().next());
+    }
+  }
+
+  /**
+   * Gets the maximum number of decoded frames kept in the cache.
+   *
+   * @return the cache size
+   */
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * Reads and indexes GIF image from stream. Frames are decoded by getFrame().
+   *
+   * @param input the BufferedInputStream containing GIF file.
+   * @return read status code (0 = no errors)
+   */
+  @Override
+  public synchronized int read(BufferedInputStream input) {
+    init();
+    if(input==null) {
+      status = STATUS_OPEN_ERROR;
+      return status;
+    }
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int n;
+      while((n = input.read(buffer))>0) {
+        out.write(buffer, 0, n);
+      }
+      data = out.toByteArray();
+    } catch(IOException ex) {
+      status = STATUS_FORMAT_ERROR;
+    }
+    try {
+      input.close();
+    } catch(IOException ex) {
+
+      /** empty block */
+    }
+    if(err()) {
+      return status;
+    }
+    in = new ByteSource(data);
+    readHeader();
+    if(!err()) {
+      indexing = true;
+      readContents();
+      indexing = false;
+      if(frameCount<0) {
+        status = STATUS_FORMAT_ERROR;
+      }
+    }
+    return status;
+  }
+
+  /**
+   * Gets the frame before the previous frame while a frame is being decoded.
+   *
+   * @return the frame to restore, or null if none
+   */
+  @Override
+  protected BufferedImage getRestoreImage() {
+    return restoreImage;
+  }
+
+  /**
+   * Initializes or re-initializes reader
+   */
+  @Override
+  protected void init() {
+    super.init();
+    data = null;
+    index = new ArrayList<FrameInfo>();
+    cache.clear();
+    checkpoints.clear();
+    lastDispose = 0;
+  }
+
+  /**
+   * Reads the next frame image descriptor and skips its data, adding the frame
+   * to the index. When not indexing, decodes the frame.
+   */
+  @Override
+  protected void readImage() {
+    if(!indexing) {
+      super.readImage();
+      return;
+    }
+    int offset = ((ByteSource) in).getPosition();
+    ix = readShort(); // (sub)image position & size
+    iy = readShort();
+    iw = readShort();
+    ih = readShort();
+    int packed = read();
+    lctFlag = (packed&0x80)!=0;
+    lctSize = 2<<(packed&7);
+    if(lctFlag) {
+      act = readColorTable(lctSize);
+    } else {
+      act = gct;
+      if(bgIndex==transIndex) {
+        bgColor = 0;
+      }
+    }
+    if(act==null) {
+      status = STATUS_FORMAT_ERROR; // no color table defined
+    }
+    if(err()) {
+      return;
+    }
+    read(); // LZW minimum code size
+    skip(); // image data
+    if(err()) {
+      return;
+    }
+    FrameInfo info = new FrameInfo();
+    info.offset = offset;
+    info.dispose = dispose;
+    info.transparency = transparency;
+    info.transIndex = transIndex;
+    info.delay = delay;
+    info.rect = new Rectangle(ix, iy, iw, ih);
+    info.bgColor = bgColor;
+    info.keyFrame = (frameCount==0)||(lastDispose==0)
+                    ||(!transparency&&(ix<=0)&&(iy<=0)&&(ix+iw>=width)&&(iy+ih>=height));
+    index.add(info);
+    frameCount++;
+    resetFrame();
+  }
+
+  /**
+   * Decodes frame n. The frames it is drawn on must already be decoded.
+   *
+   * @param n the frame number
+   * @return the frame image, or null if it could not be decoded
+   */
+  protected BufferedImage decodeFrame(int n) {
+    FrameInfo info = index.get(n);
+    if(n>0) {
+      FrameInfo last = index.get(n-1);
+      lastDispose = last.dispose;
+      lastRect = last.rect;
+      lastBgColor = last.bgColor;
+      lastImage = getDecodedFrame(n-1);
+      restoreImage = (n>1) ? getDecodedFrame(n-2) : null;
+    } else {
+      lastDispose = 0;
+      lastImage = restoreImage = null;
+    }
+    dispose = info.dispose;
+    transparency = info.transparency;
+    transIndex = info.transIndex;
+    delay = info.delay;
+    ((ByteSource) in).seek(info.offset);
+    // readImage counts and lists the frame, so restore the indexed count
+    int count = frameCount;
+    int prevStatus = status;
+    frameCount = n;
+    status = STATUS_OK;
+    readImage();
+    BufferedImage im = (frameCount>n) ? image : null;
+    frameCount = count;
+    status = prevStatus;
+    frames.clear();
+    lastImage = restoreImage = null;
+    if(im!=null) {
+      cache.put(n, im);
+      if((n%CHECKPOINT_INTERVAL==0)&&!info.keyFrame) {
+        checkpoints.put(n, im);
+      }
+    }
+    return im;
+  }
+
+  /**
+   * Gets frame n if it is cached or a checkpoint.
+   *
+   * @param n the frame number
+   * @return the frame image, or null if not decoded
+   */
+  protected BufferedImage getDecodedFrame(int n) {
+    BufferedImage im = cache.get(n);
+    return (im!=null) ? im : checkpoints.get(n);
+  }
+
+  /**
+   * Gets the frame that frame n is drawn on.
+   *
+   * @param n the frame number
+   * @return the frame number, or -1 if none
+   */
+  protected int getPrerequisite(int n) {
+    if(index.get(n).keyFrame) {
+      return -1;
+    }
+    if(index.get(n-1).dispose==3) {
+      return n-2;
+    }
+    return n-1;
+  }
+
+  /**
+   * Determines if frame n can be decoded without decoding earlier frames.
+   *
+   * @param n the frame number
+   * @return true if decodable
+   */
+  protected boolean isDecodable(int n) {
+    int prev = getPrerequisite(n);
+    return (prev<0)||(getDecodedFrame(prev)!=null);
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
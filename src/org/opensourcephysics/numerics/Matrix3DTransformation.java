@@ -483,6 +483,29 @@ public double[] direct(double[] point) {
     return point;
   }
 
+  /**
+   * Transforms n points stored in a flat array {x0,y0,z0,x1,y1,z1,...}.
+   *
+   * @param src the coordinates to be transformed
+   * @param n the number of points
+   * @param dst a place-holder for the result. It can be the same as src
+   * @return the dst array
+   */
+  @Override
+public double[] direct(double[] src, int n, double[] dst) {
+    double m00 = matrix[0][0], m01 = matrix[0][1], m02 = matrix[0][2];
+    double m10 = matrix[1][0], m11 = matrix[1][1], m12 = matrix[1][2];
+    double m20 = matrix[2][0], m21 = matrix[2][1], m22 = matrix[2][2];
+    double o0 = origin[0], o1 = origin[1], o2 = origin[2];
+    for(int j = 0, n3 = 3*n; j<n3; j += 3) {
+      double x = src[j]-o0, y = src[j+1]-o1, z = src[j+2]-o2;
+      dst[j] = o0+m00*x+m01*y+m02*z;
+      dst[j+1] = o1+m10*x+m11*y+m12*z;
+      dst[j+2] = o2+m20*x+m21*y+m22*z;
+    }
+    return dst;
+  }
+
   /**
    * Transforms the given matrix into the transformation's coordinate system.
    *
@@ -367,6 +367,28 @@ public double[] direct(double[] p) { // assumes quaternion is normalized
     return p;
   }
 
+  /**
+   * Transforms (rotates) n points stored in a flat array {x0,y0,z0,x1,y1,z1,...}.
+   *
+   * @param src double[] the coordinates to be transformed
+   * @param n int the number of points
+   * @param dst double[] a place-holder for the result. It can be the same as src
+   * @return double[] the dst array
+   */
+  @Override
+public double[] direct(double[] src, int n, double[] dst) { // assumes quaternion is normalized
+    double pMult = 2*q0*q0-1;
+    double crossMult = 2*q0;
+    for(int j = 0, n3 = 3*n; j<n3; j += 3) {
+      double px = src[j]-ox, py = src[j+1]-oy, pz = src[j+2]-oz;
+      double vMult = 2*(q1*px+q2*py+q3*pz);
+      dst[j] = pMult*px+vMult*q1+crossMult*(q2*pz-q3*py)+ox;
+      dst[j+1] = pMult*py+vMult*q2+crossMult*(q3*px-q1*pz)+oy;
+      dst[j+2] = pMult*pz+vMult*q3+crossMult*(q1*py-q2*px)+oz;
+    }
+    return dst;
+  }
+
   @Override
 public double[] inverse(double[] p) throws UnsupportedOperationException { // assumes quaternion is normalized
     p[0] -= ox;
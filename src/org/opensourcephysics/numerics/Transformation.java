@@ -28,6 +28,29 @@ public interface Transformation extends Cloneable {
    */
   public double[] direct(double[] point);
 
+  /**
+   * Transforms n 3D points stored in a flat array {x0,y0,z0,x1,y1,z1,...}.
+   * The default implementation calls direct(double[]) on each point using
+   * a single buffer. Implementations may stream over the arrays directly.
+   * @param src double[] the coordinates to be transformed (at least 3*n entries)
+   * @param n int the number of points
+   * @param dst double[] a place-holder for the result. It can be the same as src
+   * @return double[] the dst array
+   */
+  public default double[] direct(double[] src, int n, double[] dst) {
+    double[] point = new double[3];
+    for(int j = 0, n3 = 3*n; j<n3; j += 3) {
+      point[0] = src[j];
+      point[1] = src[j+1];
+      point[2] = src[j+2];
+      direct(point);
+      dst[j] = point[0];
+      dst[j+1] = point[1];
+      dst[j+2] = point[2];
+    }
+    return dst;
+  }
+
   /**
    * The inverse transformation (if it exists).
    * If the transformation is not invertible, then a call to this
@@ -0,0 +1,519 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.tools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.opensourcephysics.controls.OSPLog;
+import org.opensourcephysics.controls.XML;
+
+/**
+ * A content-addressed index of the files downloaded into an OSP cache.
+ * 
+ * Files keep their URL-based locations in the cache (see
+ * ResourceLoader.getOSPCacheFile), but each download is hashed (SHA-256) and
+ * recorded with its ETag, Last-Modified date, size and last access time. When
+ * a download has the same content as a file already cached under another URL,
+ * the new file is created as a hard link to the existing one, so the content is
+ * stored once. If the file system does not support hard links the file is
+ * simply stored again.
+ * 
+ * Cached files are revalidated with conditional requests (If-None-Match,
+ * If-Modified-Since) rather than downloaded again, and the least recently used
+ * files are deleted when the cached content exceeds a maximum size.
+ * 
+ * The index is saved in a text file in the cache directory. Java only.
+ *
+ * @version 1.0
+ */
+public class DownloadCache {
+
+	/** name of the index file in the cache directory */
+	public static final String INDEX_FILE_NAME = "download_index.txt"; //$NON-NLS-1$
+
+	private static final String HEADER = "# OSP download cache index 1"; //$NON-NLS-1$
+	private static final int CONNECT_TIMEOUT = 10000;
+	private static final int READ_TIMEOUT = 30000;
+	private static final long SAVE_INTERVAL = 30000; // ms between saves of access times only
+
+	private final File cacheDir, indexFile;
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(); // url to entry
+	private long maxSize; // 0 for no limit
+	private boolean loaded;
+	private int downloads, notModified, deduplicated;
+	private boolean accessChanged; // true if access times changed since last saved
+	private long lastSave;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param cacheDir the OSP cache directory
+	 */
+	public DownloadCache(File cacheDir) {
+		this.cacheDir = cacheDir;
+		indexFile = new File(cacheDir, INDEX_FILE_NAME);
+		// save access times not yet saved when the VM exits
+		try {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> flush()));
+		} catch (IllegalStateException | SecurityException e) {
+		}
+	}
+
+	/**
+	 * Gets the cache directory.
+	 * 
+	 * @return the directory
+	 */
+	public File getCacheDirectory() {
+		return cacheDir;
+	}
+
+	/**
+	 * Downloads a web file to a target file in the cache. If the target exists
+	 * and was downloaded from the same URL, it is returned without a request
+	 * unless revalidate is true, in which case a conditional request is made and
+	 * the file is downloaded again only if it has changed.
+	 * 
+	 * @param urlPath    the URL
+	 * @param target     the target file
+	 * @param revalidate true to check for a newer version
+	 * @return the target file
+	 * @throws IOException if the download fails
+	 */
+	public File download(String urlPath, File target, boolean revalidate) throws IOException {
+		// the lock is held only while reading and updating the index, not while
+		// downloading, so a slow download doesn't block other downloads
+		String etag = null, lastModified = null;
+		boolean conditional = false;
+		synchronized (this) {
+			load();
+			Entry entry = getEntry(urlPath, target);
+			if (target.exists() && !revalidate) {
+				if (entry != null)
+					touch(entry);
+				return target;
+			}
+			if (entry != null && target.exists()) {
+				etag = entry.etag;
+				lastModified = entry.lastModified;
+				conditional = true;
+			}
+		}
+		URLConnection c = new URL(urlPath).openConnection();
+		c.setUseCaches(false);
+		c.setConnectTimeout(CONNECT_TIMEOUT);
+		c.setReadTimeout(READ_TIMEOUT);
+		if (etag != null)
+			c.setRequestProperty("If-None-Match", etag); //$NON-NLS-1$
+		if (lastModified != null)
+			c.setRequestProperty("If-Modified-Since", lastModified); //$NON-NLS-1$
+		if (c instanceof HttpURLConnection) {
+			int code = ((HttpURLConnection) c).getResponseCode();
+			if (code == HttpURLConnection.HTTP_NOT_MODIFIED && conditional && target.exists()) {
+				synchronized (this) {
+					notModified++;
+					Entry entry = getEntry(urlPath, target);
+					if (entry != null)
+						entry.lastAccess = System.currentTimeMillis();
+					save();
+				}
+				OSPLog.finer("not modified: " + urlPath); //$NON-NLS-1$
+				return target;
+			}
+			if (code != HttpURLConnection.HTTP_OK)
+				throw new IOException("HTTP " + code + " for " + urlPath); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		// download to a temporary file, hashing the content
+		target.getParentFile().mkdirs();
+		// name the temporary file per thread in case the same target is downloaded
+		// concurrently
+		File temp = new File(target.getParentFile(),
+				target.getName() + "." + Thread.currentThread().getId() + ".part"); //$NON-NLS-1$ //$NON-NLS-2$
+		MessageDigest digest = newDigest();
+		long size = 0;
+		try (InputStream in = c.getInputStream(); OutputStream out = new FileOutputStream(temp)) {
+			byte[] buf = new byte[65536];
+			int n;
+			while ((n = in.read(buf)) > 0) {
+				digest.update(buf, 0, n);
+				out.write(buf, 0, n);
+				size += n;
+			}
+		} catch (IOException e) {
+			temp.delete();
+			throw e;
+		}
+		String hash = toHex(digest.digest());
+		synchronized (this) {
+			downloads++;
+			// replace the target, linking to an existing file with the same content
+			File same = findFile(hash, target);
+			Files.deleteIfExists(target.toPath());
+			boolean linked = false;
+			if (same != null) {
+				try {
+					Files.createLink(target.toPath(), same.toPath());
+					linked = true;
+					deduplicated++;
+					OSPLog.finer("linked " + target + " to " + same); //$NON-NLS-1$ //$NON-NLS-2$
+				} catch (IOException | UnsupportedOperationException | SecurityException e) {
+					// store it again
+				}
+			}
+			if (linked)
+				temp.delete();
+			else
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			Entry entry = new Entry();
+			entry.url = urlPath;
+			entry.path = getRelativePath(target);
+			entry.hash = hash;
+			entry.size = size;
+			entry.etag = c.getHeaderField("ETag"); //$NON-NLS-1$
+			entry.lastModified = c.getHeaderField("Last-Modified"); //$NON-NLS-1$
+			entry.lastAccess = System.currentTimeMillis();
+			entries.remove(urlPath);
+			entries.put(urlPath, entry);
+			trim(target);
+			save();
+		}
+		return target;
+	}
+
+	/**
+	 * Saves the index if access times have changed since it was last saved.
+	 */
+	public synchronized void flush() {
+		if (accessChanged)
+			save();
+	}
+
+	/**
+	 * Finds a cached file with given content.
+	 * 
+	 * @param hash    the SHA-256 hash of the content, in hex
+	 * @param exclude a file to exclude (may be null)
+	 * @return the file, or null if none
+	 */
+	public synchronized File findFile(String hash, File exclude) {
+		load();
+		for (Entry next : entries.values()) {
+			if (next.hash.equals(hash)) {
+				File file = next.getFile();
+				if (file.exists() && (exclude == null || !file.equals(exclude.getAbsoluteFile()))
+						&& file.length() == next.size)
+					return file;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the maximum size of the cached content. When exceeded, the least
+	 * recently used files are deleted.
+	 * 
+	 * @param bytes the maximum size in bytes, or 0 for no limit
+	 */
+	public synchronized void setMaxSize(long bytes) {
+		maxSize = Math.max(0, bytes);
+		load();
+		if (trim(null))
+			save();
+	}
+
+	/**
+	 * Gets the maximum size of the cached content.
+	 * 
+	 * @return the maximum size in bytes, or 0 if no limit
+	 */
+	public synchronized long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Gets the size of the cached content, counting files with the same content
+	 * once.
+	 * 
+	 * @return the size in bytes
+	 */
+	public synchronized long getSize() {
+		load();
+		long size = 0;
+		Set<String> hashes = new HashSet<String>();
+		for (Entry next : entries.values()) {
+			if (hashes.add(next.hash))
+				size += next.size;
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the number of indexed files.
+	 * 
+	 * @return the file count
+	 */
+	public synchronized int getFileCount() {
+		load();
+		return entries.size();
+	}
+
+	/**
+	 * Gets the numbers of downloads, revalidations that found the file not
+	 * modified, and downloads linked to existing content since this was
+	 * created.
+	 * 
+	 * @return int[] {downloads, not modified, deduplicated}
+	 */
+	public synchronized int[] getCounts() {
+		return new int[] { downloads, notModified, deduplicated };
+	}
+
+	/**
+	 * Forgets all indexed files (the files themselves are not deleted) and deletes
+	 * the index file.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		loaded = true;
+		indexFile.delete();
+	}
+
+	/**
+	 * Deletes least recently used files until the content fits the maximum size.
+	 * 
+	 * @param keep a file not to delete (may be null)
+	 * @return true if any entries were removed
+	 */
+	private boolean trim(File keep) {
+		boolean changed = false;
+		// drop entries whose files were deleted by other means
+		for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+			if (!it.next().getFile().exists()) {
+				it.remove();
+				changed = true;
+			}
+		}
+		if (maxSize <= 0)
+			return changed;
+		long size = getSize();
+		if (size <= maxSize)
+			return changed;
+		List<Entry> lru = new ArrayList<Entry>(entries.values());
+		lru.sort((Entry e1, Entry e2) -> Long.compare(e1.lastAccess, e2.lastAccess));
+		// count the files sharing each content
+		Map<String, Integer> links = new HashMap<String, Integer>();
+		for (Entry next : lru) {
+			links.merge(next.hash, 1, Integer::sum);
+		}
+		File keepFile = (keep == null ? null : keep.getAbsoluteFile());
+		for (Entry next : lru) {
+			if (size <= maxSize)
+				break;
+			File file = next.getFile();
+			if (file.equals(keepFile))
+				continue;
+			if (file.delete() || !file.exists()) {
+				entries.remove(next.url);
+				changed = true;
+				int n = links.merge(next.hash, -1, Integer::sum);
+				if (n == 0)
+					size -= next.size;
+				OSPLog.finer("removed from cache: " + file); //$NON-NLS-1$
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Marks an entry as used now. The index is saved at most every SAVE_INTERVAL
+	 * for access time changes alone, so LRU order survives between sessions
+	 * without writing the index on every cache hit.
+	 * 
+	 * @param entry the entry
+	 */
+	private void touch(Entry entry) {
+		entry.lastAccess = System.currentTimeMillis();
+		accessChanged = true;
+		if (entry.lastAccess - lastSave >= SAVE_INTERVAL)
+			save();
+	}
+
+	/**
+	 * Gets the index entry for a URL if it was downloaded to a given target.
+	 * 
+	 * @param urlPath the URL
+	 * @param target  the target file
+	 * @return the entry, or null if none
+	 */
+	private Entry getEntry(String urlPath, File target) {
+		Entry entry = entries.get(urlPath);
+		if (entry != null && !entry.getFile().equals(target.getAbsoluteFile()))
+			return null;
+		return entry;
+	}
+
+	private String getRelativePath(File file) {
+		return XML.forwardSlash(XML.getPathRelativeTo(file.getAbsolutePath(), cacheDir.getAbsolutePath()));
+	}
+
+	/**
+	 * Loads the index file, if any.
+	 */
+	private void load() {
+		if (loaded)
+			return;
+		loaded = true;
+		if (!indexFile.exists())
+			return;
+		try (BufferedReader in = new BufferedReader(
+				new InputStreamReader(new FileInputStream(indexFile), ResourceLoader.defaultCharset))) {
+			String line = in.readLine();
+			if (!HEADER.equals(line))
+				return;
+			while ((line = in.readLine()) != null) {
+				String[] s = line.split("\t", -1); //$NON-NLS-1$
+				if (s.length < 7)
+					continue;
+				Entry entry = new Entry();
+				entry.url = s[0];
+				entry.path = s[1];
+				entry.hash = s[2];
+				try {
+					entry.size = Long.parseLong(s[3]);
+					entry.lastAccess = Long.parseLong(s[4]);
+				} catch (NumberFormatException e) {
+					continue;
+				}
+				entry.etag = (s[5].length() == 0 ? null : s[5]);
+				entry.lastModified = (s[6].length() == 0 ? null : s[6]);
+				entries.put(entry.url, entry);
+			}
+		} catch (IOException e) {
+			OSPLog.fine("failed to read " + indexFile + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Saves the index file.
+	 */
+	private void save() {
+		accessChanged = false;
+		lastSave = System.currentTimeMillis();
+		File temp = new File(indexFile.getPath() + ".tmp"); //$NON-NLS-1$
+		try (PrintWriter out = new PrintWriter(
+				new OutputStreamWriter(new FileOutputStream(temp), ResourceLoader.defaultCharset))) {
+			out.println(HEADER);
+			for (Entry next : entries.values()) {
+				out.print(next.url);
+				out.print('\t');
+				out.print(next.path);
+				out.print('\t');
+				out.print(next.hash);
+				out.print('\t');
+				out.print(next.size);
+				out.print('\t');
+				out.print(next.lastAccess);
+				out.print('\t');
+				out.print(next.etag == null ? "" : clean(next.etag)); //$NON-NLS-1$
+				out.print('\t');
+				out.println(next.lastModified == null ? "" : clean(next.lastModified)); //$NON-NLS-1$
+			}
+		} catch (IOException e) {
+			OSPLog.fine("failed to save " + indexFile + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+			temp.delete();
+			return;
+		}
+		try {
+			Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			temp.delete();
+		}
+	}
+
+	private static String clean(String s) {
+		return s.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+	}
+
+	private static MessageDigest newDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * An indexed download.
+	 */
+	private class Entry {
+		String url, path, hash, etag, lastModified;
+		long size, lastAccess;
+
+		File getFile() {
+			return new File(cacheDir, path).getAbsoluteFile();
+		}
+	}
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
@@ -874,6 +874,8 @@ public class Launcher {
 			// don't post edits during loading
 			boolean post = postEdits;
 			postEdits = false;
+			// start loading the images and html pages of the nodes in the background
+			ResourceLoader.prefetch(control, tabSetBasePath);
 			LaunchSet tabset = new LaunchSet(this, tabSetName);
 			control.loadObject(tabset);
 			if (tabset.failedToLoad) {
@@ -2299,6 +2299,22 @@ public class LibraryBrowser extends JPanel {
 	static Map<String, LibraryResource> searchResourceMap;  // path to resource
 	protected TreeMap<String, String> searchPathMap; // name to path
 	static boolean isSearchMapLoaded = false;
+	static LibrarySearchIndex searchIndex; // trigram index of searchable collections
+
+	/**
+	 * Gets the search index, creating it if needed. In Java the index is saved in
+	 * the search cache.
+	 * 
+	 * @return the search index
+	 */
+	protected static LibrarySearchIndex getSearchIndex() {
+		if (searchIndex == null) {
+			File dir = (OSPRuntime.isJS ? null : ResourceLoader.getSearchCache());
+			searchIndex = new LibrarySearchIndex(
+					dir == null ? null : new File(dir, LibrarySearchIndex.INDEX_FILE_NAME));
+		}
+		return searchIndex;
+	}
 	
 	/**
 	 * Adds a searchable collection to the search resource map.
@@ -2483,11 +2499,12 @@ public class LibraryBrowser extends JPanel {
 		Set<LibraryResource> searchTargets = new TreeSet<LibraryResource>();
 
 		if (searchResourceMap != null) {
+			// the targets are not cloned, so the search index can recognize them;
+			// only the records found are cloned (in searchFor)
 			for (LibraryResource r : searchResourceMap.values()) {
-				LibraryResource rc = r.getClone();	
-				String path = rc.collectionPath;
+				String path = r.collectionPath;
 				if (path != null && !library.noSearchSet.contains(path)) {
-					searchTargets.add(rc);
+					searchTargets.add(r);
 				}
 			}
 		}
@@ -2522,6 +2539,8 @@ public class LibraryBrowser extends JPanel {
 
 		Map<LibraryResource, List<String[]>> found = new TreeMap<LibraryResource, List<String[]>>();
 
+		// index new or changed collections
+		getSearchIndex().update(searchTargets);
 		for (LibraryResource target : searchTargets) {
 			if (target == null)
 				continue;
@@ -2560,8 +2579,15 @@ public class LibraryBrowser extends JPanel {
 		rootCollection.addResource(results);
 		LibraryTreeNode resultsNode = new LibraryTreeNode(results, treePanel);
 		treePanel.insertChildAt(resultsNode, root, root.getChildCount());
-		// add ComPADRE results first
+		// rank results by score, keeping alphabetical order for equal scores
+		Map<LibraryResource, Integer> scores = new HashMap<LibraryResource, Integer>();
 		for (LibraryResource next : found.keySet()) {
+			scores.put(next, getSearchScore(found.get(next)));
+		}
+		List<LibraryResource> ranked = new ArrayList<LibraryResource>(found.keySet());
+		ranked.sort((LibraryResource r1, LibraryResource r2) -> scores.get(r2) - scores.get(r1));
+		// add ComPADRE results first
+		for (LibraryResource next : ranked) {
 			if (!next.collectionPath.contains("compadre.org"))
 				continue;
 			LibraryResource clone = next.getClone();
@@ -2571,7 +2597,7 @@ public class LibraryBrowser extends JPanel {
 			treePanel.insertChildAt(newNode, resultsNode, resultsNode.getChildCount());
 		}
 		// add non-ComPADRE results
-		for (LibraryResource next : found.keySet()) {
+		for (LibraryResource next : ranked) {
 			if (next.collectionPath.contains("compadre.org"))
 				continue;
 			LibraryResource clone = next.getClone();
@@ -2653,6 +2679,18 @@ public class LibraryBrowser extends JPanel {
 
 		// do actual searching
 		Map<LibraryResource, List<String[]>> found = new TreeMap<LibraryResource, List<String[]>>();
+		// if indexed, examine only the records that may match
+		List<LibraryResource> candidates = (searchIndex == null ? null
+				: searchIndex.getCandidates(collection, searchPhrase));
+		if (candidates != null) {
+			for (LibraryResource record : candidates) {
+				List<String[]> results = searchResourceFor(searchPhrase, record);
+				if (results != null) {
+					found.put(record, results);
+				}
+			}
+			return found;
+		}
 		List<String[]> results = searchResourceFor(searchPhrase, collection);
 		if (results != null) {
 			found.put(collection, results);
@@ -2711,6 +2749,25 @@ public class LibraryBrowser extends JPanel {
 		return foundData.isEmpty() ? null : foundData;
 	}
 
+	/**
+	 * Scores the matches found in a resource for ranking search results. Matches
+	 * in names count most, then keywords, then types and other metadata.
+	 * 
+	 * @param matches a List of String[] {category, value} as returned by
+	 *                searchResourceFor
+	 * @return the score
+	 */
+	protected int getSearchScore(List<String[]> matches) {
+		int score = 0;
+		for (String[] next : matches) {
+			String category = next[0].toLowerCase();
+			score += category.equals("name") ? 8 //$NON-NLS-1$
+					: category.contains("keyword") ? 4 //$NON-NLS-1$
+					: category.equals("type") ? 2 : 1; //$NON-NLS-1$
+		}
+		return score;
+	}
+
 	/**
 	 * Returns the phrase before the next AND or OR operator, the operator itself,
 	 * and the remainder of the phrase.
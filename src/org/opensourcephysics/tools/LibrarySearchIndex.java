@@ -0,0 +1,443 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.opensourcephysics.controls.OSPLog;
+import org.opensourcephysics.display.OSPRuntime;
+import org.opensourcephysics.tools.LibraryResource.Metadata;
+
+/**
+ * An inverted index of the searchable text of library collections, used by the
+ * LibraryBrowser to find the records that may match a search phrase without
+ * examining every record.
+ * 
+ * The text searched by LibraryBrowser.searchResourceFor (names, types and
+ * metadata values such as keywords and HTML abstracts) is indexed by
+ * character trigram. Any record that contains a phrase of three or more
+ * characters must contain all of the phrase's trigrams, so the candidates
+ * found by intersecting their posting lists include every match, and search
+ * results are the same as those of a full scan.
+ * 
+ * Each collection is indexed separately with a signature of its text, so only
+ * collections that change are reindexed. The index is saved in the OSP search
+ * cache and reused by later sessions.
+ *
+ * @version 1.0
+ */
+public class LibrarySearchIndex {
+
+	/** name of the index file in the search cache */
+	public static final String INDEX_FILE_NAME = "library_search.idx"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x4f535049; // "OSPI"
+	private static final int VERSION = 1;
+
+	private final File file;
+	private final Map<String, CollectionIndex> indexes = new HashMap<String, CollectionIndex>();
+	private boolean loaded;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param file the file in which to save the index (may be null)
+	 */
+	public LibrarySearchIndex(File file) {
+		this.file = (OSPRuntime.isJS ? null : file);
+	}
+
+	/**
+	 * Indexes the collections in a set of search targets, reindexing only those
+	 * that are new or have changed, and drops collections no longer present.
+	 * The index file is saved if anything changed.
+	 * 
+	 * @param targets the search targets
+	 * @return the number of collections reindexed
+	 */
+	public synchronized int update(Collection<LibraryResource> targets) {
+		load();
+		int rebuilt = 0;
+		Set<String> paths = new HashSet<String>();
+		for (LibraryResource target : targets) {
+			if (!(target instanceof LibraryCollection) || target.collectionPath == null)
+				continue;
+			String path = target.collectionPath;
+			paths.add(path);
+			CollectionIndex index = indexes.get(path);
+			if (index != null && index.root == target)
+				continue;
+			List<LibraryResource> records = new ArrayList<LibraryResource>();
+			addRecords((LibraryCollection) target, records);
+			long signature = getSignature(records);
+			if (index != null && index.signature == signature && index.size == records.size()) {
+				// unchanged: attach the records to the saved postings
+				index.root = target;
+				index.records = records;
+				continue;
+			}
+			indexes.put(path, new CollectionIndex(target, records, signature));
+			rebuilt++;
+		}
+		boolean dropped = indexes.keySet().retainAll(paths);
+		if (rebuilt > 0 || dropped)
+			save();
+		return rebuilt;
+	}
+
+	/**
+	 * Gets the records in an indexed collection that may match a search phrase.
+	 * Every record that matches is included. The records are in depth-first
+	 * order, starting with the collection itself.
+	 * 
+	 * @param collection   the collection
+	 * @param searchPhrase the phrase (no AND or OR operators)
+	 * @return the candidate records, or null if the collection is not indexed
+	 */
+	public synchronized List<LibraryResource> getCandidates(LibraryCollection collection, String searchPhrase) {
+		CollectionIndex index = (collection.collectionPath == null ? null : indexes.get(collection.collectionPath));
+		if (index == null || index.root != collection)
+			return null;
+		String toMatch = searchPhrase.toLowerCase();
+		if (toMatch.length() < 3)
+			return index.records;
+		// intersect the posting lists of the distinct trigrams, shortest first
+		Set<Long> keys = new HashSet<Long>();
+		for (int i = 0, n = toMatch.length() - 2; i < n; i++)
+			keys.add(trigram(toMatch, i));
+		int[][] postings = new int[keys.size()][];
+		int k = 0;
+		for (Long key : keys) {
+			int[] ids = index.postings.get(key);
+			if (ids == null)
+				return Collections.emptyList();
+			postings[k++] = ids;
+		}
+		Arrays.sort(postings, (int[] a, int[] b) -> a.length - b.length);
+		int[] ids = postings[0].clone();
+		int count = ids.length;
+		for (int i = 1; i < postings.length && count > 0; i++)
+			count = intersect(ids, count, postings[i]);
+		List<LibraryResource> candidates = new ArrayList<LibraryResource>(count);
+		for (int i = 0; i < count; i++)
+			candidates.add(index.records.get(ids[i]));
+		return candidates;
+	}
+
+	/**
+	 * Gets the number of indexed collections.
+	 * 
+	 * @return the collection count
+	 */
+	public synchronized int getCollectionCount() {
+		return indexes.size();
+	}
+
+	/**
+	 * Clears the index and deletes its file.
+	 */
+	public synchronized void clear() {
+		indexes.clear();
+		loaded = true;
+		if (file != null)
+			file.delete();
+	}
+
+	/**
+	 * Intersects a sorted list with a sorted array, in place.
+	 * 
+	 * @return the length of the intersection
+	 */
+	private static int intersect(int[] ids, int count, int[] other) {
+		int n = 0;
+		for (int i = 0, j = 0; i < count && j < other.length;) {
+			if (ids[i] < other[j])
+				i++;
+			else if (ids[i] > other[j])
+				j++;
+			else {
+				if (n != i)
+					ids[n] = ids[i];
+				n++;
+				i++;
+				j++;
+			}
+		}
+		return n;
+	}
+
+	private static long trigram(String s, int i) {
+		return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+	}
+
+	/**
+	 * Adds a collection and its descendants to a list in depth-first order.
+	 */
+	private static void addRecords(LibraryCollection collection, List<LibraryResource> records) {
+		records.add(collection);
+		for (LibraryResource record : collection.getResources()) {
+			if (record == null)
+				continue;
+			if (record instanceof LibraryCollection)
+				addRecords((LibraryCollection) record, records);
+			else
+				records.add(record);
+		}
+	}
+
+	/**
+	 * Gets the searchable text of a record: its name, type and metadata values.
+	 */
+	private static List<String> getText(LibraryResource record) {
+		List<String> text = new ArrayList<String>();
+		text.add(record.getName());
+		text.add(record.getType());
+		Set<Metadata> metadata = record.getMetadata();
+		if (metadata != null) {
+			for (Metadata next : metadata) {
+				text.add(next.getData()[1]);
+			}
+		}
+		return text;
+	}
+
+	/**
+	 * Gets a signature of the searchable text of a list of records.
+	 */
+	private static long getSignature(List<LibraryResource> records) {
+		long h = records.size();
+		for (LibraryResource record : records) {
+			for (String s : getText(record)) {
+				h = h * 1000003 + (s == null ? 0 : s.hashCode());
+			}
+			h = h * 31 + 1;
+		}
+		return h;
+	}
+
+	/**
+	 * Loads the index file, if any.
+	 */
+	private void load() {
+		if (loaded)
+			return;
+		loaded = true;
+		if (file == null || !file.exists())
+			return;
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				return;
+			for (int i = in.readInt(); i > 0; i--) {
+				CollectionIndex index = new CollectionIndex(in);
+				indexes.put(index.path, index);
+			}
+			OSPLog.finer("loaded search index of " + indexes.size() + " collections"); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (IOException e) {
+			indexes.clear();
+			OSPLog.fine("failed to read search index " + file + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Saves the index file.
+	 */
+	private void save() {
+		if (file == null)
+			return;
+		File temp = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(temp))))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(indexes.size());
+			for (CollectionIndex index : indexes.values()) {
+				index.write(out);
+			}
+		} catch (IOException e) {
+			temp.delete();
+			OSPLog.fine("failed to save search index " + file + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+			return;
+		}
+		file.delete();
+		if (!temp.renameTo(file))
+			temp.delete();
+	}
+
+	/**
+	 * The index of a single collection.
+	 */
+	private static class CollectionIndex {
+		String path;
+		long signature;
+		int size;
+		Map<Long, int[]> postings = new HashMap<Long, int[]>();
+		LibraryResource root; // null until attached to a loaded collection
+		List<LibraryResource> records;
+
+		CollectionIndex(LibraryResource root, List<LibraryResource> records, long signature) {
+			this.path = root.collectionPath;
+			this.root = root;
+			this.records = records;
+			this.signature = signature;
+			size = records.size();
+			// open-addressed table of trigram keys and posting lists, where each
+			// list holds its count at [0] followed by the ids
+			long[] keys = new long[1024];
+			int[][] lists = new int[keys.length][];
+			int count = 0;
+			for (int id = 0; id < size; id++) {
+				for (String s : getText(records.get(id))) {
+					if (s == null)
+						continue;
+					s = s.toLowerCase();
+					for (int i = 0, n = s.length() - 2; i < n; i++) {
+						long key = trigram(s, i);
+						int slot = slot(key, keys.length);
+						while (lists[slot] != null && keys[slot] != key)
+							slot = (slot + 1) & (keys.length - 1);
+						int[] ids = lists[slot];
+						if (ids == null) {
+							keys[slot] = key;
+							lists[slot] = ids = new int[4];
+							if (++count * 2 > keys.length) {
+								// grow the table
+								long[] oldKeys = keys;
+								int[][] oldLists = lists;
+								keys = new long[oldKeys.length * 2];
+								lists = new int[keys.length][];
+								for (int j = 0; j < oldKeys.length; j++) {
+									if (oldLists[j] == null)
+										continue;
+									int k = slot(oldKeys[j], keys.length);
+									while (lists[k] != null)
+										k = (k + 1) & (keys.length - 1);
+									keys[k] = oldKeys[j];
+									lists[k] = oldLists[j];
+								}
+							}
+						} else if (ids[0] > 0 && ids[ids[0]] == id) {
+							continue;
+						} else if (ids[0] + 1 == ids.length) {
+							lists[slot] = ids = Arrays.copyOf(ids, ids.length * 2);
+						}
+						ids[++ids[0]] = id;
+					}
+				}
+			}
+			for (int j = 0; j < keys.length; j++) {
+				int[] ids = lists[j];
+				if (ids != null)
+					postings.put(keys[j], Arrays.copyOfRange(ids, 1, ids[0] + 1));
+			}
+		}
+
+		private static int slot(long key, int length) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h >>> 40) & (length - 1);
+		}
+
+		CollectionIndex(DataInputStream in) throws IOException {
+			path = in.readUTF();
+			signature = in.readLong();
+			size = in.readInt();
+			for (int n = in.readInt(); n > 0; n--) {
+				long key = in.readLong();
+				int[] ids = new int[in.readInt()];
+				int id = 0;
+				for (int i = 0; i < ids.length; i++) {
+					id += readVarInt(in);
+					ids[i] = id;
+				}
+				postings.put(key, ids);
+			}
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			out.writeUTF(path);
+			out.writeLong(signature);
+			out.writeInt(size);
+			out.writeInt(postings.size());
+			byte[] buf = new byte[1024];
+			for (Map.Entry<Long, int[]> entry : postings.entrySet()) {
+				int[] ids = entry.getValue();
+				out.writeLong(entry.getKey());
+				out.writeInt(ids.length);
+				// ids are ascending, so write the differences as variable-length ints
+				if (buf.length < ids.length * 5)
+					buf = new byte[ids.length * 5];
+				int len = 0;
+				int prev = 0;
+				for (int id : ids) {
+					int n = id - prev;
+					prev = id;
+					while ((n & ~0x7F) != 0) {
+						buf[len++] = (byte) ((n & 0x7F) | 0x80);
+						n >>>= 7;
+					}
+					buf[len++] = (byte) n;
+				}
+				out.write(buf, 0, len);
+			}
+		}
+
+		private static int readVarInt(DataInputStream in) throws IOException {
+			int n = 0;
+			for (int shift = 0;; shift += 7) {
+				int b = in.readUnsignedByte();
+				n |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+					return n;
+			}
+		}
+	}
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
@@ -31,6 +31,7 @@ import org.opensourcephysics.controls.XML;
 import org.opensourcephysics.display.OSPRuntime;
 import org.opensourcephysics.media.core.VideoIO;
 import org.opensourcephysics.media.gif.GifDecoder;
+import org.opensourcephysics.media.gif.StreamingGifDecoder;
 import org.opensourcephysics.media.mov.MovieFactory;
 import org.opensourcephysics.tools.LibraryResource.Metadata;
 
@@ -830,7 +831,7 @@ public class LibraryTreeNode extends DefaultMutableTreeNode implements Comparabl
 				int status = GifDecoder.STATUS_OK;
 				try {
 					if (OSPRuntime.checkImages) {
-						GifDecoder decoder = new GifDecoder();
+						GifDecoder decoder = new StreamingGifDecoder();
 						status = decoder.read(sourcePath);
 					}
 				} catch (Exception e) {
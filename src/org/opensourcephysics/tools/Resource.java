@@ -365,6 +365,34 @@ public class Resource {
 		return clip;
 	}
 
+	/**
+	 * Estimates the memory used by the images and text loaded by this resource.
+	 *
+	 * @return the size in bytes
+	 */
+	long getMemorySize() {
+		long size = 256; // the resource, its path and URL
+		if (icon != null) {
+			size += 4L * Math.max(0, icon.getIconWidth()) * Math.max(0, icon.getIconHeight());
+		}
+		if (image != null) {
+			size += (long) image.getWidth() * image.getHeight() * image.getColorModel().getPixelSize() / 8;
+		}
+		if (string != null) {
+			size += 2L * string.length();
+		}
+		return size;
+	}
+
+	/**
+	 * Determines whether this resource has loaded an image.
+	 *
+	 * @return true if an image is loaded
+	 */
+	boolean hasImage() {
+		return icon != null || image != null;
+	}
+
 	@Override
 	public String toString() {
 		return "[resource " + (file != null ? file.toString() : url != null ? url.toString() : null) + "]";
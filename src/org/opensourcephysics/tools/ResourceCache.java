@@ -0,0 +1,429 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.tools;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A least-recently-used cache of Resources bounded by an estimate of the memory
+ * they use. When the cache is full, the least recently used resources are
+ * evicted. Evicted resources that hold images are kept as soft references, so
+ * they can still be found until the garbage collector needs the memory.
+ *
+ * Hit, miss and eviction counts are kept for monitoring.
+ *
+ * @version 1.0
+ */
+public class ResourceCache {
+
+	/** default maximum weight in bytes */
+	public static final long DEFAULT_MAX_WEIGHT = 64L << 20;
+
+	// number of operations between recomputing all weights
+	private static final int REWEIGH_INTERVAL = 64;
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(64, 0.75f, true);
+	private final Map<String, SoftEntry> softEntries = new HashMap<String, SoftEntry>();
+	private final ReferenceQueue<Resource> queue = new ReferenceQueue<Resource>();
+	private long maxWeight = DEFAULT_MAX_WEIGHT;
+	private long weight;
+	private int operations;
+	private long hits, softHits, misses, evictions;
+
+	/**
+	 * Gets a cached resource and marks it as recently used.
+	 *
+	 * @param path the path
+	 * @return the resource, or null if not cached
+	 */
+	public synchronized Resource get(String path) {
+		Entry entry = entries.get(path);
+		if (entry != null) {
+			hits++;
+			reweigh(entry);
+			trim();
+			return entry.resource;
+		}
+		SoftEntry ref = softEntries.remove(path);
+		Resource res = (ref == null ? null : ref.get());
+		if (res != null) {
+			// promote back to the strong cache
+			hits++;
+			softHits++;
+			add(path, res);
+			return res;
+		}
+		misses++;
+		return null;
+	}
+
+	/**
+	 * Adds a resource to the cache.
+	 *
+	 * @param path the path
+	 * @param res  the resource
+	 */
+	public synchronized void put(String path, Resource res) {
+		softEntries.remove(path);
+		add(path, res);
+	}
+
+	/**
+	 * Removes a resource from the cache.
+	 *
+	 * @param path the path
+	 * @return the removed resource, or null if not cached
+	 */
+	public synchronized Resource remove(String path) {
+		SoftEntry ref = softEntries.remove(path);
+		Entry entry = entries.remove(path);
+		if (entry != null) {
+			weight -= entry.weight;
+			return entry.resource;
+		}
+		return (ref == null ? null : ref.get());
+	}
+
+	/**
+	 * Removes all resources.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		softEntries.clear();
+		weight = 0;
+	}
+
+	/**
+	 * Determines whether a resource is cached.
+	 *
+	 * @param path the path
+	 * @return true if cached
+	 */
+	public synchronized boolean containsKey(String path) {
+		SoftEntry ref;
+		return entries.containsKey(path) || ((ref = softEntries.get(path)) != null && ref.get() != null);
+	}
+
+	/**
+	 * Gets the number of strongly cached resources.
+	 *
+	 * @return the number of resources
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets a copy of the strongly cached resources, from least to most recently
+	 * used. Getting the copy does not change the order.
+	 *
+	 * @return a map of path to resource
+	 */
+	public synchronized Map<String, Resource> getResources() {
+		Map<String, Resource> map = new LinkedHashMap<String, Resource>();
+		for (Map.Entry<String, Entry> next : entries.entrySet()) {
+			map.put(next.getKey(), next.getValue().resource);
+		}
+		return map;
+	}
+
+	/**
+	 * Gets a Hashtable view of this cache for code written against the Hashtable
+	 * that ResourceLoader used before. get, put, remove, containsKey, size and
+	 * clear go to this cache. The key, value and entry collections are read-only
+	 * copies.
+	 *
+	 * @return the view
+	 */
+	public Hashtable<String, Resource> asHashtable() {
+		return new HashtableView(this);
+	}
+
+	/**
+	 * Sets the maximum weight in bytes, evicting resources if needed.
+	 *
+	 * @param max the maximum weight
+	 */
+	public synchronized void setMaxWeight(long max) {
+		maxWeight = Math.max(0, max);
+		trim();
+	}
+
+	/**
+	 * Gets the maximum weight in bytes.
+	 *
+	 * @return the maximum weight
+	 */
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Gets the estimated memory used by the strongly cached resources.
+	 *
+	 * @return the weight in bytes
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Gets the number of requests that found a cached resource.
+	 *
+	 * @return the hit count
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of hits that recovered an evicted, softly referenced
+	 * resource.
+	 *
+	 * @return the soft hit count
+	 */
+	public synchronized long getSoftHits() {
+		return softHits;
+	}
+
+	/**
+	 * Gets the number of requests that found no cached resource.
+	 *
+	 * @return the miss count
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Gets the number of resources evicted to stay within the maximum weight.
+	 *
+	 * @return the eviction count
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Resets the hit, miss and eviction counts.
+	 */
+	public synchronized void resetCounts() {
+		hits = softHits = misses = evictions = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ResourceCache[" + entries.size() + " resources, " + (weight >> 10) + "/" + (maxWeight >> 10) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ " KB, hits " + hits + " (" + softHits + " soft), misses " + misses + ", evictions " + evictions + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+
+	private void add(String path, Resource res) {
+		Entry entry = new Entry(res);
+		Entry prev = entries.put(path, entry);
+		if (prev != null) {
+			weight -= prev.weight;
+		}
+		weight += entry.weight;
+		trim();
+	}
+
+	/**
+	 * Updates the weight of an entry, since resources load their images and text
+	 * when first asked for them.
+	 */
+	private void reweigh(Entry entry) {
+		long w = entry.resource.getMemorySize();
+		weight += w - entry.weight;
+		entry.weight = w;
+	}
+
+	/**
+	 * Evicts least recently used resources until within the maximum weight.
+	 */
+	private void trim() {
+		if (++operations >= REWEIGH_INTERVAL) {
+			operations = 0;
+			for (Entry entry : entries.values()) {
+				reweigh(entry);
+			}
+			purgeSoftEntries();
+		}
+		Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (weight > maxWeight && it.hasNext()) {
+			Map.Entry<String, Entry> next = it.next();
+			Entry entry = next.getValue();
+			reweigh(entry);
+			it.remove();
+			weight -= entry.weight;
+			evictions++;
+			if (entry.resource.hasImage()) {
+				softEntries.put(next.getKey(), new SoftEntry(next.getKey(), entry.resource, queue));
+			}
+		}
+	}
+
+	/**
+	 * Removes soft entries whose resources have been garbage collected.
+	 */
+	private void purgeSoftEntries() {
+		SoftEntry ref;
+		while ((ref = (SoftEntry) queue.poll()) != null) {
+			if (softEntries.get(ref.path) == ref) {
+				softEntries.remove(ref.path);
+			}
+		}
+	}
+
+	/**
+	 * A Hashtable backed by a ResourceCache.
+	 */
+	private static class HashtableView extends Hashtable<String, Resource> {
+		private static final long serialVersionUID = 1L;
+		private final ResourceCache cache;
+
+		HashtableView(ResourceCache cache) {
+			this.cache = cache;
+		}
+
+		@Override
+		public Resource get(Object key) {
+			return (key instanceof String ? cache.get((String) key) : null);
+		}
+
+		@Override
+		public Resource put(String key, Resource value) {
+			if (key == null || value == null)
+				throw new NullPointerException();
+			Resource prev = cache.remove(key);
+			cache.put(key, value);
+			return prev;
+		}
+
+		@Override
+		public Resource remove(Object key) {
+			return (key instanceof String ? cache.remove((String) key) : null);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return (key instanceof String && cache.containsKey((String) key));
+		}
+
+		@Override
+		public boolean contains(Object value) {
+			return cache.getResources().containsValue(value);
+		}
+
+		@Override
+		public boolean containsValue(Object value) {
+			return contains(value);
+		}
+
+		@Override
+		public void clear() {
+			cache.clear();
+		}
+
+		@Override
+		public int size() {
+			return cache.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return cache.size() == 0;
+		}
+
+		@Override
+		public Enumeration<String> keys() {
+			return Collections.enumeration(keySet());
+		}
+
+		@Override
+		public Enumeration<Resource> elements() {
+			return Collections.enumeration(values());
+		}
+
+		@Override
+		public Set<String> keySet() {
+			return Collections.unmodifiableSet(cache.getResources().keySet());
+		}
+
+		@Override
+		public Collection<Resource> values() {
+			return Collections.unmodifiableCollection(cache.getResources().values());
+		}
+
+		@Override
+		public Set<Map.Entry<String, Resource>> entrySet() {
+			return Collections.unmodifiableSet(cache.getResources().entrySet());
+		}
+
+		@Override
+		public String toString() {
+			return cache.getResources().toString();
+		}
+
+	}
+
+	private static class Entry {
+		Resource resource;
+		long weight;
+
+		Entry(Resource res) {
+			resource = res;
+			weight = res.getMemorySize();
+		}
+	}
+
+	private static class SoftEntry extends SoftReference<Resource> {
+		String path;
+
+		SoftEntry(String path, Resource res, ReferenceQueue<Resource> queue) {
+			super(res, queue);
+			this.path = path;
+		}
+	}
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
@@ -34,17 +34,22 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -53,8 +58,14 @@ import java.util.MissingResourceException;
 import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -71,6 +82,8 @@ import javax.swing.JPanel;
 import javax.swing.SwingConstants;
 import org.opensourcephysics.controls.OSPLog;
 import org.opensourcephysics.controls.XML;
+import org.opensourcephysics.controls.XMLControl;
+import org.opensourcephysics.controls.XMLProperty;
 import org.opensourcephysics.display.DisplayRes;
 import org.opensourcephysics.display.OSPRuntime;
 import org.opensourcephysics.display.ResizableIcon;
@@ -108,16 +121,30 @@ public class ResourceLoader {
 	protected static ArrayList<String> searchPaths = new ArrayList<String>(); // search paths
 	protected static ArrayList<String> appletSearchPaths = new ArrayList<String>(); // search paths for apples
 	protected static int maxPaths = 20; // max number of paths in history
-	protected static Hashtable<String, Resource> resources = new Hashtable<String, Resource>(); // cached resources
+	private static ResourceCache resourceCache = new ResourceCache(); // cached resources
+	/**
+	 * @deprecated use getResourceCache(); this is now a Hashtable view of that
+	 *             cache
+	 */
+	@Deprecated
+	protected static Hashtable<String, Resource> resources = resourceCache.asHashtable();
 	protected static boolean cacheEnabled = OSPRuntime.resCacheEnabled;
 	protected static boolean canceled = false;
+	// zipLoaders is shared by the async loader threads
 	protected static Map<String, URLClassLoader> zipLoaders = (OSPRuntime.checkZipLoaders
-			? new TreeMap<String, URLClassLoader>()
+			? new ConcurrentHashMap<String, URLClassLoader>()
 			: null); // maps path to zipLoader
-	protected static URLClassLoader xsetZipLoader; // zipLoader of current xset
+	protected static volatile URLClassLoader xsetZipLoader; // zipLoader of current xset
 	protected static Set<String> extractExtensions = new TreeSet<String>();
+	/**
+	 * @deprecated no longer used: each search now keeps its own list of paths not
+	 *             found so concurrent async loads don't share it
+	 */
+	@Deprecated
 	protected static ArrayList<String> pathsNotFound = new ArrayList<String>();
 	protected static File ospCache;
+	protected static DownloadCache downloadCache; // index of downloads in ospCache
+	protected static long ospCacheMaxSize; // 0 for no limit
 	public static boolean warningShown = false;
 	
 	public static final FileFilter OSP_CACHE_FILTER;
@@ -189,6 +216,15 @@ public class ResourceLoader {
 	 * @return the Resource, or null if none found
 	 */
 	public static Resource getResource(String name) {
+		// share a background load of the same name, if any
+		CompletableFuture<Resource> pending = (name == null ? null : pendingLoads.get(name));
+		if (pending != null) {
+			try {
+				return pending.join();
+			} catch (RuntimeException e) {
+				// load again below
+			}
+		}
 		return getResource(name, true, false);
 	}
 
@@ -268,7 +304,8 @@ public class ResourceLoader {
 		if ((name == null) || name.equals("")) { //$NON-NLS-1$
 			return null;
 		}
-		pathsNotFound.clear();
+		// paths are tracked per call so resources can be loaded concurrently
+		List<String> pathsNotFound = new ArrayList<String>();
 		// Remove leading and trailing inverted commas (added by Paco)
 		if (name.startsWith("\"")) { //$NON-NLS-1$
 			name = name.substring(1);
@@ -288,7 +325,7 @@ public class ResourceLoader {
 		StringBuffer err = new StringBuffer("Not found: " + name); //$NON-NLS-1$
 		err.append(" [searched " + name); //$NON-NLS-1$
 		// look for resource in searchPaths
-		for (String next : searchPaths) {
+		for (String next : getSearchPathArray()) {
 			String path = getPath(next, name);
 			if (pathsNotFound.contains(path))
 				continue;
@@ -364,7 +401,7 @@ public class ResourceLoader {
 			name = name.substring(2);
 		}
 		// look for resource with basePath and name
-		pathsNotFound.clear();
+		List<String> pathsNotFound = new ArrayList<String>();
 		String path = getPath(basePath, name);
 		Resource res = findResource(path, type, searchFiles, false);
 		if (res != null) {
@@ -403,8 +440,8 @@ public class ResourceLoader {
 //			}
 //		}
 		// look for resource in searchPaths
-		for (Iterator<String> it = searchPaths.iterator(); it.hasNext();) {
-			path = getPath(getPath(it.next(), basePath), name);
+		for (String next : getSearchPathArray()) {
+			path = getPath(getPath(next, basePath), name);
 			if (pathsNotFound.contains(path))
 				continue;
 			res = findResource(path, type, searchFiles, false);
@@ -443,6 +480,18 @@ public class ResourceLoader {
 		}
 	}
 
+	/**
+	 * Gets a copy of the searchPaths list that is safe to iterate while other
+	 * threads add or remove paths.
+	 *
+	 * @return the search paths
+	 */
+	private static String[] getSearchPathArray() {
+		synchronized (searchPaths) {
+			return searchPaths.toArray(new String[searchPaths.size()]);
+		}
+	}
+
 	/**
 	 * Removes a path from the searchPaths list.
 	 *
@@ -523,6 +572,17 @@ public class ResourceLoader {
 		return cacheEnabled;
 	}
 
+	/**
+	 * Gets the cache of resources found by getResource. Use it to set the
+	 * maximum memory used by cached resources or to monitor hits, misses and
+	 * evictions.
+	 *
+	 * @return the resource cache
+	 */
+	public static ResourceCache getResourceCache() {
+		return resourceCache;
+	}
+
 	/**
 	 * Adds an extension to the end of the extractExtensions list. Files with this
 	 * extension found inside jars are extracted before loading.
@@ -683,6 +743,177 @@ public class ResourceLoader {
 		return (res == null) ? null : res.getAudioClip();
 	}
 
+	// ___________________________ asynchronous loading _________________________
+
+	// number of threads loading resources in the background: one per core, up
+	// to 4, since decoding images is CPU bound
+	private static final int LOADER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	// extensions of resources whose images are decoded when prefetched
+	private static final Set<String> PREFETCH_IMAGE_EXTENSIONS = new HashSet<String>(
+			Arrays.asList("gif", "png", "jpg", "jpeg", "bmp")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+	// extensions of resources whose text is read when prefetched
+	private static final Set<String> PREFETCH_TEXT_EXTENSIONS = new HashSet<String>(
+			Arrays.asList("html", "htm", "txt", "xml", "xset", "csv")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+	private static ThreadPoolExecutor loaderService;
+
+	// loads in progress, so concurrent requests for a path share one load
+	private static final Map<String, CompletableFuture<Resource>> pendingLoads = new ConcurrentHashMap<String, CompletableFuture<Resource>>();
+
+	/**
+	 * Gets the executor used for background loading, creating it if needed. Its
+	 * daemon threads time out when idle.
+	 */
+	private static synchronized Executor getLoaderService() {
+		if (loaderService == null) {
+			AtomicInteger count = new AtomicInteger();
+			loaderService = new ThreadPoolExecutor(LOADER_THREADS, LOADER_THREADS, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), (Runnable r) -> {
+						Thread t = new Thread(r, "ResourceLoader-" + count.incrementAndGet()); //$NON-NLS-1$
+						t.setDaemon(true);
+						return t;
+					});
+			loaderService.allowCoreThreadTimeOut(true);
+		}
+		return loaderService;
+	}
+
+	/**
+	 * Gets a resource in the background. Concurrent requests for the same name
+	 * share a single load. In JavaScript the resource is loaded before this
+	 * method returns.
+	 * 
+	 * @param name the file or URL name
+	 * @return a future for the Resource, which is null if none found
+	 */
+	public static CompletableFuture<Resource> getResourceAsync(String name) {
+		return loadAsync(name, false, false);
+	}
+
+	/**
+	 * Loads a resource in the background, optionally decoding its image or
+	 * reading its text before the load is complete.
+	 */
+	private static CompletableFuture<Resource> loadAsync(String name, boolean isImage, boolean isText) {
+		if (name == null || OSPRuntime.isJS)
+			return CompletableFuture.completedFuture(getResource(name, true, false));
+		CompletableFuture<Resource> load = new CompletableFuture<Resource>();
+		CompletableFuture<Resource> pending = pendingLoads.putIfAbsent(name, load);
+		if (pending == null) {
+			getLoaderService().execute(() -> {
+				try {
+					Resource res = getResource(name, true, false);
+					if (res != null && isImage)
+						res.getImage();
+					else if (res != null && isText)
+						res.getString();
+					load.complete(res);
+				} catch (Throwable t) {
+					load.completeExceptionally(t);
+				} finally {
+					pendingLoads.remove(name, load);
+				}
+			});
+			pending = load;
+		}
+		// callers get their own stage so canceling one does not cancel the others
+		return pending.thenApply(Function.identity());
+	}
+
+	/**
+	 * Gets a buffered image in the background. The image is decoded off the
+	 * calling thread.
+	 * 
+	 * @param path the path
+	 * @return a future for the image, which is null if none found
+	 */
+	public static CompletableFuture<BufferedImage> getBufferedImageAsync(String path) {
+		return loadAsync(path, true, false).thenApplyAsync((Resource res) -> {
+			return (res == null) ? null : res.getBufferedImage();
+		}, OSPRuntime.isJS ? Runnable::run : getLoaderService());
+	}
+
+	/**
+	 * Gets a string in the background. The text is read off the calling thread.
+	 * 
+	 * @param path the path
+	 * @return a future for the string, which is null if none found
+	 */
+	public static CompletableFuture<String> getStringAsync(String path) {
+		return loadAsync(path, false, true).thenApply((Resource res) -> {
+			return (res == null) ? null : res.getString();
+		});
+	}
+
+	/**
+	 * Loads resources in the background so that later calls to getResource find
+	 * them in the cache. Images are decoded and text files read. This does nothing
+	 * if the cache is disabled, since there would be nowhere to keep the results.
+	 * 
+	 * @param paths the paths
+	 * @return the number of resources queued for loading
+	 */
+	public static int prefetch(Collection<String> paths) {
+		if (!cacheEnabled || OSPRuntime.isJS)
+			return 0;
+		int n = 0;
+		for (String path : paths) {
+			if (resourceCache.containsKey(path) || pendingLoads.containsKey(path))
+				continue;
+			String ext = XML.getExtension(path);
+			ext = (ext == null ? "" : ext.toLowerCase()); //$NON-NLS-1$
+			loadAsync(path, PREFETCH_IMAGE_EXTENSIONS.contains(ext), PREFETCH_TEXT_EXTENSIONS.contains(ext));
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Prefetches the resources referenced by an XMLControl: string properties,
+	 * at any depth, whose values are paths with a known image or text extension.
+	 * Relative paths are resolved with respect to a base path.
+	 * 
+	 * @param control  the control
+	 * @param basePath the base path for relative paths (may be null)
+	 * @return the number of resources queued for loading
+	 * @see #prefetch(Collection)
+	 */
+	public static int prefetch(XMLControl control, String basePath) {
+		if (control == null || !cacheEnabled || OSPRuntime.isJS)
+			return 0;
+		Set<String> paths = new LinkedHashSet<String>();
+		collectResourcePaths(control, basePath, paths);
+		return prefetch(paths);
+	}
+
+	/**
+	 * Collects paths to resources from the string values of a property and its
+	 * descendants.
+	 */
+	private static void collectResourcePaths(XMLProperty prop, String basePath, Set<String> paths) {
+		for (Object next : prop.getPropertyContent()) {
+			if (next instanceof XMLProperty) {
+				collectResourcePaths((XMLProperty) next, basePath, paths);
+			} else if (next instanceof String && prop.getPropertyType() == XMLProperty.TYPE_STRING) {
+				String path = XML.removeCDATA(((String) next).trim());
+				if (path.length() == 0 || path.length() > 1024 || path.indexOf('\n') >= 0 || path.indexOf('<') >= 0)
+					continue;
+				String ext = XML.getExtension(path);
+				if (ext == null)
+					continue;
+				ext = ext.toLowerCase();
+				if (!PREFETCH_IMAGE_EXTENSIONS.contains(ext) && !PREFETCH_TEXT_EXTENSIONS.contains(ext))
+					continue;
+				if (basePath != null && !basePath.equals("") && !path.startsWith("/") //$NON-NLS-1$ //$NON-NLS-2$
+						&& path.indexOf(":") == -1) //$NON-NLS-1$
+					path = XML.getResolvedPath(path, basePath);
+				paths.add(path);
+			}
+		}
+	}
+
 	public static void setOSPCache(String cachePath) {
 		setOSPCache(cachePath == null  || cachePath.trim().equals("")
 				? getDefaultOSPCache() : new File(cachePath));
@@ -748,6 +979,55 @@ public class ResourceLoader {
 		return ospCache;
 	}
 
+	/**
+	 * Gets the index of files downloaded into the OSP cache. Java only.
+	 * 
+	 * @return the download cache, or null if no OSP cache
+	 */
+	public static DownloadCache getDownloadCache() {
+		if (OSPRuntime.isJS || ospCache == null)
+			return null;
+		if (downloadCache == null || !downloadCache.getCacheDirectory().equals(ospCache)) {
+			downloadCache = new DownloadCache(ospCache);
+			downloadCache.setMaxSize(ospCacheMaxSize);
+		}
+		return downloadCache;
+	}
+
+	/**
+	 * Gets the download cache for a web file downloaded into the OSP cache.
+	 * 
+	 * @return the download cache, or null if not applicable
+	 */
+	private static DownloadCache getDownloadCache(String urlPath, File target) {
+		if (OSPRuntime.isJS || ospCache == null || !isHTTP(urlPath) || urlPath.indexOf("!/") >= 0) //$NON-NLS-1$
+			return null;
+		if (!target.getAbsolutePath().startsWith(ospCache.getAbsolutePath() + File.separator))
+			return null;
+		return getDownloadCache();
+	}
+
+	/**
+	 * Sets the maximum size of the files downloaded into the OSP cache. When
+	 * exceeded, the least recently used files are deleted.
+	 * 
+	 * @param bytes the maximum size in bytes, or 0 for no limit
+	 */
+	public static void setOSPCacheMaxSize(long bytes) {
+		ospCacheMaxSize = Math.max(0, bytes);
+		if (downloadCache != null)
+			downloadCache.setMaxSize(ospCacheMaxSize);
+	}
+
+	/**
+	 * Gets the maximum size of the files downloaded into the OSP cache.
+	 * 
+	 * @return the maximum size in bytes, or 0 if no limit
+	 */
+	public static long getOSPCacheMaxSize() {
+		return ospCacheMaxSize;
+	}
+
 	private static File defaultOSPCache;
 
 	/**
@@ -866,7 +1146,7 @@ public class ResourceLoader {
 	 * 
 	 * @return the search cache
 	 */
-	private static File getSearchCache() {
+	static File getSearchCache() {
 		File ospCache = getOSPCache();
 		if (ospCache == null && (ospCache = getDefaultOSPCache()) == null)
 			return null;
@@ -1252,6 +1532,11 @@ public class ResourceLoader {
 		if (clearSearchCache) {
 			success = success && deleteFile(new File(cache, SEARCH_CACHE_SUBDIRECTORY));
 		}
+		// the downloads are gone, so forget them
+		if (downloadCache != null && downloadCache.getCacheDirectory().equals(cache))
+			downloadCache.clear();
+		else
+			new File(cache, DownloadCache.INDEX_FILE_NAME).delete();
 		if (!success) {
 			JOptionPane.showMessageDialog(null, ToolsRes.getString("ResourceLoader.Dialog.UnableToClearCache.Message1") //$NON-NLS-1$
 					+ "\n" + ToolsRes.getString("ResourceLoader.Dialog.UnableToClearCache.Message2"), //$NON-NLS-1$ //$NON-NLS-2$
@@ -1327,13 +1612,23 @@ public class ResourceLoader {
 		return results;
 	}
 
-	private static Map<String, Map<String, ZipEntry>> htZipContents = new HashMap<>();
+	// maximum number of zip files with cached contents
+	private static final int MAX_CACHED_ZIP_CONTENTS = 32;
+
+	private static Map<String, Map<String, ZipEntry>> htZipContents = Collections
+			.synchronizedMap(new LinkedHashMap<String, Map<String, ZipEntry>>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Map<String, ZipEntry>> eldest) {
+					return size() > MAX_CACHED_ZIP_CONTENTS;
+				}
+			});
 
 	/**
 	 * zip contents caching can save time in complex loading.
 	 */
 	public static void clearZipCache() {
 		htZipContents.clear();
+		ZipIndex.clear();
 	}
 	
 	/**
@@ -1342,6 +1637,8 @@ public class ResourceLoader {
 	public static void removeFromZipCache(String zipPath) {
 		URL url = getURLWithCachedBytes(zipPath);
 		htZipContents.remove(url.toString());
+		if (!OSPRuntime.isJS && "file".equals(url.getProtocol())) //$NON-NLS-1$
+			ZipIndex.remove(new File(getNonURIPath(url.toString())));
 	}
 
 	public static boolean checkExists(String path) {
@@ -1443,6 +1740,14 @@ public class ResourceLoader {
 				return fileNames;
 		}
 		try {
+			// Use the central directory of a local file if possible.
+			ZipIndex index = getZipIndex(url);
+			if (index != null) {
+				Map<String, ZipEntry> fileNames = index.getContents();
+				if (OSPRuntime.doCacheZipContents)
+					htZipContents.put(url.toString(), fileNames);
+				return fileNames;
+			}
 			// Scan URL zip stream for files.
 			boolean cacheConnection = isHTTP(url.getPath());
 			return readZipContents(openInputStreamAndCache(url, cacheConnection), url);
@@ -1468,6 +1773,18 @@ public class ResourceLoader {
 
 
 
+	/**
+	 * Gets the index of a local zip file.
+	 * 
+	 * @param url the zip file URL
+	 * @return the index, or null if not a local file or not indexable
+	 */
+	private static ZipIndex getZipIndex(URL url) {
+		if (OSPRuntime.isJS || url == null || !"file".equals(url.getProtocol())) //$NON-NLS-1$
+			return null;
+		return ZipIndex.get(new File(getNonURIPath(url.toString())));
+	}
+
 	private static Map<String, ZipEntry> readZipContents(InputStream is, URL url) throws IOException {
 		Map<String, ZipEntry> fileNames = new LinkedHashMap<String, ZipEntry>();
 		if (OSPRuntime.doCacheZipContents)
@@ -1624,6 +1941,14 @@ public class ResourceLoader {
 		if (target.getParentFile() == null)
 			return null;
 		if (target.exists() && !alwaysOverwrite) {
+			DownloadCache cache = getDownloadCache(urlPath, target);
+			if (cache != null) {
+				try {
+					// no request is made: this only marks the file as recently used
+					cache.download(getURIPath(urlPath), target, false);
+				} catch (IOException e) {
+				}
+			}
 			return target;
 		}
 		// compare urlPath with previous attempt and, if identical, check web connection
@@ -1658,17 +1983,22 @@ public class ResourceLoader {
 			downloadURL = urlPath;
 			InputStream is = null;
 			try {
-				Resource res = getResourceZipURLsOK(urlPath);
-				is = (res == null ? ResourceLoader.openStream(new URL(urlPath)) : res.openInputStream());
-				if (OSPRuntime.isJS) {
-					OSPRuntime.jsutil.streamToFile(is, target);
-					if (res != null && cacheEnabled) {
-						// also save non-URI path for search
-						resources.put(getNonURIPath(target.toString()), res);
-					}
-
+				DownloadCache cache = getDownloadCache(urlPath, target);
+				if (cache != null) {
+					// revalidate an existing file or deduplicate new content
+					target = cache.download(urlPath, target, true);
 				} else {
-					Files.copy(is, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					Resource res = getResourceZipURLsOK(urlPath);
+					is = (res == null ? ResourceLoader.openStream(new URL(urlPath)) : res.openInputStream());
+					if (OSPRuntime.isJS) {
+						OSPRuntime.jsutil.streamToFile(is, target);
+						if (res != null && cacheEnabled) {
+							// also save non-URI path for search
+							resourceCache.put(getNonURIPath(target.toString()), res);
+						}
+
+					} else {
+						Files.copy(is, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
 //
 //					FileOutputStream writer = new FileOutputStream(target);
 //					byte[] buffer = new byte[65536]; // 2^14 = 64K
@@ -1677,6 +2007,7 @@ public class ResourceLoader {
 //						writer.write(buffer, 0, bytesRead);
 //					}
 //					writer.close();
+					}
 				}
 			} catch (Exception ex) {
 				target = null;
@@ -1822,6 +2153,23 @@ public class ResourceLoader {
 			// Java Only -- none of this is necessary in SwingJS, since we can
 			// directly access the ZipEntry data.
 			URL url = getURLWithCachedBytes(zipFile);
+			ZipIndex index = getZipIndex(url);
+			if (index != null) {
+				// local file: go directly to the entry
+				String name = index.find(entryPath, isContains);
+				if (name != null) {
+					bytes = index.getBytes(name);
+					if (target != null) {
+						target.getParentFile().mkdirs();
+						try (FileOutputStream output = new FileOutputStream(target)) {
+							output.write(bytes);
+						}
+					}
+				}
+				if (bytes == null)
+					throw new IOException("No bytes were found for " + zipFile + "!/" + entryPath);
+				return bytes;
+			}
 			ZipInputStream input = new ZipInputStream(ResourceLoader.openStream(url));
 			ZipEntry zipEntry = null;
 			while ((zipEntry = input.getNextEntry()) != null) {
@@ -2194,14 +2542,13 @@ public class ResourceLoader {
 			}
 		}
 		// if not found, use xset zip loader, if any
-		if ((url == null) && zipLoaders != null && (xsetZipLoader != null)) {
-			url = xsetZipLoader.findResource(fileName);
+		URLClassLoader xsetLoader = xsetZipLoader; // may be reset by another thread
+		if ((url == null) && zipLoaders != null && (xsetLoader != null)) {
+			url = xsetLoader.findResource(fileName);
 			if (url != null) {
-				Iterator<String> it = zipLoaders.keySet().iterator();
-				while (it.hasNext()) {
-					Object key = it.next();
-					if (zipLoaders.get(key) == xsetZipLoader) {
-						base = (String) key;
+				for (Entry<String, URLClassLoader> entry : zipLoaders.entrySet()) {
+					if (entry.getValue() == xsetLoader) {
+						base = entry.getKey();
 						break;
 					}
 				}
@@ -2466,10 +2813,11 @@ public class ResourceLoader {
 
 		// look for cached resource
 		if (cacheEnabled) {
-			res = resources.get(path);
+			res = resourceCache.get(path);
 			// check for non-URI path as well (search)
-			if (res == null && !isHTTP)
-				res = resources.get(getNonURIPath(path));
+			String nonURIPath;
+			if (res == null && !isHTTP && !(nonURIPath = getNonURIPath(path)).equals(path))
+				res = resourceCache.get(nonURIPath);
 			if ((res != null) && (searchFiles || (res.getFile() == null))) {
 				OSPLog.finest("Found in cache: " + path); //$NON-NLS-1$
 				return res;
@@ -2490,7 +2838,7 @@ public class ResourceLoader {
 			// res is not null;
 		}
 		if (res != null && cacheEnabled) {
-			resources.put(path, res);
+			resourceCache.put(path, res);
 		}
 		return res;
 	}
@@ -2615,6 +2963,27 @@ public class ResourceLoader {
 		String targetName = target.toString();
 		//System.out.println("RL extracting " + fileName + " " + targetName + " from " + source);
 		int flen = (fileName.endsWith("/") ? fileName.length() : 0);
+		ZipIndex index = ZipIndex.get(source);
+		if (index != null) {
+			// read entries directly rather than scanning the whole archive
+			try {
+				if (flen == 0) {
+					if (!index.contains(fileName))
+						return target;
+					writeZipEntry(index, fileName, target);
+				} else {
+					for (String name : index.getNames()) {
+						if (name.startsWith(fileName) && !name.endsWith("/")) { //$NON-NLS-1$
+							target = new File(targetName + name.substring(flen));
+							writeZipEntry(index, name, target);
+						}
+					}
+				}
+			} catch (IOException e) {
+				return null;
+			}
+			return target;
+		}
 		FileOutputStream fos = null;
 		try (FileInputStream fis = new FileInputStream(source); ZipInputStream zis = new ZipInputStream(fis);) {
 			ZipEntry ze;
@@ -2643,6 +3012,22 @@ public class ResourceLoader {
 		return target;
 	}
 
+	/**
+	 * Writes a zip entry to a file from an index.
+	 */
+	private static void writeZipEntry(ZipIndex index, String name, File target) throws IOException {
+		File parent = target.getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		ByteBuffer buf = index.getBuffer(name);
+		try (FileOutputStream fos = new FileOutputStream(target); FileChannel channel = fos.getChannel()) {
+			while (buf.hasRemaining())
+				channel.write(buf);
+		}
+		OSPLog.finer("extracted " + target + " " + target.length()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 // BH 2020.04.14 abandoned
 //		
 //		  private static Map<String, Map<String, ZipEntry>> jarContents = new HashMap<String, Map<String, ZipEntry>>(); // added by D Brown 2007-10-31
@@ -3030,6 +3415,11 @@ public class ResourceLoader {
 		if (n > -1) {
 			URL toOpen = (zipURL == null ? new URL(entryPath.substring(4, n)) : zipURL);
 			entryPath = entryPath.substring(n + 2);
+			ZipIndex index = getZipIndex(toOpen);
+			if (index != null) {
+				String name = index.find(entryPath, false);
+				return (name == null ? null : index.openStream(name));
+			}
 //			BufferedInputStream bufIn = new BufferedInputStream(toOpen.openStream());
 			ZipInputStream input = new ZipInputStream(ResourceLoader.openStream(toOpen));
 			ZipEntry zipEntry = null;
@@ -3295,7 +3685,7 @@ public class ResourceLoader {
 	public static Image getVideoImage(String path) {
 		Resource res = null;
 		if (OSPRuntime.isJS && isZipEntry(path, false) >= 0) {
-			res = resources.get(path);
+			res = resourceCache.get(path);
 			if (res == null) {
 				try {
 					byte[] bytes = getZipEntryBytes(path, null);
@@ -3304,7 +3694,7 @@ public class ResourceLoader {
 				} catch (IOException e) {
 				}
 				if (res != null) {
-					resources.put(path, res);
+					resourceCache.put(path, res);
 				}
 			}
 		}
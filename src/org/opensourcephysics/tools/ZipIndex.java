@@ -0,0 +1,593 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.tools;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import org.opensourcephysics.display.OSPRuntime;
+
+/**
+ * An index of the central directory of a local zip file (zip, jar, trz, etc).
+ * The directory is read once, so entries can be found and read directly
+ * without scanning the archive from the start. When mapping is enabled the
+ * archive is memory-mapped and stored entries are served without copying;
+ * deflated entries are inflated with pooled Inflaters.
+ *
+ * Indexes are cached by canonical path and rebuilt if the file changes. ZIP64
+ * archives and archives larger than 2GB are not indexed, in which case get()
+ * returns null and callers fall back to ZipInputStream. Java only.
+ *
+ * @version 1.0
+ */
+public class ZipIndex {
+
+	/** maximum number of cached indexes */
+	public static final int MAX_CACHED_INDEXES = 16;
+
+	/**
+	 * True to memory-map archives. Off by default on Windows, where a mapped
+	 * file cannot be deleted or overwritten until the mapping is collected.
+	 */
+	public static boolean useMapping = !OSPRuntime.isJS && !OSPRuntime.isWindows();
+
+	private static final int LOCAL_HEADER_SIG = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+	private static final int END_SIG = 0x06054b50;
+	private static final int END_SIZE = 22;
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int CENTRAL_HEADER_SIZE = 46;
+	private static final int MAX_POOLED_INFLATERS = 4;
+	private static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+	private static final Map<String, ZipIndex> indexes = Collections
+			.synchronizedMap(new LinkedHashMap<String, ZipIndex>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, ZipIndex> eldest) {
+					return size() > MAX_CACHED_INDEXES;
+				}
+			});
+
+	private static final ArrayDeque<Inflater> inflaters = new ArrayDeque<Inflater>();
+
+	private final File file;
+	private final long lastModified, length;
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+	private ByteBuffer mapped;
+
+	/**
+	 * Gets the index of a local zip file, reading it if not already cached.
+	 *
+	 * @param file the zip file
+	 * @return the index, or null if the file cannot be indexed
+	 */
+	public static ZipIndex get(File file) {
+		if (OSPRuntime.isJS || file == null || !file.isFile())
+			return null;
+		String key;
+		try {
+			key = file.getCanonicalPath();
+		} catch (IOException e) {
+			key = file.getAbsolutePath();
+		}
+		ZipIndex index = indexes.get(key);
+		if (index != null && index.lastModified == file.lastModified() && index.length == file.length())
+			return index;
+		try {
+			index = new ZipIndex(file);
+		} catch (IOException e) {
+			index = null;
+		}
+		if (index == null)
+			indexes.remove(key);
+		else
+			indexes.put(key, index);
+		return index;
+	}
+
+	/**
+	 * Removes a file from the index cache.
+	 *
+	 * @param file the zip file
+	 */
+	public static void remove(File file) {
+		try {
+			indexes.remove(file.getCanonicalPath());
+		} catch (IOException e) {
+			indexes.remove(file.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Clears the index cache.
+	 */
+	public static void clear() {
+		indexes.clear();
+	}
+
+	private ZipIndex(File file) throws IOException {
+		this.file = file;
+		lastModified = file.lastModified();
+		length = file.length();
+		if (length > Integer.MAX_VALUE || length < END_SIZE)
+			throw new ZipException("cannot index " + file); //$NON-NLS-1$
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) { //$NON-NLS-1$
+			readDirectory(channel);
+			if (useMapping)
+				mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		}
+	}
+
+	/**
+	 * Reads the end record and the central directory.
+	 */
+	private void readDirectory(FileChannel channel) throws IOException {
+		// the end record is followed by a comment of at most 0xFFFF bytes
+		int tailSize = (int) Math.min(length, END_SIZE + 0xFFFF);
+		ByteBuffer tail = read(channel, length - tailSize, tailSize);
+		int end = -1;
+		for (int i = tailSize - END_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == END_SIG) {
+				end = i;
+				break;
+			}
+		}
+		if (end < 0)
+			throw new ZipException("no end record in " + file); //$NON-NLS-1$
+		int count = tail.getShort(end + 10) & 0xFFFF;
+		long dirSize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+		long dirOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+		if (count == 0xFFFF || dirSize == 0xFFFFFFFFL || dirOffset == 0xFFFFFFFFL
+				|| dirOffset + dirSize > length)
+			throw new ZipException("ZIP64 or invalid directory in " + file); //$NON-NLS-1$
+		ByteBuffer dir = read(channel, dirOffset, (int) dirSize);
+		int pos = 0;
+		for (int i = 0; i < count; i++) {
+			if (pos + CENTRAL_HEADER_SIZE > dirSize || dir.getInt(pos) != CENTRAL_HEADER_SIG)
+				throw new ZipException("bad central directory in " + file); //$NON-NLS-1$
+			Entry e = new Entry();
+			e.flags = dir.getShort(pos + 8) & 0xFFFF;
+			e.method = dir.getShort(pos + 10) & 0xFFFF;
+			e.dosTime = dir.getInt(pos + 12) & 0xFFFFFFFFL;
+			e.crc = dir.getInt(pos + 16) & 0xFFFFFFFFL;
+			e.compressedSize = dir.getInt(pos + 20) & 0xFFFFFFFFL;
+			e.size = dir.getInt(pos + 24) & 0xFFFFFFFFL;
+			int nameLen = dir.getShort(pos + 28) & 0xFFFF;
+			int extraLen = dir.getShort(pos + 30) & 0xFFFF;
+			int commentLen = dir.getShort(pos + 32) & 0xFFFF;
+			e.headerOffset = dir.getInt(pos + 42) & 0xFFFFFFFFL;
+			if (e.compressedSize == 0xFFFFFFFFL || e.size == 0xFFFFFFFFL || e.headerOffset == 0xFFFFFFFFL)
+				throw new ZipException("ZIP64 entry in " + file); //$NON-NLS-1$
+			byte[] name = new byte[nameLen];
+			dir.position(pos + CENTRAL_HEADER_SIZE);
+			dir.get(name);
+			e.name = new String(name, UTF8);
+			// keep the first of any duplicate names, as ZipInputStream would find it first
+			if (!entries.containsKey(e.name))
+				entries.put(e.name, e);
+			pos += CENTRAL_HEADER_SIZE + nameLen + extraLen + commentLen;
+		}
+	}
+
+	private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+		while (buf.hasRemaining()) {
+			if (channel.read(buf, position + buf.position()) < 0)
+				throw new EOFException();
+		}
+		buf.flip();
+		return buf;
+	}
+
+	/**
+	 * Gets the zip file.
+	 *
+	 * @return the file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Gets the number of entries, including directories.
+	 *
+	 * @return the entry count
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the entry names in archive order.
+	 *
+	 * @return an unmodifiable set of names
+	 */
+	public Set<String> getNames() {
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	/**
+	 * Determines if the archive contains an entry.
+	 *
+	 * @param name the entry name
+	 * @return true if found
+	 */
+	public boolean contains(String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * Finds a file entry matching a path. An exact match is preferred; otherwise
+	 * the first entry in archive order is returned whose name contains the path
+	 * (isContains true) or is contained in the path (isContains false), the same
+	 * matching ResourceLoader uses for zip streams.
+	 *
+	 * @param path       the path
+	 * @param isContains true to match names that contain the path
+	 * @return the entry name, or null if none
+	 */
+	public String find(String path, boolean isContains) {
+		Entry e = entries.get(path);
+		if (e != null && !e.isDirectory())
+			return path;
+		for (Entry next : entries.values()) {
+			if (!next.isDirectory() && (isContains ? next.name.contains(path) : path.contains(next.name)))
+				return next.name;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the uncompressed size of an entry.
+	 *
+	 * @param name the entry name
+	 * @return the size, or -1 if not found
+	 */
+	public long getSize(String name) {
+		Entry e = entries.get(name);
+		return (e == null ? -1 : e.size);
+	}
+
+	/**
+	 * Gets the file entries (not directories or empty entries) in archive order,
+	 * as ResourceLoader.getZipContents does.
+	 *
+	 * @return a map of name to ZipEntry
+	 */
+	public Map<String, ZipEntry> getContents() {
+		Map<String, ZipEntry> contents = new LinkedHashMap<String, ZipEntry>();
+		for (Entry e : entries.values()) {
+			if (e.isDirectory() || e.size == 0)
+				continue;
+			contents.put(e.name, e.toZipEntry());
+		}
+		return contents;
+	}
+
+	/**
+	 * Gets the contents of an entry as a read-only buffer. For a stored entry in
+	 * a mapped archive this is a view of the mapping, with no copying.
+	 *
+	 * @param name the entry name
+	 * @return the buffer, or null if not found
+	 * @throws IOException
+	 */
+	public ByteBuffer getBuffer(String name) throws IOException {
+		Entry e = entries.get(name);
+		if (e == null)
+			return null;
+		if (e.method == ZipEntry.STORED)
+			return getRawData(e).asReadOnlyBuffer();
+		return ByteBuffer.wrap(getBytes(name)).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Gets the contents of an entry.
+	 *
+	 * @param name the entry name
+	 * @return the bytes, or null if not found
+	 * @throws IOException
+	 */
+	public byte[] getBytes(String name) throws IOException {
+		Entry e = entries.get(name);
+		if (e == null)
+			return null;
+		ByteBuffer raw = getRawData(e);
+		byte[] bytes = new byte[(int) e.size];
+		switch (e.method) {
+		case ZipEntry.STORED:
+			raw.get(bytes);
+			return bytes;
+		case ZipEntry.DEFLATED:
+			byte[] input;
+			if (raw.hasArray() && raw.arrayOffset() == 0 && raw.remaining() == raw.array().length) {
+				input = raw.array();
+			} else {
+				input = new byte[raw.remaining()];
+				raw.get(input);
+			}
+			Inflater inf = getInflater();
+			try {
+				inf.setInput(input);
+				int n = 0;
+				while (n < bytes.length) {
+					int k = inf.inflate(bytes, n, bytes.length - n);
+					if (k == 0) {
+						if (inf.finished() || inf.needsDictionary())
+							break;
+						if (inf.needsInput()) {
+							// raw inflate may need a dummy byte at the end of the input
+							inf.setInput(new byte[1]);
+						}
+					}
+					n += k;
+				}
+				if (n != bytes.length)
+					throw new ZipException("bad entry size for " + name); //$NON-NLS-1$
+			} catch (DataFormatException ex) {
+				throw new ZipException(ex.getMessage());
+			} finally {
+				releaseInflater(inf);
+			}
+			return bytes;
+		default:
+			throw new ZipException("unsupported compression method for " + name); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Opens a stream to read an entry. Closing the stream returns its Inflater,
+	 * if any, to the pool.
+	 *
+	 * @param name the entry name
+	 * @return the stream, or null if not found
+	 * @throws IOException
+	 */
+	public InputStream openStream(String name) throws IOException {
+		Entry e = entries.get(name);
+		if (e == null)
+			return null;
+		InputStream in = new BufferInputStream(getRawData(e));
+		switch (e.method) {
+		case ZipEntry.STORED:
+			return in;
+		case ZipEntry.DEFLATED:
+			return new EntryInflaterStream(in, getInflater(), e.size);
+		default:
+			throw new ZipException("unsupported compression method for " + name); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Gets the raw (possibly compressed) data of an entry, positioned at its
+	 * start.
+	 */
+	private ByteBuffer getRawData(Entry e) throws IOException {
+		if ((e.flags & 1) != 0)
+			throw new ZipException("encrypted entry " + e.name); //$NON-NLS-1$
+		ByteBuffer map = mapped;
+		if (map != null) {
+			map = map.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			int start = (int) getDataOffset(e, map, null);
+			map.limit(start + (int) e.compressedSize).position(start);
+			return map.slice();
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) { //$NON-NLS-1$
+			long start = getDataOffset(e, null, channel);
+			return read(channel, start, (int) e.compressedSize);
+		}
+	}
+
+	/**
+	 * Gets the offset of an entry's data from its local header, whose name and
+	 * extra field lengths may differ from those in the central directory.
+	 */
+	private long getDataOffset(Entry e, ByteBuffer map, FileChannel channel) throws IOException {
+		if (e.dataOffset >= 0)
+			return e.dataOffset;
+		ByteBuffer header;
+		int pos;
+		if (map != null) {
+			header = map;
+			pos = (int) e.headerOffset;
+		} else {
+			header = read(channel, e.headerOffset, LOCAL_HEADER_SIZE);
+			pos = 0;
+		}
+		if (e.headerOffset + LOCAL_HEADER_SIZE > length || header.getInt(pos) != LOCAL_HEADER_SIG)
+			throw new ZipException("bad local header for " + e.name); //$NON-NLS-1$
+		long offset = e.headerOffset + LOCAL_HEADER_SIZE + (header.getShort(pos + 26) & 0xFFFF)
+				+ (header.getShort(pos + 28) & 0xFFFF);
+		if (offset + e.compressedSize > length)
+			throw new ZipException("truncated entry " + e.name); //$NON-NLS-1$
+		return e.dataOffset = offset;
+	}
+
+	private static Inflater getInflater() {
+		synchronized (inflaters) {
+			Inflater inf = inflaters.poll();
+			if (inf != null)
+				return inf;
+		}
+		return new Inflater(true);
+	}
+
+	private static void releaseInflater(Inflater inf) {
+		inf.reset();
+		synchronized (inflaters) {
+			if (inflaters.size() < MAX_POOLED_INFLATERS) {
+				inflaters.push(inf);
+				return;
+			}
+		}
+		inf.end();
+	}
+
+	@Override
+	public String toString() {
+		return "ZipIndex[" + file + ", " + entries.size() + " entries" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ (mapped == null ? "" : ", mapped") + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * A central directory entry.
+	 */
+	private static class Entry {
+		String name;
+		int flags, method;
+		long dosTime, crc, compressedSize, size, headerOffset;
+		volatile long dataOffset = -1;
+
+		boolean isDirectory() {
+			return name.endsWith("/"); //$NON-NLS-1$
+		}
+
+		ZipEntry toZipEntry() {
+			ZipEntry ze = new ZipEntry(name);
+			ze.setMethod(method == ZipEntry.STORED ? ZipEntry.STORED : ZipEntry.DEFLATED);
+			ze.setSize(size);
+			ze.setCompressedSize(compressedSize);
+			ze.setCrc(crc);
+			Calendar cal = Calendar.getInstance();
+			cal.clear();
+			cal.set((int) ((dosTime >> 25) & 0x7f) + 1980, (int) ((dosTime >> 21) & 0x0f) - 1,
+					(int) ((dosTime >> 16) & 0x1f), (int) ((dosTime >> 11) & 0x1f), (int) ((dosTime >> 5) & 0x3f),
+					(int) ((dosTime << 1) & 0x3e));
+			ze.setTime(cal.getTimeInMillis());
+			return ze;
+		}
+	}
+
+	/**
+	 * An InputStream reading a ByteBuffer.
+	 */
+	private static class BufferInputStream extends InputStream {
+		private final ByteBuffer buf;
+
+		BufferInputStream(ByteBuffer buf) {
+			this.buf = buf;
+		}
+
+		@Override
+		public int read() {
+			return (buf.hasRemaining() ? buf.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			if (!buf.hasRemaining())
+				return -1;
+			len = Math.min(len, buf.remaining());
+			buf.get(b, off, len);
+			return len;
+		}
+
+		@Override
+		public long skip(long n) {
+			int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+			buf.position(buf.position() + k);
+			return k;
+		}
+
+		@Override
+		public int available() {
+			return buf.remaining();
+		}
+	}
+
+	/**
+	 * Inflates an entry with a pooled Inflater, returned to the pool on close.
+	 */
+	private static class EntryInflaterStream extends InflaterInputStream {
+		private final long size;
+		private boolean eof, closed;
+
+		EntryInflaterStream(InputStream in, Inflater inf, long size) {
+			super(in, inf, (int) Math.max(512, Math.min(8192, size)));
+			this.size = size;
+		}
+
+		@Override
+		protected void fill() throws IOException {
+			if (eof)
+				throw new EOFException("Unexpected end of ZLIB input stream"); //$NON-NLS-1$
+			len = in.read(buf, 0, buf.length);
+			if (len == -1) {
+				// raw inflate may need a dummy byte at the end of the input
+				buf[0] = 0;
+				len = 1;
+				eof = true;
+			}
+			inf.setInput(buf, 0, len);
+		}
+
+		@Override
+		public int available() throws IOException {
+			if (closed)
+				return 0;
+			long avail = size - inf.getBytesWritten();
+			return (avail > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(0, avail));
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				super.close();
+				releaseInflater(inf);
+			}
+		}
+	}
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+ * 
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be
+ * released under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston MA 02111-1307 USA or view the license online at
+ * http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024 The Open Source Physics project
+ * http://www.opensourcephysics.org
+ */
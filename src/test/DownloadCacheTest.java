@@ -0,0 +1,109 @@
+package test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.opensourcephysics.tools.DownloadCache;
+import org.opensourcephysics.tools.ResourceLoader;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Exercises the OSP DownloadCache against a local HTTP server: downloads,
+ * deduplication of the same content under different URLs, conditional
+ * revalidation with ETags and least-recently-used cleanup. Usage:
+ * 
+ * <pre>
+ * java test.DownloadCacheTest
+ * </pre>
+ */
+public class DownloadCacheTest {
+
+	static Map<String, byte[]> files = new HashMap<String, byte[]>();
+	static int requests;
+
+	public static void main(String[] args) throws IOException {
+		Random random = new Random(0);
+		byte[] video = new byte[1 << 20];
+		random.nextBytes(video);
+		byte[] other = new byte[1 << 19];
+		random.nextBytes(other);
+		files.put("/videos/run.mp4", video);
+		files.put("/mirror/run.mp4", video);
+		files.put("/data/other.bin", other);
+
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", (exchange) -> {
+			requests++;
+			byte[] bytes = files.get(exchange.getRequestURI().getPath());
+			if (bytes == null) {
+				exchange.sendResponseHeaders(404, -1);
+				exchange.close();
+				return;
+			}
+			String etag = "\"" + Arrays.hashCode(bytes) + "\"";
+			exchange.getResponseHeaders().set("ETag", etag);
+			if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		});
+		server.start();
+		String base = "http://localhost:" + server.getAddress().getPort();
+
+		File dir = Files.createTempDirectory("ospcache").toFile();
+		ResourceLoader.setOSPCache(dir);
+		DownloadCache cache = ResourceLoader.getDownloadCache();
+		try {
+			File run = download(cache, base + "/videos/run.mp4");
+			check("download", Arrays.equals(video, Files.readAllBytes(run.toPath())));
+
+			File mirror = download(cache, base + "/mirror/run.mp4");
+			check("mirror deduplicated", cache.getCounts()[2] == 1 && cache.getSize() == video.length);
+
+			int n = requests;
+			cache.download(base + "/videos/run.mp4", run, false);
+			check("cached file used without request", requests == n);
+
+			cache.download(base + "/videos/run.mp4", run, true);
+			check("revalidated, not modified", cache.getCounts()[1] == 1 && cache.getCounts()[0] == 2);
+
+			byte[] edited = video.clone();
+			edited[0]++;
+			files.put("/videos/run.mp4", edited);
+			cache.download(base + "/videos/run.mp4", run, true);
+			check("revalidated, modified", Arrays.equals(edited, Files.readAllBytes(run.toPath())));
+			check("linked mirror unchanged", Arrays.equals(video, Files.readAllBytes(mirror.toPath())));
+
+			File data = download(cache, base + "/data/other.bin");
+			cache.download(base + "/videos/run.mp4", run, false); // mark as recently used
+			cache.setMaxSize(video.length + other.length);
+			check("least recently used removed", !mirror.exists() && run.exists() && data.exists());
+			System.out.println("cache: " + cache.getFileCount() + " files, " + cache.getSize() + " bytes");
+		} finally {
+			server.stop(0);
+			ResourceLoader.deleteFile(dir);
+		}
+	}
+
+	static File download(DownloadCache cache, String url) throws IOException {
+		return cache.download(url, ResourceLoader.getOSPCacheFile(url), false);
+	}
+
+	static void check(String name, boolean ok) {
+		System.out.println((ok ? "ok     " : "FAILED ") + name);
+	}
+
+}
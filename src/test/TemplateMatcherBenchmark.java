@@ -0,0 +1,113 @@
+package test;
+
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Random;
+
+import org.opensourcephysics.media.core.TPoint;
+import org.opensourcephysics.media.core.TemplateMatcher;
+
+/**
+ * Compares the speed and accuracy of TemplateMatcher searches: direct
+ * summation, FFT correlation and coarse-to-fine pyramid searches. A textured
+ * blob is moved across a noisy synthetic image and matched with templates and
+ * search areas of several sizes. Usage:
+ * 
+ * <pre>
+ * java test.TemplateMatcherBenchmark [frames]
+ * </pre>
+ */
+public class TemplateMatcherBenchmark {
+
+	static final int W = 640, H = 480;
+
+	public static void main(String[] args) {
+		int frames = (args.length > 0 ? Integer.parseInt(args[0]) : 20);
+		int[][] sizes = { { 21, 40 }, { 41, 60 }, { 61, 100 }, { 81, 160 } }; // template, search
+		String[] modes = { "direct", "fft", "pyramid 1", "pyramid 2" };
+		System.out.println("template search  mode        ms/match  max error (px)  mean |dPeak|");
+		for (int[] size : sizes) {
+			int t = size[0], s = size[1];
+			TPoint[] reference = null;
+			double[] refPeaks = null;
+			for (String mode : modes) {
+				Random random = new Random(1);
+				BufferedImage background = createBackground(random);
+				BufferedImage first = createFrame(background, 200, 200, random);
+				BufferedImage templateImage = first.getSubimage(200 - t / 2, 200 - t / 2, t, t);
+				TemplateMatcher matcher = new TemplateMatcher(copy(templateImage), new Ellipse2D.Double(0, 0, t, t));
+				matcher.setFFTEnabled(!mode.equals("direct"));
+				matcher.setPyramidLevels(mode.startsWith("pyramid") ? Integer.parseInt(mode.substring(8)) : 0);
+				TPoint[] found = new TPoint[frames];
+				double[] peaks = new double[frames];
+				long nanos = 0;
+				for (int i = 0; i < frames; i++) {
+					double x = 200 + 3.3 * i, y = 200 + 1.7 * i;
+					BufferedImage frame = createFrame(background, x, y, random);
+					Rectangle rect = new Rectangle((int) x - s / 2, (int) y - s / 2, s, s);
+					long start = System.nanoTime();
+					found[i] = matcher.getMatchLocation(frame, rect, null);
+					nanos += System.nanoTime() - start;
+					peaks[i] = matcher.getMatchWidthAndHeight()[1];
+				}
+				if (reference == null) {
+					reference = found;
+					refPeaks = peaks;
+				}
+				double maxError = 0, peakError = 0;
+				for (int i = 0; i < frames; i++) {
+					maxError = Math.max(maxError, found[i].distance(reference[i]));
+					peakError += Math.abs(peaks[i] - refPeaks[i]) / frames;
+				}
+				System.out.printf("%8d %6d  %-10s %9.2f %15.3f %13.4f%n", t, s, mode, nanos / 1e6 / frames, maxError,
+						peakError);
+			}
+		}
+	}
+
+	static BufferedImage createBackground(Random random) {
+		BufferedImage image = new BufferedImage(W, H, BufferedImage.TYPE_INT_RGB);
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		for (int y = 0; y < H; y++) {
+			for (int x = 0; x < W; x++) {
+				int v = (int) (100 + 40 * Math.sin(x / 17.0) * Math.cos(y / 23.0));
+				pixels[y * W + x] = (v << 16) | ((v + 20) << 8) | (v + 40);
+			}
+		}
+		return image;
+	}
+
+	static BufferedImage createFrame(BufferedImage background, double cx, double cy, Random random) {
+		BufferedImage image = copy(background);
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		for (int y = 0; y < H; y++) {
+			for (int x = 0; x < W; x++) {
+				double dx = x - cx, dy = y - cy;
+				double r2 = dx * dx + dy * dy;
+				int p = pixels[y * W + x];
+				int noise = random.nextInt(11) - 5;
+				if (r2 < 400) {
+					// textured blob
+					int v = (int) (200 + 40 * Math.sin(dx / 3) * Math.cos(dy / 4));
+					p = (v << 16) | ((v / 2) << 8) | 60;
+				}
+				int r = clamp(((p >> 16) & 0xff) + noise), g = clamp(((p >> 8) & 0xff) + noise), b = clamp((p & 0xff) + noise);
+				pixels[y * W + x] = (r << 16) | (g << 8) | b;
+			}
+		}
+		return image;
+	}
+
+	static BufferedImage copy(BufferedImage image) {
+		BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+		copy.getGraphics().drawImage(image, 0, 0, null);
+		return copy;
+	}
+
+	static int clamp(int v) {
+		return Math.max(0, Math.min(255, v));
+	}
+
+}
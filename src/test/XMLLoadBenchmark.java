@@ -0,0 +1,125 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.opensourcephysics.controls.XMLControlElement;
+
+/**
+ * Measures the time and peak heap needed to read a large xml file into an
+ * XMLControlElement and load its data. Usage:
+ * 
+ * <pre>
+ * java test.XMLLoadBenchmark [file.xml|file.trk] [megabytes]
+ * </pre>
+ * 
+ * Without a file name a DataTool-like document of the given size (default 200
+ * MB) is generated in the temporary directory.
+ */
+public class XMLLoadBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		File file;
+		if (args.length > 0 && !args[0].matches("\\d+")) {
+			file = new File(args[0]);
+		} else {
+			int mb = (args.length > 0 ? Integer.parseInt(args[0]) : 200);
+			file = File.createTempFile("xmlbenchmark", ".xml");
+			file.deleteOnExit();
+			generate(file, mb);
+		}
+		System.out.println(file + ": " + file.length() / (1 << 20) + " MB");
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			long heap0 = usedHeap();
+			resetPeaks();
+			long t0 = System.currentTimeMillis();
+			XMLControlElement control = new XMLControlElement();
+			try (BufferedReader in = new BufferedReader(
+					new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+				control.read(in);
+			}
+			long t1 = System.currentTimeMillis();
+			for (String name : control.getPropertyNames()) {
+				control.getObject(name);
+			}
+			long t2 = System.currentTimeMillis();
+			System.out.println("read " + (t1 - t0) + " ms, load " + (t2 - t1) + " ms, peak heap "
+					+ (peakHeap() - heap0) / (1 << 20) + " MB" + (control.failedToRead() ? " (failed)" : ""));
+		}
+	}
+
+	/**
+	 * Writes a document with long double arrays and multi-line text, similar to a
+	 * saved DataTool or Tracker file.
+	 */
+	static void generate(File file, int megabytes) throws IOException {
+		Random random = new Random(0);
+		try (Writer out = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			out.write("<object class=\"java.lang.Object\">\n");
+			int n = 0;
+			while (file.length() < (long) megabytes << 20) {
+				int index = n++;
+				out.write("    <property name=\"notes" + index + "\" type=\"string\"><![CDATA[");
+				for (int i = 0; i < 2000; i++) {
+					out.write("line " + i + " of notes <" + index + ">\n");
+				}
+				out.write("]]></property>\n");
+				out.write("    <property name=\"data" + index + "\" type=\"array\" class=\"[D\">\n");
+				out.write("        <property name=\"array\" type=\"string\">");
+				StringBuilder sb = new StringBuilder("{");
+				for (int i = 0; i < 100000; i++) {
+					sb.append(i == 0 ? "" : ",").append(random.nextDouble());
+				}
+				out.write(sb.append("}").toString());
+				out.write("</property>\n    </property>\n");
+				out.flush();
+			}
+			out.write("</object>\n");
+		}
+	}
+
+	private static ArrayList<MemoryPoolMXBean> heapPools() {
+		ArrayList<MemoryPoolMXBean> pools = new ArrayList<MemoryPoolMXBean>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pools.add(pool);
+			}
+		}
+		return pools;
+	}
+
+	private static void resetPeaks() {
+		for (MemoryPoolMXBean pool : heapPools()) {
+			pool.resetPeakUsage();
+		}
+	}
+
+	private static long peakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : heapPools()) {
+			peak += pool.getPeakUsage().getUsed();
+		}
+		return peak;
+	}
+
+	private static long usedHeap() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+}